@@ -23,11 +23,13 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.automation.jsscripting.internal.fs.watch.JSDependencyTracker;
 import org.openhab.core.automation.module.script.ScriptDependencyTracker;
 import org.openhab.core.automation.module.script.ScriptEngineFactory;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.config.core.ConfigurableService;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 
@@ -46,6 +48,9 @@ import com.oracle.truffle.js.scriptengine.GraalJSEngineFactory;
 public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
     private static final String CFG_INJECTION_ENABLED = "injectionEnabled";
     private static final String CFG_INJECTION_CACHING_ENABLED = "injectionCachingEnabled";
+    private static final String CFG_ENGINE_POOL_SIZE = "enginePoolSize";
+    private static final int DEFAULT_ENGINE_POOL_SIZE = 2;
+    private static final String THREAD_POOL_NAME = "jsscripting";
 
     private static final GraalJSEngineFactory factory = new GraalJSEngineFactory();
 
@@ -60,6 +65,7 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
 
     private boolean injectionEnabled = true;
     private boolean injectionCachingEnabled = true;
+    private volatile @Nullable OpenhabGraalJSScriptEnginePool<OpenhabGraalJSScriptEngine> enginePool;
 
     private final JSScriptServiceUtil jsScriptServiceUtil;
     private final JSDependencyTracker jsDependencyTracker;
@@ -87,8 +93,14 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
         if (!scriptTypes.contains(scriptType)) {
             return null;
         }
-        return new DebuggingGraalScriptEngine<>(new OpenhabGraalJSScriptEngine(injectionEnabled,
-                injectionCachingEnabled, jsScriptServiceUtil, jsDependencyTracker));
+        OpenhabGraalJSScriptEnginePool<OpenhabGraalJSScriptEngine> localEnginePool = enginePool;
+        OpenhabGraalJSScriptEngine engine = localEnginePool != null ? localEnginePool.take() : createEngine();
+        return new DebuggingGraalScriptEngine<>(engine);
+    }
+
+    private OpenhabGraalJSScriptEngine createEngine() {
+        return new OpenhabGraalJSScriptEngine(injectionEnabled, injectionCachingEnabled, jsScriptServiceUtil,
+                jsDependencyTracker);
     }
 
     @Override
@@ -97,9 +109,33 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
     }
 
     @Modified
-    protected void modified(Map<String, ?> config) {
+    protected synchronized void modified(Map<String, ?> config) {
         this.injectionEnabled = ConfigParser.valueAsOrElse(config.get(CFG_INJECTION_ENABLED), Boolean.class, true);
         this.injectionCachingEnabled = ConfigParser.valueAsOrElse(config.get(CFG_INJECTION_CACHING_ENABLED),
                 Boolean.class, true);
+        int enginePoolSize = ConfigParser.valueAsOrElse(config.get(CFG_ENGINE_POOL_SIZE), Integer.class,
+                DEFAULT_ENGINE_POOL_SIZE);
+
+        // pooled engines have been created with the previous settings
+        closeEnginePool();
+        if (enginePoolSize > 0) {
+            var localEnginePool = new OpenhabGraalJSScriptEnginePool<>(this::createEngine,
+                    ThreadPoolManager.getPool(THREAD_POOL_NAME), enginePoolSize);
+            localEnginePool.fill();
+            enginePool = localEnginePool;
+        }
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        closeEnginePool();
+    }
+
+    private void closeEnginePool() {
+        OpenhabGraalJSScriptEnginePool<OpenhabGraalJSScriptEngine> localEnginePool = enginePool;
+        if (localEnginePool != null) {
+            localEnginePool.close();
+            enginePool = null;
+        }
     }
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsMeter;
+import org.openhab.io.metrics.MetricsTimer;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Records the script initialization metrics through the {@link AddonMetrics} of the metrics service.
+ * <p />
+ * The metrics service is optional: this component is only activated if it is installed, and only this class refers to
+ * its package, so the add-on runs without it.
+ *
+ * @author Agent - Initial contribution
+ */
+@Component(service = JSScriptMetrics.class)
+@NonNullByDefault
+public class JSScriptMetrics {
+    static final String METRIC_SCRIPT_INITIALIZATION = "openhab.automation.jsscripting.script.initialization";
+    static final String TAG_SCRIPT = "script";
+
+    private final AddonMetrics addonMetrics;
+    private final Map<String, MetricsTimer> initializationTimers = new ConcurrentHashMap<>();
+
+    @Activate
+    public JSScriptMetrics(final @Reference AddonMetrics addonMetrics) {
+        this.addonMetrics = addonMetrics;
+    }
+
+    @Deactivate
+    public void deactivate() {
+        initializationTimers.values().forEach(MetricsMeter::remove);
+        initializationTimers.clear();
+    }
+
+    /**
+     * Record the time it took to initialize the script engine of a script.
+     *
+     * @param engineIdentifier the identifier of the script engine
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordScriptInitialization(String engineIdentifier, long nanos) {
+        initializationTimers.computeIfAbsent(engineIdentifier,
+                identifier -> addonMetrics.timer(METRIC_SCRIPT_INITIALIZATION, TAG_SCRIPT, identifier)).record(nanos);
+    }
+
+    /**
+     * Remove the initialization metrics of a script engine that has been closed.
+     *
+     * @param engineIdentifier the identifier of the script engine
+     */
+    public void removeScriptInitializationMetrics(String engineIdentifier) {
+        @Nullable
+        MetricsTimer timer = initializationTimers.remove(engineIdentifier);
+        if (timer != null) {
+            timer.remove();
+        }
+    }
+}
@@ -15,11 +15,14 @@ package org.openhab.automation.jsscripting.internal;
 import java.util.concurrent.locks.Lock;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.automation.module.script.action.ScriptExecution;
 import org.openhab.core.scheduler.Scheduler;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 
 /**
  * OSGi utility service for providing easy access to script services.
@@ -31,6 +34,7 @@ import org.osgi.service.component.annotations.Reference;
 public class JSScriptServiceUtil {
     private final Scheduler scheduler;
     private final ScriptExecution scriptExecution;
+    private volatile @Nullable JSScriptMetrics metrics;
 
     @Activate
     public JSScriptServiceUtil(final @Reference Scheduler scheduler, final @Reference ScriptExecution scriptExecution) {
@@ -49,4 +53,39 @@ public class JSScriptServiceUtil {
     public JSRuntimeFeatures getJSRuntimeFeatures(Lock lock) {
         return new JSRuntimeFeatures(lock, this);
     }
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    protected void setMetrics(JSScriptMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    protected void unsetMetrics(JSScriptMetrics metrics) {
+        this.metrics = null;
+    }
+
+    /**
+     * Record the time it took to initialize the script engine of a script, i.e. to inject the globals and the
+     * openhab-js library before the script is evaluated for the first time.
+     *
+     * @param engineIdentifier the identifier of the script engine
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordScriptInitialization(String engineIdentifier, long nanos) {
+        JSScriptMetrics localMetrics = metrics;
+        if (localMetrics != null) {
+            localMetrics.recordScriptInitialization(engineIdentifier, nanos);
+        }
+    }
+
+    /**
+     * Remove the initialization metrics of a script engine that has been closed.
+     *
+     * @param engineIdentifier the identifier of the script engine
+     */
+    public void removeScriptInitializationMetrics(String engineIdentifier) {
+        JSScriptMetrics localMetrics = metrics;
+        if (localMetrics != null) {
+            localMetrics.removeScriptInitializationMetrics(engineIdentifier);
+        }
+    }
 }
@@ -72,7 +72,7 @@ import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
  */
 public class OpenhabGraalJSScriptEngine
         extends InvocationInterceptingScriptEngineWithInvocableAndCompilableAndAutoCloseable<GraalJSScriptEngine>
-        implements Lock {
+        implements Lock, OpenhabGraalJSScriptEnginePool.PooledEngine {
 
     private static final Source GLOBAL_SOURCE;
     static {
@@ -136,11 +136,13 @@ public class OpenhabGraalJSScriptEngine
     /** {@link Lock} synchronization of multi-thread access */
     private final Lock lock = new ReentrantLock();
     private final JSRuntimeFeatures jsRuntimeFeatures;
+    private final JSScriptServiceUtil jsScriptServiceUtil;
 
     // these fields start as null because they are populated on first use
     private @Nullable Consumer<String> scriptDependencyListener;
     private String engineIdentifier; // this field is very helpful for debugging, please do not remove it
 
+    private boolean globalsInitialized = false;
     private boolean initialized = false;
     private final boolean injectionEnabled;
     private final boolean injectionCachingEnabled;
@@ -155,6 +157,7 @@ public class OpenhabGraalJSScriptEngine
         this.injectionEnabled = injectionEnabled;
         this.injectionCachingEnabled = injectionCachingEnabled;
         this.jsRuntimeFeatures = jsScriptServiceUtil.getJSRuntimeFeatures(lock);
+        this.jsScriptServiceUtil = jsScriptServiceUtil;
 
         delegate = GraalJSScriptEngine.create(ENGINE,
                 Context.newBuilder("js").allowExperimentalOptions(true).allowAllAccess(true)
@@ -225,6 +228,50 @@ public class OpenhabGraalJSScriptEngine
                         }));
     }
 
+    /**
+     * Pre-warms the engine before it is handed out to a script: creates the polyglot context, injects the
+     * {@link JSRuntimeFeatures} and evaluates the globals.
+     * <p />
+     * The openhab-js injection is not pre-evaluated, because the library binds to the engine identifier and script
+     * extensions of the script, which are only known once the engine has been handed out.
+     */
+    @Override
+    public void prewarm() {
+        lock.lock();
+        try {
+            if (!globalsInitialized) {
+                initializeGlobals();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards an engine that has never been handed out to a script, including its polyglot context.
+     */
+    @Override
+    public void discard() {
+        close();
+        try {
+            delegate.close();
+        } catch (RuntimeException e) {
+            logger.debug("Failed to close polyglot context of discarded script engine: {}", e.getMessage());
+        }
+    }
+
+    private void initializeGlobals() {
+        // Injections into the JS runtime
+        jsRuntimeFeatures.getFeatures().forEach((key, obj) -> {
+            logger.debug("Injecting {} into the JS runtime...", key);
+            delegate.put(key, obj);
+        });
+
+        logger.debug("Evaluating cached global script...");
+        delegate.getPolyglotContext().eval(GLOBAL_SOURCE);
+        globalsInitialized = true;
+    }
+
     @Override
     protected void beforeInvocation() {
         super.beforeInvocation();
@@ -238,6 +285,9 @@ public class OpenhabGraalJSScriptEngine
             return;
         }
 
+        long start = System.nanoTime();
+        boolean prewarmed = globalsInitialized;
+
         ScriptContext ctx = delegate.getContext();
         if (ctx == null) {
             throw new IllegalStateException("Failed to retrieve script context");
@@ -274,17 +324,12 @@ public class OpenhabGraalJSScriptEngine
         delegate.getBindings(ScriptContext.ENGINE_SCOPE).put(REQUIRE_WRAPPER_NAME, wrapRequireFn);
         delegate.put("require", wrapRequireFn.apply((Function<Object[], Object>) delegate.get("require")));
 
-        // Injections into the JS runtime
-        jsRuntimeFeatures.getFeatures().forEach((key, obj) -> {
-            logger.debug("Injecting {} into the JS runtime...", key);
-            delegate.put(key, obj);
-        });
-
         initialized = true;
 
         try {
-            logger.debug("Evaluating cached global script...");
-            delegate.getPolyglotContext().eval(GLOBAL_SOURCE);
+            if (!globalsInitialized) {
+                initializeGlobals();
+            }
             if (this.injectionEnabled) {
                 if (this.injectionCachingEnabled) {
                     logger.debug("Evaluating cached openhab-js injection...");
@@ -298,6 +343,11 @@ public class OpenhabGraalJSScriptEngine
         } catch (ScriptException e) {
             logger.error("Could not inject global script", e);
         }
+
+        long duration = System.nanoTime() - start;
+        logger.debug("Initialized script engine {} in {} ms (pre-warmed: {}).", localEngineIdentifier,
+                TimeUnit.NANOSECONDS.toMillis(duration), prewarmed);
+        jsScriptServiceUtil.recordScriptInitialization(localEngineIdentifier, duration);
     }
 
     @Override
@@ -316,6 +366,10 @@ public class OpenhabGraalJSScriptEngine
     @Override
     public void close() {
         jsRuntimeFeatures.close();
+        String localEngineIdentifier = engineIdentifier;
+        if (localEngineIdentifier != null) {
+            jsScriptServiceUtil.removeScriptInitializationMetrics(localEngineIdentifier);
+        }
     }
 
     /**
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a number of pre-warmed {@link OpenhabGraalJSScriptEngine}s ready to be handed out when a script is loaded.
+ * <p />
+ * Engines are created and pre-warmed (see {@link OpenhabGraalJSScriptEngine#prewarm()}) in the background. Every
+ * engine taken from the pool is replaced by a new one, so engines are prepared while previously taken engines load
+ * their scripts. If the pool is empty, an engine is created on the calling thread.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class OpenhabGraalJSScriptEnginePool<E extends OpenhabGraalJSScriptEnginePool.PooledEngine> {
+
+    /**
+     * An engine that can be kept in the pool.
+     */
+    interface PooledEngine {
+        /**
+         * Prepare the engine before it is handed out.
+         */
+        void prewarm();
+
+        /**
+         * Release an engine that will never be handed out.
+         */
+        void discard();
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(OpenhabGraalJSScriptEnginePool.class);
+
+    private final Supplier<E> engineSupplier;
+    private final Executor executor;
+    private final int size;
+
+    private final Deque<E> idle = new ArrayDeque<>();
+    // number of engines being created in the background
+    private int creating;
+    private boolean closed;
+
+    /**
+     * @param engineSupplier creates engines with the current settings of the add-on
+     * @param executor the executor to create engines on
+     * @param size the number of engines to keep ready, <code>0</code> disables pre-warming
+     */
+    OpenhabGraalJSScriptEnginePool(Supplier<E> engineSupplier, Executor executor, int size) {
+        this.engineSupplier = engineSupplier;
+        this.executor = executor;
+        this.size = size;
+    }
+
+    /**
+     * Take an engine from the pool or create one if no pre-warmed engine is available.
+     *
+     * @return the engine, owned by the caller
+     */
+    E take() {
+        @Nullable
+        E engine;
+        synchronized (idle) {
+            engine = idle.pollFirst();
+        }
+        fill();
+        if (engine == null) {
+            logger.debug("No pre-warmed script engine available, creating one.");
+            return engineSupplier.get();
+        }
+        logger.debug("Using pre-warmed script engine.");
+        return engine;
+    }
+
+    /**
+     * Start creating engines in the background until the pool is full.
+     */
+    void fill() {
+        synchronized (idle) {
+            while (!closed && idle.size() + creating < size) {
+                creating++;
+                executor.execute(this::createIdle);
+            }
+        }
+    }
+
+    /**
+     * Discard all idle engines. Engines that are created afterwards are discarded as well.
+     */
+    void close() {
+        synchronized (idle) {
+            closed = true;
+            idle.forEach(PooledEngine::discard);
+            idle.clear();
+        }
+    }
+
+    private void createIdle() {
+        @Nullable
+        E engine = null;
+        try {
+            engine = engineSupplier.get();
+            engine.prewarm();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to pre-warm script engine: {}", e.getMessage());
+            if (engine != null) {
+                engine.discard();
+                engine = null;
+            }
+        } finally {
+            synchronized (idle) {
+                creating--;
+                if (engine != null && !closed) {
+                    idle.addLast(engine);
+                    engine = null;
+                }
+            }
+        }
+        if (engine != null) {
+            engine.discard();
+        }
+    }
+}
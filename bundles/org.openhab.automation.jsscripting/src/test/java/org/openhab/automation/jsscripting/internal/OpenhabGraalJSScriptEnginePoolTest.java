@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link OpenhabGraalJSScriptEnginePool}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class OpenhabGraalJSScriptEnginePoolTest {
+    private final List<TestEngine> created = new ArrayList<>();
+    // background tasks, run by the test when it wants them to complete
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private boolean failPrewarm;
+
+    private OpenhabGraalJSScriptEnginePool<TestEngine> createPool(int size) {
+        return new OpenhabGraalJSScriptEnginePool<>(() -> {
+            TestEngine engine = new TestEngine(failPrewarm);
+            created.add(engine);
+            return engine;
+        }, tasks::add, size);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+        }
+    }
+
+    @Test
+    public void fillCreatesEnginesInTheBackground() {
+        OpenhabGraalJSScriptEnginePool<TestEngine> pool = createPool(2);
+
+        pool.fill();
+        pool.fill();
+        assertEquals(2, tasks.size());
+        assertTrue(created.isEmpty());
+
+        runTasks();
+        assertEquals(2, created.size());
+        assertTrue(created.stream().allMatch(engine -> engine.prewarmed));
+    }
+
+    @Test
+    public void takeHandsOutPrewarmedEngineAndRefills() {
+        OpenhabGraalJSScriptEnginePool<TestEngine> pool = createPool(1);
+        pool.fill();
+        runTasks();
+
+        TestEngine engine = pool.take();
+
+        assertSame(created.get(0), engine);
+        assertTrue(engine.prewarmed);
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(2, created.size());
+        assertSame(created.get(1), pool.take());
+    }
+
+    @Test
+    public void takeCreatesEngineOnCallingThreadWhenEmpty() {
+        OpenhabGraalJSScriptEnginePool<TestEngine> pool = createPool(1);
+
+        TestEngine engine = pool.take();
+
+        assertSame(created.get(0), engine);
+        assertFalse(engine.prewarmed);
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void closeDiscardsIdleAndLaterCreatedEngines() {
+        OpenhabGraalJSScriptEnginePool<TestEngine> pool = createPool(2);
+        pool.fill();
+        tasks.remove().run();
+
+        pool.close();
+        assertTrue(created.get(0).discarded);
+
+        // an engine that was being created while the pool was closed is discarded as well
+        runTasks();
+        assertEquals(2, created.size());
+        assertTrue(created.get(1).discarded);
+
+        TestEngine engine = pool.take();
+        assertEquals(3, created.size());
+        assertFalse(engine.discarded);
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void engineFailingToPrewarmIsDiscarded() {
+        OpenhabGraalJSScriptEnginePool<TestEngine> pool = createPool(1);
+        failPrewarm = true;
+        pool.fill();
+        runTasks();
+
+        assertTrue(created.get(0).discarded);
+
+        // the failed engine has not been added to the pool, so it is filled again
+        failPrewarm = false;
+        pool.fill();
+        runTasks();
+        TestEngine engine = pool.take();
+        assertSame(created.get(1), engine);
+        assertTrue(engine.prewarmed);
+        assertFalse(engine.discarded);
+    }
+
+    private static class TestEngine implements OpenhabGraalJSScriptEnginePool.PooledEngine {
+        private final boolean failPrewarm;
+        private boolean prewarmed;
+        private boolean discarded;
+
+        TestEngine(boolean failPrewarm) {
+            this.failPrewarm = failPrewarm;
+        }
+
+        @Override
+        public void prewarm() {
+            if (failPrewarm) {
+                throw new IllegalStateException("prewarm failed");
+            }
+            prewarmed = true;
+        }
+
+        @Override
+        public void discard() {
+            discarded = true;
+        }
+    }
+}
@@ -14,8 +14,10 @@ package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -25,6 +27,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.mqtt.homeassistant.internal.component.AbstractComponent;
 import org.openhab.core.thing.binding.generic.ChannelTransformation;
+import org.openhab.transform.jinja.JinjaTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +43,9 @@ import com.hubspot.jinjava.interpret.JinjavaInterpreter;
  * Jinja2 template, providing the additional context and extensions required by Home Assistant
  * Based in part on the JinjaTransformationService
  *
+ * Templates are parsed once, see {@link JinjaTemplate}. The value is only parsed as JSON if the template uses
+ * <code>value_json</code>.
+ *
  * @author Cody Cutrer - Initial contribution
  */
 @NonNullByDefault
@@ -50,12 +56,24 @@ public class HomeAssistantChannelTransformation extends ChannelTransformation {
         }
     }
 
+    static final int MAX_CACHED_TEMPLATES = 16;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(HomeAssistantChannelTransformation.class);
 
     private final Jinjava jinjava;
     private final AbstractComponent component;
     private final String template;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // a component uses a few templates, but apply(String, ...) accepts any template
+    private final Map<String, JinjaTemplate> parsedTemplates = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, JinjaTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            });
 
     public HomeAssistantChannelTransformation(Jinjava jinjava, AbstractComponent component, String template) {
         super((String) null);
@@ -81,11 +99,13 @@ public class HomeAssistantChannelTransformation extends ChannelTransformation {
 
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = objectMapper.readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        if (getParsedTemplate(template).mayReference("value_json")) {
+            try {
+                JsonNode tree = OBJECT_MAPPER.readTree(value);
+                bindings.put("value_json", toObject(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
         return apply(template, bindings);
@@ -95,7 +115,7 @@ public class HomeAssistantChannelTransformation extends ChannelTransformation {
         String transformationResult;
 
         try {
-            transformationResult = jinjava.render(template, bindings);
+            transformationResult = getParsedTemplate(template).render(bindings);
         } catch (FatalTemplateErrorsException e) {
             var error = e.getErrors().iterator();
             Exception exception = null;
@@ -116,6 +136,19 @@ public class HomeAssistantChannelTransformation extends ChannelTransformation {
         return Optional.of(transformationResult);
     }
 
+    private JinjaTemplate getParsedTemplate(String template) {
+        JinjaTemplate parsedTemplate = parsedTemplates.get(template);
+        if (parsedTemplate == null) {
+            parsedTemplate = JinjaTemplate.parse(jinjava, template);
+            parsedTemplates.put(template, parsedTemplate);
+        }
+        return parsedTemplate;
+    }
+
+    int getCachedTemplateCount() {
+        return parsedTemplates.size();
+    }
+
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
             case ARRAY: {
@@ -98,6 +98,26 @@ public class HomeAssistantChannelTransformationTests {
         assertThat(transform("{{ 'hi' | is_defined }}", "{}"), is("hi"));
     }
 
+    @Test
+    public void testValueJsonIsOnlyBoundWhenUsed() {
+        assertThat(transform("{{ value_json.state }}", "{\"state\": \"ON\"}"), is("ON"));
+        assertThat(transform("{{ value_json.state | default('none') }}", "not json"), is("none"));
+        assertThat(transform("{{ value }}", "not json"), is("not json"));
+        // the parsed template is reused
+        assertThat(transform("{{ value_json.state }}", "{\"state\": \"OFF\"}"), is("OFF"));
+    }
+
+    @Test
+    public void testParsedTemplatesAreBounded() {
+        for (int i = 0; i < HomeAssistantChannelTransformation.MAX_CACHED_TEMPLATES + 5; i++) {
+            assertThat(transform("{{ value }}-" + i, "x"), is("x-" + i));
+        }
+        assertThat(transformation.getCachedTemplateCount(),
+                is(HomeAssistantChannelTransformation.MAX_CACHED_TEMPLATES));
+        // evicted templates are parsed again
+        assertThat(transform("{{ value }}-0", "y"), is("y-0"));
+    }
+
     protected @Nullable String transform(String template, String value) {
         return transformation.apply(template, value).orElse(null);
     }
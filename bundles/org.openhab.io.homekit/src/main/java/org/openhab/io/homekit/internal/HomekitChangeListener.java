@@ -16,15 +16,19 @@ import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -72,6 +76,8 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     private Map<String, String> knownAccessories = new HashMap<>();
     private int instance;
     private List<String> priorDummies = new ArrayList<>();
+    // the items and metadata each root accessory has been created from, to skip rebuilding unchanged accessories
+    private final Map<String, AccessorySource> accessorySources = new HashMap<>();
 
     private final Set<String> pendingUpdates = new HashSet<>();
 
@@ -287,22 +293,37 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
             bridge.batchUpdate();
         }
 
+        final long start = System.nanoTime();
+        int rebuilt = 0;
+        int changedCount = 0;
         try {
             boolean changed = false;
             for (final String name : pendingUpdates) {
+                final Optional<Item> item = getItemOptional(name);
+                if (item.isPresent() && isUnchanged(name, item.get())) {
+                    logger.trace(" Keep unchanged accessory {}", name);
+                    continue;
+                }
                 String oldValue = knownAccessories.get(name);
                 accessoryRegistry.remove(name);
+                accessorySources.remove(name);
                 logger.trace(" Add items {}", name);
-                getItemOptional(name).ifPresent(this::createRootAccessories);
+                item.ifPresent(this::createRootAccessories);
+                rebuilt++;
                 if (accessoryChanged(name, oldValue)) {
                     changed = true;
+                    changedCount++;
                 }
             }
+            final int pendingCount = pendingUpdates.size();
             pendingUpdates.clear();
             if (checkMissingAccessories() || changed) {
                 makeNewConfigurationRevision();
             }
             checkForDummyAccessories();
+            logger.debug("Applied HomeKit updates of {} items in instance {} in {} ms ({} rebuilt, {} changed).",
+                    pendingCount, instance, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rebuilt,
+                    changedCount);
         } finally {
             if (bridge != null) {
                 bridge.completeUpdateBatch();
@@ -310,6 +331,17 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         }
     }
 
+    /**
+     * Whether the root accessory of an item has been created from the same items and metadata, so it can be kept
+     * instead of being re-created.
+     */
+    private boolean isUnchanged(String name, Item item) {
+        final @Nullable AccessorySource source = accessorySources.get(name);
+        final @Nullable HomekitAccessory accessory = accessoryRegistry.getAllAccessories().get(name);
+        return source != null && accessory != null && !(accessory instanceof DummyHomekitAccessory)
+                && source.equals(AccessorySource.of(item, itemRegistry, metadataRegistry));
+    }
+
     private boolean accessoryChanged(String name, @Nullable String oldValue) {
         String newValue = knownAccessories.get(name);
         if (oldValue == null && newValue == null) {
@@ -331,6 +363,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     public synchronized void clearAccessories() {
         accessoryRegistry.clear();
+        accessorySources.clear();
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
@@ -344,6 +377,10 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     public void updateSettings(HomekitSettings settings) {
         boolean wasUsingDummyAccessories = this.settings.useDummyAccessories;
         this.settings = settings;
+        // accessories depend on the settings, so don't keep them on the next update
+        synchronized (this) {
+            accessorySources.clear();
+        }
         // If they turned off dummy accessories, immediately prune them
         if (wasUsingDummyAccessories && !settings.useDummyAccessories) {
             pruneDummyAccessories();
@@ -482,6 +519,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
                     });
             knownAccessories.put(taggedItem.getName(), accessory.toJson());
             accessoryRegistry.addRootAccessory(taggedItem.getName(), accessory);
+            accessorySources.put(taggedItem.getName(), AccessorySource.of(item, itemRegistry, metadataRegistry));
         } catch (HomekitException e) {
             logger.warn("Cannot create accessory {}: {}", taggedItem, e.getMessage());
         }
@@ -574,4 +612,65 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         priorDummies.clear();
         priorDummies.addAll(currentDummies);
     }
+
+    /**
+     * The items and the values and configurations of their HomeKit metadata a root accessory has been created from.
+     * Items are compared by identity, since the item registry replaces an item by a new instance when it changes.
+     */
+    static class AccessorySource {
+        private final List<Item> items;
+        private final List<@Nullable Object> metadata;
+
+        private AccessorySource(List<Item> items, List<@Nullable Object> metadata) {
+            this.items = items;
+            this.metadata = metadata;
+        }
+
+        /**
+         * Collect the items an accessory is created from: the item, its accessory groups and all its (nested) group
+         * members, together with their HomeKit metadata.
+         */
+        static AccessorySource of(Item item, ItemRegistry itemRegistry, MetadataRegistry metadataRegistry) {
+            final List<Item> items = new ArrayList<>();
+            final Set<Item> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            collectItems(item, items, visited);
+            HomekitAccessoryFactory.getAccessoryGroups(item, itemRegistry, metadataRegistry).stream()
+                    .filter(visited::add).forEach(items::add);
+            final List<@Nullable Object> metadata = new ArrayList<>(items.size() * 2);
+            for (Item i : items) {
+                final @Nullable Metadata itemMetadata = metadataRegistry
+                        .get(new MetadataKey(HomekitAccessoryFactory.METADATA_KEY, i.getUID()));
+                metadata.add(itemMetadata == null ? null : itemMetadata.getValue());
+                metadata.add(itemMetadata == null ? null : itemMetadata.getConfiguration());
+            }
+            return new AccessorySource(items, metadata);
+        }
+
+        private static void collectItems(Item item, List<Item> items, Set<Item> visited) {
+            if (visited.add(item)) {
+                items.add(item);
+                if (item instanceof GroupItem groupItem) {
+                    groupItem.getMembers().forEach(member -> collectItems(member, items, visited));
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof AccessorySource other) || items.size() != other.items.size()) {
+                return false;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) != other.items.get(i)) {
+                    return false;
+                }
+            }
+            return metadata.equals(other.metadata);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(items.size(), metadata);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.Metadata;
+import org.openhab.core.items.MetadataKey;
+import org.openhab.core.items.MetadataRegistry;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.io.homekit.internal.HomekitChangeListener.AccessorySource;
+import org.openhab.io.homekit.internal.accessories.HomekitAccessoryFactory;
+
+/**
+ * Tests the {@link AccessorySource} that decides whether a HomeKit accessory is rebuilt when its item is updated.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class AccessorySourceTest {
+    private final ItemRegistry itemRegistry = mock(ItemRegistry.class);
+    private final MetadataRegistry metadataRegistry = mock(MetadataRegistry.class);
+    private final Map<String, Item> items = new HashMap<>();
+    private final Map<MetadataKey, Metadata> metadata = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(itemRegistry.get(anyString())).thenAnswer(invocation -> items.get(invocation.getArgument(0)));
+        when(metadataRegistry.get(any(MetadataKey.class)))
+                .thenAnswer(invocation -> metadata.get(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void sameItemAndMetadataAreUnchanged() {
+        SwitchItem light = new SwitchItem("light");
+        setMetadata("light", "Lighting", Map.of("homekitName", "Light"));
+
+        assertEquals(source(light), source(light));
+    }
+
+    @Test
+    public void replacedItemIsChanged() {
+        setMetadata("light", "Lighting", Map.of());
+
+        assertNotEquals(source(new SwitchItem("light")), source(new SwitchItem("light")));
+    }
+
+    @Test
+    public void changedMetadataIsChanged() {
+        SwitchItem light = new SwitchItem("light");
+        setMetadata("light", "Lighting", Map.of("homekitName", "Light"));
+        AccessorySource before = source(light);
+
+        setMetadata("light", "Lighting", Map.of("homekitName", "Lamp"));
+        assertNotEquals(before, source(light));
+
+        setMetadata("light", "Switchable", Map.of("homekitName", "Lamp"));
+        AccessorySource switchable = source(light);
+        assertNotEquals(before, switchable);
+
+        metadata.clear();
+        assertNotEquals(switchable, source(light));
+    }
+
+    @Test
+    public void replacedGroupMemberIsChanged() {
+        GroupItem thermostat = new GroupItem("thermostat");
+        thermostat.addMember(new SwitchItem("heating"));
+        setMetadata("thermostat", "Thermostat", Map.of());
+        AccessorySource before = source(thermostat);
+        assertEquals(before, source(thermostat));
+
+        GroupItem updatedThermostat = new GroupItem("thermostat");
+        updatedThermostat.addMember(new SwitchItem("heating"));
+        assertNotEquals(before, source(updatedThermostat));
+    }
+
+    @Test
+    public void nestedGroupsWithCyclesAreCollectedOnce() {
+        GroupItem first = new GroupItem("first");
+        GroupItem second = new GroupItem("second");
+        first.addMember(second);
+        second.addMember(first);
+
+        assertEquals(source(first), source(first));
+    }
+
+    @Test
+    public void replacedAccessoryGroupIsChanged() {
+        SwitchItem light = new SwitchItem("light");
+        light.addGroupName("room");
+        items.put("room", new GroupItem("room"));
+        setMetadata("room", "Lighting", Map.of());
+        AccessorySource before = source(light);
+        assertEquals(before, source(light));
+
+        items.put("room", new GroupItem("room"));
+        assertNotEquals(before, source(light));
+    }
+
+    private AccessorySource source(Item item) {
+        return AccessorySource.of(item, itemRegistry, metadataRegistry);
+    }
+
+    private void setMetadata(String itemName, String value, Map<String, Object> configuration) {
+        MetadataKey key = new MetadataKey(HomekitAccessoryFactory.METADATA_KEY, itemName);
+        metadata.put(key, new Metadata(key, value, configuration));
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics;
+
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link AddonMetrics} is the service add-ons use to publish their own metrics through the metrics service.
+ * <p />
+ * Meters are registered once, e.g. when a handler is initialized, and the returned handle is kept for recording.
+ * Registering a meter with the same name and tags again returns another handle to the same meter, e.g. one per thing
+ * of a thing type. The meter stays registered until all of its handles have been removed. A gauge registered again
+ * keeps reading the object it was first registered with. Add-ons should reference this service optionally and fall
+ * back to {@link MetricsTimer#NOOP} and {@link MetricsCounter#NOOP} if it is not available.
+ * <p />
+ * Tags are given as key/value pairs, e.g. <code>timer("openhab.binding.requests", "binding", "hue")</code>.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public interface AddonMetrics {
+
+    String PERSISTENCE_STORE = "openhab.persistence.store";
+    String PERSISTENCE_QUERY = "openhab.persistence.query";
+    String PERSISTENCE_QUEUE_SIZE = "openhab.persistence.queue.size";
+    String THING_HANDLER = "openhab.thing.handler";
+    String TRANSFORMATION = "openhab.transformation";
+
+    String TAG_SERVICE = "service";
+    String TAG_THING_TYPE = "thingType";
+    String TAG_OPERATION = "operation";
+
+    String OPERATION_HANDLE_COMMAND = "handleCommand";
+    String OPERATION_POLL = "poll";
+
+    /**
+     * Register a timer.
+     *
+     * @param name the name of the timer
+     * @param tags the tags as key/value pairs
+     * @return the timer
+     */
+    MetricsTimer timer(String name, String... tags);
+
+    /**
+     * Register a counter.
+     *
+     * @param name the name of the counter
+     * @param tags the tags as key/value pairs
+     * @return the counter
+     */
+    MetricsCounter counter(String name, String... tags);
+
+    /**
+     * Register a gauge, which reads its value when the metrics are exported.
+     *
+     * @param name the name of the gauge
+     * @param object the object to read the value from, referenced until the gauge is removed
+     * @param valueFunction the function reading the value
+     * @param tags the tags as key/value pairs
+     * @return the gauge
+     */
+    <T> MetricsMeter gauge(String name, T object, ToDoubleFunction<T> valueFunction, String... tags);
+
+    /**
+     * Register the timer for storing values of a persistence service.
+     *
+     * @param serviceId the id of the persistence service
+     * @return the timer
+     */
+    default MetricsTimer persistenceStoreTimer(String serviceId) {
+        return timer(PERSISTENCE_STORE, TAG_SERVICE, serviceId);
+    }
+
+    /**
+     * Register the timer for queries of a persistence service.
+     *
+     * @param serviceId the id of the persistence service
+     * @return the timer
+     */
+    default MetricsTimer persistenceQueryTimer(String serviceId) {
+        return timer(PERSISTENCE_QUERY, TAG_SERVICE, serviceId);
+    }
+
+    /**
+     * Register the gauge for the number of values a persistence service has queued for storing.
+     *
+     * @param serviceId the id of the persistence service
+     * @param queue the queue
+     * @param sizeFunction the function reading the size of the queue
+     * @return the gauge
+     */
+    default <T> MetricsMeter persistenceQueueGauge(String serviceId, T queue, ToDoubleFunction<T> sizeFunction) {
+        return gauge(PERSISTENCE_QUEUE_SIZE, queue, sizeFunction, TAG_SERVICE, serviceId);
+    }
+
+    /**
+     * Register the timer for an operation of the thing handlers of a thing type.
+     *
+     * @param thingTypeUID the UID of the thing type
+     * @param operation the operation, e.g. {@link #OPERATION_HANDLE_COMMAND} or {@link #OPERATION_POLL}
+     * @return the timer
+     */
+    default MetricsTimer thingHandlerTimer(String thingTypeUID, String operation) {
+        return timer(THING_HANDLER, TAG_THING_TYPE, thingTypeUID, TAG_OPERATION, operation);
+    }
+
+    /**
+     * Register the timer for the calls of a transformation service.
+     *
+     * @param serviceType the type of the transformation service, e.g. <code>JSONPATH</code>
+     * @return the timer
+     */
+    default MetricsTimer transformationTimer(String serviceType) {
+        return timer(TRANSFORMATION, TAG_SERVICE, serviceType);
+    }
+}
@@ -28,6 +28,9 @@ public class MetricsConfiguration {
     public @Nullable String influxPassword;
     public @Nullable String influxUsername;
     public Integer influxUpdateIntervalInSeconds = 300;
+    public boolean influxDeltaMode = false;
+
+    public int prometheusMinRenderIntervalInSeconds = 5;
 
     public boolean jmxMetricsEnabled = false;
 
@@ -36,6 +39,8 @@ public class MetricsConfiguration {
         return "MetricsConfiguration{" + "influxMetricsEnabled=" + influxMetricsEnabled + ", influxURL='" + influxURL
                 + '\'' + ", influxDB='" + influxDB + '\'' + ", influxPassword='" + influxPassword + '\''
                 + ", influxUsername='" + influxUsername + '\'' + ", influxUpdateIntervalInSeconds="
-                + influxUpdateIntervalInSeconds + ", jmxMetricsEnabled=" + jmxMetricsEnabled + '}';
+                + influxUpdateIntervalInSeconds + ", influxDeltaMode=" + influxDeltaMode
+                + ", prometheusMinRenderIntervalInSeconds=" + prometheusMinRenderIntervalInSeconds
+                + ", jmxMetricsEnabled=" + jmxMetricsEnabled + '}';
     }
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link MetricsCounter} counts events. Incrementing does not allocate, so counters can be used on hot paths.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public interface MetricsCounter extends MetricsMeter {
+
+    /**
+     * A counter that counts nothing, e.g. for add-ons running without the metrics service.
+     */
+    MetricsCounter NOOP = new MetricsCounter() {
+        @Override
+        public void increment(long amount) {
+        }
+
+        @Override
+        public void remove() {
+        }
+    };
+
+    /**
+     * Count one event.
+     */
+    default void increment() {
+        increment(1);
+    }
+
+    /**
+     * Count a number of events.
+     *
+     * @param amount the number of events
+     */
+    void increment(long amount);
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link MetricsMeter} is a meter registered through {@link AddonMetrics}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public interface MetricsMeter {
+
+    /**
+     * Remove this handle, e.g. when the thing, service or add-on it measures is removed. Recording through a removed
+     * handle has no effect. The meter is removed from the registry when the last handle sharing it is removed.
+     */
+    void remove();
+}
@@ -13,14 +13,19 @@
 package org.openhab.io.metrics;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,6 +36,8 @@ import org.openhab.core.io.monitor.MeterRegistryProvider;
 import org.openhab.core.io.rest.RESTConstants;
 import org.openhab.io.metrics.exporters.InfluxMetricsExporter;
 import org.openhab.io.metrics.exporters.JmxMetricsExporter;
+import org.openhab.io.metrics.internal.PrometheusScrapeCache;
+import org.openhab.io.metrics.internal.PrometheusScrapeCache.Scrape;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
@@ -46,6 +53,7 @@ import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -71,16 +79,28 @@ public class MetricsRestController {
     private @Nullable CompositeMeterRegistry meterRegistry;
     private final PrometheusMeterRegistry prometheusMeterRegistry = new PrometheusMeterRegistry(
             PrometheusConfig.DEFAULT);
+    private final PrometheusScrapeCache prometheusScrapeCache = new PrometheusScrapeCache(
+            prometheusMeterRegistry.getPrometheusRegistry());
     private final Set<MetricsExporter> metricsExporters = new HashSet<>();
     private @Nullable MetricsConfiguration config;
 
     @GET
     @Path("/prometheus")
-    @Produces(MediaType.TEXT_PLAIN)
+    @Produces({ MediaType.TEXT_PLAIN, PrometheusScrapeCache.MEDIA_TYPE_OPENMETRICS })
     @Operation(operationId = "getPrometheusMetrics", summary = "Gets openHAB system and core metrics in a Prometheus compatible format.", responses = {
             @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = String.class))) })
-    public String getPrometheusMetrics() {
-        return prometheusMeterRegistry.scrape();
+    public Response getPrometheusMetrics(@HeaderParam(HttpHeaders.ACCEPT) @Nullable String accept,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) @Nullable String acceptEncoding,
+            @QueryParam("name[]") @Parameter(description = "metric families to include") @Nullable List<String> names,
+            @QueryParam("prefix") @Parameter(description = "metric family prefix") @Nullable String prefix) {
+        Scrape scrape = prometheusScrapeCache.scrape(PrometheusScrapeCache.acceptsOpenMetrics(accept),
+                names == null ? List.of() : names, prefix == null || prefix.isEmpty() ? null : prefix);
+        Response.ResponseBuilder response = Response.ok().type(scrape.getContentType()).header(HttpHeaders.VARY,
+                HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (PrometheusScrapeCache.acceptsGzip(acceptEncoding)) {
+            return response.entity(scrape.getGzippedBody()).header(HttpHeaders.CONTENT_ENCODING, "gzip").build();
+        }
+        return response.entity(scrape.getBody()).build();
     }
 
     @Reference
@@ -111,8 +131,10 @@ public class MetricsRestController {
     }
 
     private void updateConfig(@Nullable Map<@Nullable String, @Nullable Object> configuration) {
-        this.config = new Configuration(configuration).as(MetricsConfiguration.class);
-        logger.debug("Configuration: {}", this.config);
+        MetricsConfiguration config = new Configuration(configuration).as(MetricsConfiguration.class);
+        this.config = config;
+        logger.debug("Configuration: {}", config);
+        prometheusScrapeCache.setMinRenderInterval(config.prometheusMinRenderIntervalInSeconds);
         this.metricsExporters.forEach(e -> e.updateExporterState(config));
     }
 
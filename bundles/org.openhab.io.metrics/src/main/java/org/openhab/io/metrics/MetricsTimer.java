@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link MetricsTimer} measures the latency of an operation. Recording does not allocate, so timers can be used on hot
+ * paths:
+ *
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *     // the measured operation
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public interface MetricsTimer extends MetricsMeter {
+
+    /**
+     * A timer that records nothing, e.g. for add-ons running without the metrics service.
+     */
+    MetricsTimer NOOP = new MetricsTimer() {
+        @Override
+        public void record(long nanos) {
+        }
+
+        @Override
+        public void remove() {
+        }
+    };
+
+    /**
+     * Record the duration of an operation.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    void record(long nanos);
+
+    /**
+     * @return the start time of an operation, to be passed to {@link #stop(long)}
+     */
+    default long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the duration of an operation that started at the given time.
+     *
+     * @param startNanos the start time returned by {@link #start()}
+     */
+    default void stop(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.exporters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.influx.InfluxConfig;
+import io.micrometer.influx.InfluxMeterRegistry;
+
+/**
+ * The {@link DeltaInfluxMeterRegistry} pushes only the meters whose values changed since the last push, instead of a
+ * full snapshot of all meters. A full snapshot is still pushed about once per hour, so that every series has a recent
+ * value in InfluxDB.
+ * <p />
+ * Counters and timers of the Influx registry already report the change within the last step, so they are pushed
+ * while they are used. Idle counters and timers and unchanged gauges are skipped.
+ * <p />
+ * The {@link InfluxMeterRegistry} has no hook to select the meters it publishes, it publishes the meters returned by
+ * {@link #getMeters()}. So the changed meters are returned by {@link #getMeters()} while they are published. If the
+ * Influx registry stops calling {@link #getMeters()} when publishing, this is detected, a warning is logged and all
+ * meters are pushed again.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class DeltaInfluxMeterRegistry extends InfluxMeterRegistry {
+    private static final long FULL_SNAPSHOT_INTERVAL_SECONDS = 3600;
+
+    private final Logger logger = LoggerFactory.getLogger(DeltaInfluxMeterRegistry.class);
+
+    // the meters to publish, only set on the publishing thread while publishing
+    private final ThreadLocal<@Nullable PublishedMeters> publishedMeters = new ThreadLocal<>();
+    private volatile boolean deltaSupported = true;
+    private Map<Meter.Id, double[]> lastValues = new HashMap<>();
+    private final long fullSnapshotEvery;
+    private long publishCount;
+
+    public DeltaInfluxMeterRegistry(InfluxConfig config, Clock clock) {
+        super(config, clock);
+        this.fullSnapshotEvery = Math.max(1, FULL_SNAPSHOT_INTERVAL_SECONDS / Math.max(1, config.step().getSeconds()));
+    }
+
+    @Override
+    protected void publish() {
+        if (!deltaSupported) {
+            super.publish();
+            return;
+        }
+        List<Meter> meters = super.getMeters();
+        boolean fullSnapshot = publishCount++ % fullSnapshotEvery == 0;
+
+        Map<Meter.Id, double[]> values = new HashMap<>();
+        List<Meter> changed = new ArrayList<>();
+        for (Meter meter : meters) {
+            double[] value = measure(meter);
+            values.put(meter.getId(), value);
+            if (fullSnapshot || !Arrays.equals(value, lastValues.get(meter.getId()))) {
+                changed.add(meter);
+            }
+        }
+        lastValues = values;
+
+        if (changed.isEmpty()) {
+            return;
+        }
+        PublishedMeters published = new PublishedMeters(changed);
+        publishedMeters.set(published);
+        try {
+            super.publish();
+        } finally {
+            publishedMeters.remove();
+        }
+        if (!published.requested) {
+            deltaSupported = false;
+            logger.warn("The InfluxDB registry did not request the meters to publish, all metrics are exported.");
+        }
+    }
+
+    @Override
+    public List<Meter> getMeters() {
+        PublishedMeters published = publishedMeters.get();
+        if (published == null) {
+            return super.getMeters();
+        }
+        published.requested = true;
+        return published.meters;
+    }
+
+    /**
+     * @return whether only changed meters are published, <code>false</code> if the Influx registry doesn't support it
+     */
+    boolean isDeltaSupported() {
+        return deltaSupported;
+    }
+
+    private static double[] measure(Meter meter) {
+        List<Double> values = new ArrayList<>();
+        for (Measurement measurement : meter.measure()) {
+            values.add(measurement.getValue());
+        }
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static class PublishedMeters {
+        private final List<Meter> meters;
+        private boolean requested;
+
+        private PublishedMeters(List<Meter> meters) {
+            this.meters = meters;
+        }
+    }
+}
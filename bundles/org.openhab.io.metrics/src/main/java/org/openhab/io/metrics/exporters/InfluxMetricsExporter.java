@@ -37,7 +37,10 @@ public class InfluxMetricsExporter extends MetricsExporter {
 
     @Override
     public void start(CompositeMeterRegistry meterRegistry, MetricsConfiguration metricsConfiguration) {
-        influxMeterRegistry = new InfluxMeterRegistry(getInfluxConfig(metricsConfiguration), Clock.SYSTEM);
+        InfluxConfig influxConfig = getInfluxConfig(metricsConfiguration);
+        influxMeterRegistry = metricsConfiguration.influxDeltaMode
+                ? new DeltaInfluxMeterRegistry(influxConfig, Clock.SYSTEM)
+                : new InfluxMeterRegistry(influxConfig, Clock.SYSTEM);
         meterRegistry.add(influxMeterRegistry);
     }
 
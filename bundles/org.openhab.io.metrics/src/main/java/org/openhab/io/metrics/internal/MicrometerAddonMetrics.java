@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.io.monitor.MeterRegistryProvider;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsCounter;
+import org.openhab.io.metrics.MetricsMeter;
+import org.openhab.io.metrics.MetricsTimer;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The {@link MicrometerAddonMetrics} registers the meters of add-ons in the openHAB meter registry, so they are
+ * exported like the core metrics.
+ * <p />
+ * Handles registered with the same name and tags share one meter. The meter is counted per handle and is only removed
+ * from the registry when the last of its handles is removed.
+ *
+ * @author Agent - Initial contribution
+ */
+@Component(service = AddonMetrics.class)
+@NonNullByDefault
+public class MicrometerAddonMetrics implements AddonMetrics {
+    private final MeterRegistry meterRegistry;
+    // the number of handles of each registered meter
+    private final Map<Meter.Id, Integer> references = new HashMap<>();
+
+    @Activate
+    public MicrometerAddonMetrics(final @Reference MeterRegistryProvider meterRegistryProvider) {
+        this(meterRegistryProvider.getOHMeterRegistry());
+    }
+
+    MicrometerAddonMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public MetricsTimer timer(String name, String... tags) {
+        synchronized (references) {
+            Timer timer = Timer.builder(name).tags(tags).register(meterRegistry);
+            return new TimerHandle(timer, reference(timer));
+        }
+    }
+
+    @Override
+    public MetricsCounter counter(String name, String... tags) {
+        synchronized (references) {
+            Counter counter = Counter.builder(name).tags(tags).register(meterRegistry);
+            return new CounterHandle(counter, reference(counter));
+        }
+    }
+
+    @Override
+    public <T> MetricsMeter gauge(String name, T object, ToDoubleFunction<T> valueFunction, String... tags) {
+        synchronized (references) {
+            Meter gauge = Gauge.builder(name, object, valueFunction).tags(tags).strongReference(true)
+                    .register(meterRegistry);
+            return new MeterHandle(reference(gauge));
+        }
+    }
+
+    private Meter reference(Meter meter) {
+        references.merge(meter.getId(), 1, Integer::sum);
+        return meter;
+    }
+
+    private void release(Meter meter) {
+        synchronized (references) {
+            Integer count = references.get(meter.getId());
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                references.put(meter.getId(), count - 1);
+            } else {
+                references.remove(meter.getId());
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    private class MeterHandle implements MetricsMeter {
+        private final Meter meter;
+        protected volatile boolean removed;
+
+        MeterHandle(Meter meter) {
+            this.meter = meter;
+        }
+
+        @Override
+        public void remove() {
+            synchronized (this) {
+                if (removed) {
+                    return;
+                }
+                removed = true;
+            }
+            release(meter);
+        }
+    }
+
+    private class TimerHandle extends MeterHandle implements MetricsTimer {
+        private final Timer timer;
+
+        TimerHandle(Timer timer, Meter meter) {
+            super(meter);
+            this.timer = timer;
+        }
+
+        @Override
+        public void record(long nanos) {
+            if (!removed) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private class CounterHandle extends MeterHandle implements MetricsCounter {
+        private final Counter counter;
+
+        CounterHandle(Counter counter, Meter meter) {
+            super(meter);
+            this.counter = counter;
+        }
+
+        @Override
+        public void increment(long amount) {
+            if (!removed) {
+                counter.increment(amount);
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+/**
+ * The {@link PrometheusScrapeCache} renders the Prometheus exposition of a {@link CollectorRegistry} and keeps the
+ * result for a minimum render interval, so that frequent scrapes, e.g. of several Prometheus replicas, share one
+ * rendering.
+ * <p />
+ * Scrapes are rendered one at a time, concurrent scrapes of the same series wait for the running rendering and reuse
+ * its result. The text format 0.0.4 and OpenMetrics 1.0.0 are supported, and a compressed copy of a rendering is
+ * created on the first request accepting gzip.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class PrometheusScrapeCache {
+    public static final String MEDIA_TYPE_OPENMETRICS = "application/openmetrics-text";
+    public static final String CONTENT_TYPE_OPENMETRICS = MEDIA_TYPE_OPENMETRICS + "; version=1.0.0; charset=utf-8";
+
+    private static final int MAX_ENTRIES = 16;
+    // the suffixes of the sample names of an OpenMetrics family, by family type
+    private static final Map<String, List<String>> SAMPLE_SUFFIXES = Map.of( //
+            "counter", List.of("_total", "_created"), //
+            "summary", List.of("", "_count", "_sum", "_created"), //
+            "histogram", List.of("_bucket", "_count", "_sum", "_created"));
+
+    private final CollectorRegistry registry;
+    private volatile long minRenderIntervalNanos;
+
+    private final Map<String, Scrape> cache = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, Scrape> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * A rendered scrape.
+     */
+    public static class Scrape {
+        private final byte[] body;
+        private final String contentType;
+        private final long renderedAt;
+        private byte @Nullable [] gzippedBody;
+
+        private Scrape(byte[] body, String contentType, long renderedAt) {
+            this.body = body;
+            this.contentType = contentType;
+            this.renderedAt = renderedAt;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * @return the body compressed with gzip
+         */
+        public synchronized byte[] getGzippedBody() {
+            byte[] localGzippedBody = gzippedBody;
+            if (localGzippedBody == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                localGzippedBody = out.toByteArray();
+                gzippedBody = localGzippedBody;
+            }
+            return localGzippedBody;
+        }
+    }
+
+    public PrometheusScrapeCache(CollectorRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param seconds the minimum time between two renderings of the same series, <code>0</code> disables caching
+     */
+    public void setMinRenderInterval(int seconds) {
+        minRenderIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(0, seconds));
+        synchronized (this) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Get the exposition of the registry, rendered at most once per minimum render interval.
+     *
+     * @param openMetrics <code>true</code> for the OpenMetrics format, <code>false</code> for the text format 0.0.4
+     * @param names the names of the metric families to include, all families if empty
+     * @param prefix the prefix of the names of the metric families to include, or <code>null</code>
+     * @return the rendered scrape
+     */
+    public synchronized Scrape scrape(boolean openMetrics, Collection<String> names, @Nullable String prefix) {
+        Set<String> includedNames = new TreeSet<>(names);
+        String key = (openMetrics ? "openmetrics" : "text") + "|" + (prefix == null ? "" : prefix) + "|"
+                + String.join(",", includedNames);
+        long now = System.nanoTime();
+        Scrape scrape = cache.get(key);
+        if (scrape != null && now - scrape.renderedAt < minRenderIntervalNanos) {
+            return scrape;
+        }
+
+        List<MetricFamilySamples> families = new ArrayList<>();
+        Enumeration<MetricFamilySamples> samples = includedNames.isEmpty() ? registry.metricFamilySamples()
+                : registry.filteredMetricFamilySamples(includedNames);
+        while (samples.hasMoreElements()) {
+            MetricFamilySamples family = samples.nextElement();
+            if (prefix == null || family.name.startsWith(prefix)) {
+                families.add(family);
+            }
+        }
+
+        StringWriter writer = new StringWriter();
+        try {
+            if (openMetrics) {
+                writeOpenMetrics(writer, families);
+            } else {
+                TextFormat.write004(writer, Collections.enumeration(families));
+            }
+        } catch (IOException e) {
+            // can't happen when writing to a string
+            throw new UncheckedIOException(e);
+        }
+        scrape = new Scrape(writer.toString().getBytes(StandardCharsets.UTF_8),
+                openMetrics ? CONTENT_TYPE_OPENMETRICS : TextFormat.CONTENT_TYPE_004, now);
+        if (minRenderIntervalNanos > 0) {
+            cache.put(key, scrape);
+        }
+        return scrape;
+    }
+
+    /**
+     * Whether the client prefers OpenMetrics over the text format, according to its <code>Accept</code> header.
+     */
+    public static boolean acceptsOpenMetrics(@Nullable String accept) {
+        if (accept == null) {
+            return false;
+        }
+        double openMetricsQuality = 0;
+        double textQuality = 0;
+        for (String mediaRange : accept.split(",")) {
+            String[] parts = mediaRange.split(";");
+            String type = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (MEDIA_TYPE_OPENMETRICS.equals(type)) {
+                openMetricsQuality = Math.max(openMetricsQuality, quality);
+            } else if ("text/plain".equals(type)) {
+                textQuality = Math.max(textQuality, quality);
+            }
+        }
+        return openMetricsQuality > 0 && openMetricsQuality >= textQuality;
+    }
+
+    /**
+     * Whether the client accepts gzip, according to its <code>Accept-Encoding</code> header.
+     */
+    public static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return quality(parts) > 0;
+            }
+        }
+        return false;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Write metric families in the OpenMetrics text format 1.0.0.
+     * <p />
+     * The samples of a family must be named after the family with a suffix that depends on its type, e.g.
+     * <code>_total</code> and <code>_created</code> for counters or <code>_bucket</code>, <code>_count</code>,
+     * <code>_sum</code> and <code>_created</code> for histograms. Samples that don't fit their family are written as
+     * families of type <code>unknown</code> of their own, so that the exposition stays valid. A family whose name has
+     * already been written is skipped.
+     */
+    static void writeOpenMetrics(Writer writer, List<MetricFamilySamples> families) throws IOException {
+        Set<String> writtenFamilies = new HashSet<>();
+        for (MetricFamilySamples family : families) {
+            String name = family.name;
+            String type = switch (family.type) {
+                case COUNTER -> "counter";
+                case GAUGE -> "gauge";
+                case SUMMARY -> "summary";
+                case HISTOGRAM -> "histogram";
+                default -> "unknown";
+            };
+            if ("counter".equals(type)) {
+                // the samples of a counter are named <family>_total
+                if (name.endsWith("_total")) {
+                    name = name.substring(0, name.length() - "_total".length());
+                } else {
+                    type = "unknown";
+                }
+            }
+
+            List<String> sampleNames = new ArrayList<>();
+            for (String suffix : SAMPLE_SUFFIXES.getOrDefault(type, List.of(""))) {
+                sampleNames.add(name + suffix);
+            }
+            List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+            Map<String, List<MetricFamilySamples.Sample>> otherSamples = new LinkedHashMap<>();
+            for (MetricFamilySamples.Sample sample : family.samples) {
+                if (sampleNames.contains(sample.name)) {
+                    samples.add(sample);
+                } else {
+                    otherSamples.computeIfAbsent(sample.name, sampleName -> new ArrayList<>()).add(sample);
+                }
+            }
+
+            if ((!samples.isEmpty() || family.samples.isEmpty()) && writtenFamilies.add(name)) {
+                writeFamily(writer, name, type, family.help, samples);
+            }
+            for (Map.Entry<String, List<MetricFamilySamples.Sample>> other : otherSamples.entrySet()) {
+                if (writtenFamilies.add(other.getKey())) {
+                    writeFamily(writer, other.getKey(), "unknown", family.help, other.getValue());
+                }
+            }
+        }
+        writer.write("# EOF\n");
+    }
+
+    private static void writeFamily(Writer writer, String name, String type, @Nullable String help,
+            List<MetricFamilySamples.Sample> samples) throws IOException {
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+        if (help != null && !help.isEmpty()) {
+            writer.write("# HELP ");
+            writer.write(name);
+            writer.write(' ');
+            writeEscaped(writer, help);
+            writer.write('\n');
+        }
+
+        for (MetricFamilySamples.Sample sample : samples) {
+            writer.write(sample.name);
+            if (!sample.labelNames.isEmpty()) {
+                writer.write('{');
+                for (int i = 0; i < sample.labelNames.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(sample.labelNames.get(i));
+                    writer.write("=\"");
+                    writeEscaped(writer, sample.labelValues.get(i));
+                    writer.write('"');
+                }
+                writer.write('}');
+            }
+            writer.write(' ');
+            writer.write(Collector.doubleToGoString(sample.value));
+            @Nullable
+            Long timestampMs = sample.timestampMs;
+            if (timestampMs != null) {
+                writer.write(' ');
+                writeTimestamp(writer, timestampMs);
+            }
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Write a timestamp in seconds with millisecond precision, e.g. <code>1700000000.123</code>, never in exponent
+     * notation.
+     */
+    private static void writeTimestamp(Writer writer, long timestampMs) throws IOException {
+        writer.write(Long.toString(Math.floorDiv(timestampMs, 1000)));
+        writer.write('.');
+        writer.write(Long.toString(1000 + Math.floorMod(timestampMs, 1000)).substring(1));
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '"' -> writer.write("\\\"");
+                case '\n' -> writer.write("\\n");
+                default -> writer.write(c);
+            }
+        }
+    }
+}
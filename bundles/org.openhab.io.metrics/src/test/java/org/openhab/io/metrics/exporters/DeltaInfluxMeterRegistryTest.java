@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.exporters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.influx.InfluxConfig;
+
+/**
+ * Tests that the {@link DeltaInfluxMeterRegistry} only pushes changed meters, against a local HTTP server receiving
+ * the writes of the bundled Influx registry.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class DeltaInfluxMeterRegistryTest {
+    private final List<String> writes = new CopyOnWriteArrayList<>();
+    private @NonNullByDefault({}) HttpServer server;
+    private @NonNullByDefault({}) DeltaInfluxMeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/write", this::handleWrite);
+        server.start();
+
+        String uri = "http://localhost:" + server.getAddress().getPort();
+        registry = new DeltaInfluxMeterRegistry(new InfluxConfig() {
+            @Override
+            public String uri() {
+                return uri;
+            }
+
+            @Override
+            public boolean autoCreateDb() {
+                return false;
+            }
+
+            @Override
+            public Duration step() {
+                return Duration.ofMinutes(1);
+            }
+
+            @Override
+            public @Nullable String get(String key) {
+                return null;
+            }
+        }, Clock.SYSTEM);
+        // publish only when the test asks for it
+        registry.stop();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void onlyChangedMetersArePushed() {
+        AtomicInteger changing = new AtomicInteger(1);
+        AtomicInteger constant = new AtomicInteger(1);
+        Gauge.builder("test.changing", changing, AtomicInteger::get).register(registry);
+        Gauge.builder("test.constant", constant, AtomicInteger::get).register(registry);
+
+        // the first push is a full snapshot
+        registry.publish();
+        assertEquals(1, writes.size());
+        assertTrue(writes.get(0).contains("test_changing"));
+        assertTrue(writes.get(0).contains("test_constant"));
+
+        changing.set(2);
+        registry.publish();
+        assertEquals(2, writes.size());
+        assertTrue(writes.get(1).contains("test_changing"));
+        assertFalse(writes.get(1).contains("test_constant"));
+
+        // nothing changed, nothing is pushed
+        registry.publish();
+        assertEquals(2, writes.size());
+
+        // fails if a Micrometer update no longer publishes the meters returned by getMeters()
+        assertTrue(registry.isDeltaSupported());
+    }
+
+    @Test
+    public void registryStillReturnsAllMetersOutsideOfPublishing() {
+        AtomicInteger value = new AtomicInteger(1);
+        Gauge.builder("test.first", value, AtomicInteger::get).register(registry);
+        Gauge.builder("test.second", value, AtomicInteger::get).register(registry);
+        registry.publish();
+        registry.publish();
+
+        assertEquals(2, registry.getMeters().size());
+    }
+
+    private void handleWrite(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        writes.add(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+}
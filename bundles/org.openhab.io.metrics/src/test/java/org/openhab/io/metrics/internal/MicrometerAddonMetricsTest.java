@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsCounter;
+import org.openhab.io.metrics.MetricsMeter;
+import org.openhab.io.metrics.MetricsTimer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests the {@link MicrometerAddonMetrics}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class MicrometerAddonMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerAddonMetrics metrics = new MicrometerAddonMetrics(registry);
+
+    @Test
+    public void timerRecordsWithTags() {
+        MetricsTimer timer = metrics.thingHandlerTimer("hue:bridge", AddonMetrics.OPERATION_POLL);
+
+        timer.record(TimeUnit.MILLISECONDS.toNanos(5));
+        timer.stop(timer.start());
+
+        Timer registered = registry.find(AddonMetrics.THING_HANDLER).tag(AddonMetrics.TAG_THING_TYPE, "hue:bridge")
+                .tag(AddonMetrics.TAG_OPERATION, AddonMetrics.OPERATION_POLL).timer();
+        assertNotNull(registered);
+        assertEquals(2, registered.count());
+        assertTrue(registered.totalTime(TimeUnit.MILLISECONDS) >= 5);
+    }
+
+    @Test
+    public void counterCountsEvents() {
+        MetricsCounter counter = metrics.counter("openhab.test.events", "binding", "test");
+
+        counter.increment();
+        counter.increment(2);
+
+        assertEquals(3, counterValue());
+    }
+
+    @Test
+    public void gaugeReadsObject() {
+        AtomicInteger queue = new AtomicInteger(7);
+        metrics.persistenceQueueGauge("jdbc", queue, AtomicInteger::get);
+
+        Gauge gauge = registry.find(AddonMetrics.PERSISTENCE_QUEUE_SIZE).tag(AddonMetrics.TAG_SERVICE, "jdbc").gauge();
+        assertNotNull(gauge);
+        assertEquals(7, gauge.value());
+        queue.set(3);
+        assertEquals(3, gauge.value());
+    }
+
+    @Test
+    public void sharedMeterIsRemovedWithItsLastHandle() {
+        MetricsCounter first = metrics.counter("openhab.test.events", "binding", "test");
+        MetricsCounter second = metrics.counter("openhab.test.events", "binding", "test");
+        first.increment();
+        second.increment();
+        assertEquals(2, counterValue());
+
+        first.remove();
+        // removing a handle twice does not release the other handle
+        first.remove();
+        first.increment();
+        second.increment();
+        assertEquals(3, counterValue());
+
+        second.remove();
+        assertNull(registry.find("openhab.test.events").counter());
+    }
+
+    @Test
+    public void meterIsRegisteredAgainAfterRemoval() {
+        MetricsMeter timer = metrics.persistenceStoreTimer("rrd4j");
+        timer.remove();
+        assertNull(registry.find(AddonMetrics.PERSISTENCE_STORE).timer());
+
+        metrics.persistenceStoreTimer("rrd4j").record(1);
+
+        Timer registered = registry.find(AddonMetrics.PERSISTENCE_STORE).timer();
+        assertNotNull(registered);
+        assertEquals(1, registered.count());
+    }
+
+    private double counterValue() {
+        @Nullable
+        Counter counter = registry.find("openhab.test.events").tag("binding", "test").counter();
+        assertNotNull(counter);
+        return counter == null ? 0 : counter.count();
+    }
+}
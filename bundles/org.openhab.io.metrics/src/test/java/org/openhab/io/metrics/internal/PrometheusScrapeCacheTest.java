@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.metrics.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.io.metrics.internal.PrometheusScrapeCache.Scrape;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.Collector.Type;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+
+/**
+ * Tests the {@link PrometheusScrapeCache}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class PrometheusScrapeCacheTest {
+    private final CollectorRegistry registry = new CollectorRegistry();
+    private final PrometheusScrapeCache cache = new PrometheusScrapeCache(registry);
+
+    @Test
+    public void openMetricsFollowsTheSampleNamesOfTheFamilyTypes() throws IOException {
+        List<MetricFamilySamples> families = List.of(
+                family("requests_total", Type.COUNTER, "Requests",
+                        sample("requests_total", "path", "a\"b", 3), sample("requests_created", "path", "a\"b", 1.5)),
+                family("latency_seconds", Type.SUMMARY, "Latency", sample("latency_seconds", "quantile", "0.5", 0.25),
+                        sample("latency_seconds_count", 4), sample("latency_seconds_sum", 1),
+                        sample("latency_seconds_max", 0.5)),
+                family("size", Type.HISTOGRAM, "", sample("size_bucket", "le", "+Inf", 2), sample("size_count", 2),
+                        sample("size_sum", 10)),
+                family("temp", Type.GAUGE, "Temperature\nin C",
+                        new Sample("temp", List.of("room"), List.of("a"), 21.5, 1700000000123L),
+                        new Sample("temp", List.of("room"), List.of("b"), 20, 5L)),
+                family("legacy", Type.COUNTER, "", sample("legacy", 1)),
+                family("temp", Type.GAUGE, "", sample("temp", 0)));
+
+        StringWriter writer = new StringWriter();
+        PrometheusScrapeCache.writeOpenMetrics(writer, families);
+
+        assertEquals("""
+                # TYPE requests counter
+                # HELP requests Requests
+                requests_total{path="a\\"b"} 3.0
+                requests_created{path="a\\"b"} 1.5
+                # TYPE latency_seconds summary
+                # HELP latency_seconds Latency
+                latency_seconds{quantile="0.5"} 0.25
+                latency_seconds_count 4.0
+                latency_seconds_sum 1.0
+                # TYPE latency_seconds_max unknown
+                # HELP latency_seconds_max Latency
+                latency_seconds_max 0.5
+                # TYPE size histogram
+                size_bucket{le="+Inf"} 2.0
+                size_count 2.0
+                size_sum 10.0
+                # TYPE temp gauge
+                # HELP temp Temperature\\nin C
+                temp{room="a"} 21.5 1700000000.123
+                temp{room="b"} 20.0 0.005
+                # TYPE legacy unknown
+                legacy 1.0
+                # EOF
+                """, writer.toString());
+    }
+
+    @Test
+    public void formatIsNegotiatedWithTheAcceptHeader() {
+        assertFalse(PrometheusScrapeCache.acceptsOpenMetrics(null));
+        assertFalse(PrometheusScrapeCache.acceptsOpenMetrics("text/plain"));
+        assertTrue(PrometheusScrapeCache.acceptsOpenMetrics("application/openmetrics-text; version=1.0.0"));
+        // as sent by Prometheus
+        assertTrue(PrometheusScrapeCache.acceptsOpenMetrics(
+                "application/openmetrics-text;version=1.0.0,application/openmetrics-text;version=0.0.1;q=0.75,"
+                        + "text/plain;version=0.0.4;q=0.5,*/*;q=0.1"));
+        assertFalse(PrometheusScrapeCache.acceptsOpenMetrics("text/plain, application/openmetrics-text;q=0.5"));
+        assertFalse(PrometheusScrapeCache.acceptsOpenMetrics("application/openmetrics-text;q=0"));
+    }
+
+    @Test
+    public void gzipIsNegotiatedWithTheAcceptEncodingHeader() {
+        assertFalse(PrometheusScrapeCache.acceptsGzip(null));
+        assertTrue(PrometheusScrapeCache.acceptsGzip("gzip"));
+        assertTrue(PrometheusScrapeCache.acceptsGzip("identity, GZIP;q=0.5"));
+        assertFalse(PrometheusScrapeCache.acceptsGzip("deflate, gzip;q=0"));
+    }
+
+    @Test
+    public void scrapeUsesTheRequestedFormat() {
+        register(family("openhab_a", Type.GAUGE, "", sample("openhab_a", 1)));
+
+        Scrape text = cache.scrape(false, List.of(), null);
+        assertEquals(TextFormat.CONTENT_TYPE_004, text.getContentType());
+        assertTrue(body(text).contains("# TYPE openhab_a gauge\nopenhab_a 1.0\n"));
+
+        Scrape openMetrics = cache.scrape(true, List.of(), null);
+        assertEquals(PrometheusScrapeCache.CONTENT_TYPE_OPENMETRICS, openMetrics.getContentType());
+        assertEquals("# TYPE openhab_a gauge\nopenhab_a 1.0\n# EOF\n", body(openMetrics));
+    }
+
+    @Test
+    public void scrapeIsFilteredByNameAndPrefix() {
+        register(family("openhab_a", Type.GAUGE, "", sample("openhab_a", 1)));
+        register(family("openhab_b", Type.GAUGE, "", sample("openhab_b", 2)));
+        register(family("jvm_c", Type.GAUGE, "", sample("jvm_c", 3)));
+
+        String byName = body(cache.scrape(true, List.of("openhab_b", "jvm_c"), null));
+        assertFalse(byName.contains("openhab_a"));
+        assertTrue(byName.contains("openhab_b 2.0"));
+        assertTrue(byName.contains("jvm_c 3.0"));
+
+        String byPrefix = body(cache.scrape(true, List.of(), "openhab_"));
+        assertTrue(byPrefix.contains("openhab_a 1.0"));
+        assertTrue(byPrefix.contains("openhab_b 2.0"));
+        assertFalse(byPrefix.contains("jvm_c"));
+    }
+
+    @Test
+    public void scrapeIsReusedWithinTheMinimumRenderInterval() {
+        register(family("openhab_a", Type.GAUGE, "", sample("openhab_a", 1)));
+
+        cache.setMinRenderInterval(60);
+        Scrape scrape = cache.scrape(false, List.of(), null);
+        assertSame(scrape, cache.scrape(false, List.of(), null));
+        assertNotSame(scrape, cache.scrape(true, List.of(), null));
+        assertNotSame(scrape, cache.scrape(false, List.of(), "openhab_"));
+
+        cache.setMinRenderInterval(0);
+        assertNotSame(cache.scrape(false, List.of(), null), cache.scrape(false, List.of(), null));
+    }
+
+    @Test
+    public void gzippedBodyDecompressesToTheBody() throws IOException {
+        register(family("openhab_a", Type.GAUGE, "", sample("openhab_a", 1)));
+        Scrape scrape = cache.scrape(true, List.of(), null);
+
+        byte[] gzipped = scrape.getGzippedBody();
+
+        assertSame(gzipped, scrape.getGzippedBody());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertArrayEquals(scrape.getBody(), in.readAllBytes());
+        }
+    }
+
+    private void register(MetricFamilySamples family) {
+        new Collector() {
+            @Override
+            public List<MetricFamilySamples> collect() {
+                return List.of(family);
+            }
+        }.register(registry);
+    }
+
+    private static String body(Scrape scrape) {
+        return new String(scrape.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static MetricFamilySamples family(String name, Type type, String help, Sample... samples) {
+        return new MetricFamilySamples(name, type, help, List.of(samples));
+    }
+
+    private static Sample sample(String name, double value) {
+        return new Sample(name, List.of(), List.of(), value);
+    }
+
+    private static Sample sample(String name, String labelName, String labelValue, double value) {
+        return new Sample(name, List.of(labelName), List.of(labelValue), value);
+    }
+}
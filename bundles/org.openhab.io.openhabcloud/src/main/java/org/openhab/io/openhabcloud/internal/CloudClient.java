@@ -36,9 +36,9 @@ import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
-import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.URIUtil;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -142,6 +142,11 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * This variable indicates if text responses are compressed if the remote client accepts it
+     */
+    private boolean compressionEnabled;
+
     /**
      * Back-off strategy for reconnecting when manual reconnection is needed
      */
@@ -165,15 +170,17 @@ public class CloudClient {
      * @param secret openHAB's Secret to connect to the openHAB Cloud
      * @param remoteAccessEnabled Allow the openHAB Cloud to be used as a remote proxy
      * @param exposedItems Items that are made available to apps connected to the openHAB Cloud
+     * @param compressionEnabled Compress text responses of remote requests if the remote client accepts it
      */
     public CloudClient(HttpClient httpClient, String uuid, String secret, String baseURL, String localBaseUrl,
-            boolean remoteAccessEnabled, Set<String> exposedItems) {
+            boolean remoteAccessEnabled, Set<String> exposedItems, boolean compressionEnabled) {
         this.uuid = uuid;
         this.secret = secret;
         this.baseURL = baseURL;
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
+        this.compressionEnabled = compressionEnabled;
         this.jettyClient = httpClient;
         reconnectBackoff.setMin(RECONNECT_MIN);
         reconnectBackoff.setMax(RECONNECT_MAX);
@@ -461,12 +468,17 @@ public class CloudClient {
                 request.content(new BytesContentProvider(requestBody.getBytes()));
             }
 
+            String acceptEncoding = compressionEnabled ? request.getHeaders().get(HttpHeader.ACCEPT_ENCODING) : null;
+            ProxyResponseWriter responseWriter = new ProxyResponseWriter(socket, scheduler, requestId);
+
             request.onResponseHeaders(response -> {
                 logger.debug("onHeaders {}", requestId);
                 JSONObject responseJson = new JSONObject();
                 try {
+                    HttpFields headers = responseWriter.compressIfAccepted(acceptEncoding, method,
+                            response.getStatus(), response.getHeaders());
                     responseJson.put("id", requestId);
-                    responseJson.put("headers", getJSONHeaders(response.getHeaders()));
+                    responseJson.put("headers", getJSONHeaders(headers));
                     responseJson.put("responseStatusCode", response.getStatus());
                     responseJson.put("responseStatusText", "OK");
                     socket.emit("responseHeader", responseJson);
@@ -475,20 +487,12 @@ public class CloudClient {
                 } catch (JSONException e) {
                     logger.debug("{}", e.getMessage());
                 }
-            }).onResponseContent((theResponse, content) -> {
+            }).onResponseContentAsync((theResponse, content, callback) -> {
                 logger.debug("onResponseContent: {}, content size {}", requestId, String.valueOf(content.remaining()));
-                JSONObject responseJson = new JSONObject();
-                try {
-                    responseJson.put("id", requestId);
-                    responseJson.put("body", BufferUtil.toArray(content));
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("{}", StandardCharsets.UTF_8.decode(content).toString());
-                    }
-                    socket.emit("responseContentBinary", responseJson);
-                    logger.trace("Sent content to request {}", requestId);
-                } catch (JSONException e) {
-                    logger.debug("{}", e.getMessage());
+                if (logger.isTraceEnabled()) {
+                    logger.trace("{}", StandardCharsets.UTF_8.decode(content.slice()).toString());
                 }
+                responseWriter.content(content, callback);
             }).onRequestFailure((origRequest, failure) -> {
                 logger.debug("onRequestFailure: {},  {}", requestId, failure.getMessage());
                 JSONObject responseJson = new JSONObject();
@@ -515,6 +519,7 @@ public class CloudClient {
                         logger.debug("Response Failure: {}", result.getResponseFailure().getMessage());
                     }
                 }
+                responseWriter.finish();
                 JSONObject responseJson = new JSONObject();
                 try {
                     responseJson.put("id", requestId);
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsCounter;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Counts the item updates sent to the openHAB Cloud through the {@link AddonMetrics} of the metrics service.
+ * <p />
+ * The metrics service is optional: this component is only activated if it is installed, and only this class refers to
+ * its package, so the connector runs without it.
+ *
+ * @author Agent - Initial contribution
+ */
+@Component(service = CloudMetrics.class)
+@NonNullByDefault
+public class CloudMetrics {
+    static final String METRIC_ITEM_UPDATES = "openhab.openhabcloud.item.updates";
+    static final String TAG_RESULT = "result";
+
+    private final MetricsCounter emitted;
+    private final MetricsCounter suppressed;
+
+    @Activate
+    public CloudMetrics(final @Reference AddonMetrics addonMetrics) {
+        emitted = addonMetrics.counter(METRIC_ITEM_UPDATES, TAG_RESULT, "emitted");
+        suppressed = addonMetrics.counter(METRIC_ITEM_UPDATES, TAG_RESULT, "suppressed");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        emitted.remove();
+        suppressed.remove();
+    }
+
+    /**
+     * Count item updates sent to the openHAB Cloud.
+     */
+    public void countEmitted(int count) {
+        emitted.increment(count);
+    }
+
+    /**
+     * Count item updates that were replaced by a later update of the same item or discarded.
+     */
+    public void countSuppressed(int count) {
+        suppressed.increment(count);
+    }
+}
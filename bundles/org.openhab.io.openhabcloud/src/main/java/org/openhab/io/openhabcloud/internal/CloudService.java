@@ -22,10 +22,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.HttpClient;
 import org.openhab.core.OpenHAB;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.events.Event;
 import org.openhab.core.events.EventFilter;
@@ -55,6 +60,8 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +83,11 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_COMPRESSION = "compression";
+    private static final String CFG_ITEM_UPDATE_INTERVAL = "itemUpdateInterval";
+    private static final String CFG_ITEM_UPDATE_RATE = "itemUpdateRate";
+    private static final int DEFAULT_ITEM_UPDATE_INTERVAL = 0;
+    private static final int DEFAULT_ITEM_UPDATE_RATE = 50;
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
     private static final int DEFAULT_LOCAL_OPENHAB_MAX_CONCURRENT_REQUESTS = 200;
@@ -92,9 +104,17 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     protected final EventPublisher eventPublisher;
 
     private boolean remoteAccessEnabled = true;
+    private boolean compressionEnabled = false;
     private Set<String> exposedItems = null;
     private int localPort;
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private final ItemUpdateBuffer itemUpdateBuffer = new ItemUpdateBuffer(DEFAULT_ITEM_UPDATE_RATE);
+    private volatile int itemUpdateInterval = DEFAULT_ITEM_UPDATE_INTERVAL;
+    private @Nullable ScheduledFuture<?> itemUpdateJob;
+    private volatile @Nullable CloudMetrics metrics;
+
     @Activate
     public CloudService(final @Reference HttpClientFactory httpClientFactory,
             final @Reference ItemRegistry itemRegistry, final @Reference EventPublisher eventPublisher) {
@@ -256,6 +276,8 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     @Deactivate
     protected void deactivate() {
         logger.debug("openHAB Cloud connector deactivated");
+        stopItemUpdateJob();
+        discardItemUpdates();
         cloudClient.shutdown();
         try {
             httpClient.stop();
@@ -278,6 +300,9 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             cloudBaseUrl = DEFAULT_URL;
         }
 
+        Object compressionCfg = config.get(CFG_COMPRESSION);
+        compressionEnabled = compressionCfg != null && Boolean.parseBoolean(compressionCfg.toString());
+
         exposedItems = new HashSet<>();
         Object expCfg = config.get(CFG_EXPOSE);
         if (expCfg instanceof String value) {
@@ -296,6 +321,24 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             }
         }
 
+        itemUpdateInterval = ConfigParser.valueAsOrElse(config.get(CFG_ITEM_UPDATE_INTERVAL), Integer.class,
+                DEFAULT_ITEM_UPDATE_INTERVAL);
+        itemUpdateBuffer.setMaxUpdatesPerSecond(
+                ConfigParser.valueAsOrElse(config.get(CFG_ITEM_UPDATE_RATE), Integer.class, DEFAULT_ITEM_UPDATE_RATE));
+        boolean itemUpdateJobWasRunning = itemUpdateJob != null;
+        stopItemUpdateJob();
+        if (itemUpdateInterval > 0) {
+            if (!itemUpdateJobWasRunning) {
+                // updates buffered while updates were sent immediately are outdated
+                discardItemUpdates();
+            }
+            itemUpdateJob = scheduler.scheduleWithFixedDelay(this::sendItemUpdates, itemUpdateInterval,
+                    itemUpdateInterval, TimeUnit.MILLISECONDS);
+        } else {
+            // updates are sent immediately from now on, buffered ones would be sent later with outdated states
+            discardItemUpdates();
+        }
+
         logger.debug("UUID = {}, secret = {}", censored(InstanceUUID.get()), censored(getSecret()));
 
         if (cloudClient != null) {
@@ -314,7 +357,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
         String localBaseUrl = "http://localhost:" + localPort;
         cloudClient = new CloudClient(httpClient, InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl,
-                remoteAccessEnabled, exposedItems);
+                remoteAccessEnabled, exposedItems, compressionEnabled);
         cloudClient.connect();
         cloudClient.setListener(this);
         NotificationAction.cloudService = this;
@@ -436,8 +479,59 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     public void receive(Event event) {
         ItemStateEvent ise = (ItemStateEvent) event;
         if (supportsUpdates() && exposedItems != null && exposedItems.contains(ise.getItemName())) {
-            cloudClient.sendItemUpdate(ise.getItemName(), ise.getItemState().toString());
+            CloudMetrics localMetrics = metrics;
+            if (itemUpdateInterval > 0) {
+                if (itemUpdateBuffer.add(ise.getItemName(), ise.getItemState().toString()) && localMetrics != null) {
+                    localMetrics.countSuppressed(1);
+                }
+            } else {
+                cloudClient.sendItemUpdate(ise.getItemName(), ise.getItemState().toString());
+                if (localMetrics != null) {
+                    localMetrics.countEmitted(1);
+                }
+            }
+        }
+    }
+
+    private void sendItemUpdates() {
+        CloudClient client = cloudClient;
+        CloudMetrics localMetrics = metrics;
+        if (client == null || !client.isConnected()) {
+            discardItemUpdates();
+            return;
         }
+        List<Map.Entry<String, String>> updates = itemUpdateBuffer.take();
+        for (Map.Entry<String, String> update : updates) {
+            client.sendItemUpdate(update.getKey(), update.getValue());
+        }
+        if (localMetrics != null) {
+            localMetrics.countEmitted(updates.size());
+        }
+    }
+
+    private void discardItemUpdates() {
+        int discarded = itemUpdateBuffer.discardPending();
+        CloudMetrics localMetrics = metrics;
+        if (discarded > 0 && localMetrics != null) {
+            localMetrics.countSuppressed(discarded);
+        }
+    }
+
+    private void stopItemUpdateJob() {
+        ScheduledFuture<?> job = itemUpdateJob;
+        if (job != null) {
+            job.cancel(false);
+            itemUpdateJob = null;
+        }
+    }
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    protected void setMetrics(CloudMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    protected void unsetMetrics(CloudMetrics metrics) {
+        this.metrics = null;
     }
 
     private boolean supportsUpdates() {
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Coalesces item updates that are sent to the openHAB Cloud.
+ * <p />
+ * Only the latest state of an item is kept until the next flush, earlier states are suppressed. The number of updates
+ * taken per flush is limited by a budget of updates per second, so a flapping item can't flood the connection. Items
+ * that exceed the budget keep their place and are sent with a later flush.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class ItemUpdateBuffer {
+    // insertion ordered, an item keeps its place when its state is replaced
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    private final LongSupplier nanoTime;
+    private double maxUpdatesPerSecond;
+    private double budget;
+    private long lastRefill;
+
+    /**
+     * @param maxUpdatesPerSecond the maximum number of updates sent per second, also the maximum burst
+     */
+    ItemUpdateBuffer(int maxUpdatesPerSecond) {
+        this(maxUpdatesPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param maxUpdatesPerSecond the maximum number of updates sent per second, also the maximum burst
+     * @param nanoTime the time source the budget is refilled with
+     */
+    ItemUpdateBuffer(int maxUpdatesPerSecond, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.maxUpdatesPerSecond = Math.max(1, maxUpdatesPerSecond);
+        this.budget = this.maxUpdatesPerSecond;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Change the maximum number of updates sent per second.
+     */
+    synchronized void setMaxUpdatesPerSecond(int maxUpdatesPerSecond) {
+        this.maxUpdatesPerSecond = Math.max(1, maxUpdatesPerSecond);
+        this.budget = Math.min(budget, this.maxUpdatesPerSecond);
+    }
+
+    /**
+     * Add an item update, replacing a pending update of the same item.
+     *
+     * @return <code>true</code> if a pending update has been replaced, i.e. suppressed
+     */
+    synchronized boolean add(String itemName, String state) {
+        return pending.put(itemName, state) != null;
+    }
+
+    /**
+     * Take the pending updates that fit into the current budget.
+     *
+     * @return the item names and states to send, in the order the items were first updated
+     */
+    synchronized List<Map.Entry<String, String>> take() {
+        long now = nanoTime.getAsLong();
+        budget = Math.min(maxUpdatesPerSecond,
+                budget + maxUpdatesPerSecond * (now - lastRefill) / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+
+        List<Map.Entry<String, String>> updates = new ArrayList<>(Math.min(pending.size(), (int) budget));
+        Iterator<Map.Entry<String, String>> iterator = pending.entrySet().iterator();
+        while (budget >= 1 && iterator.hasNext()) {
+            Map.Entry<String, String> entry = iterator.next();
+            updates.add(Map.entry(entry.getKey(), entry.getValue()));
+            iterator.remove();
+            budget--;
+        }
+        return updates;
+    }
+
+    /**
+     * Drop all pending updates, e.g. because there is no connection to send them.
+     *
+     * @return the number of dropped updates
+     */
+    synchronized int discardPending() {
+        int count = pending.size();
+        pending.clear();
+        return count;
+    }
+}
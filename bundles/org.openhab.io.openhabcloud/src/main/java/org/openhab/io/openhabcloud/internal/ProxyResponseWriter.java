@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.socket.client.Socket;
+import io.socket.thread.EventThread;
+
+/**
+ * Streams the body of a proxied response to the openHAB Cloud.
+ * <p />
+ * Small content chunks of the local response are coalesced and sent as one <code>responseContentBinary</code>
+ * message as soon as {@link #FLUSH_SIZE} bytes are buffered, or {@link #FLUSH_DELAY_MILLIS} after the first buffered
+ * chunk, so streamed responses are not delayed. The body is sent as a binary Socket.IO attachment.
+ * <p />
+ * Content is read from the local response with flow control: when a message has been sent, reading continues only
+ * after the Socket.IO event thread has handed the message to the transport, so a large response never queues more
+ * than one message per request.
+ * <p />
+ * Optionally, text responses are compressed with gzip if the remote client accepts it.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class ProxyResponseWriter {
+    static final int FLUSH_SIZE = 64 * 1024;
+    static final long FLUSH_DELAY_MILLIS = 10;
+    private static final int MIN_COMPRESS_SIZE = 256;
+    private static final String GZIP = "gzip";
+
+    private final Logger logger = LoggerFactory.getLogger(ProxyResponseWriter.class);
+
+    private final Socket socket;
+    private final ScheduledExecutorService scheduler;
+    private final int requestId;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private @Nullable GZIPOutputStream gzip;
+    private @Nullable ScheduledFuture<?> flushJob;
+    private boolean finished;
+
+    ProxyResponseWriter(Socket socket, ScheduledExecutorService scheduler, int requestId) {
+        this.socket = socket;
+        this.scheduler = scheduler;
+        this.requestId = requestId;
+    }
+
+    /**
+     * Decide whether the response is compressed, which has to be done before the response headers are sent.
+     *
+     * @param acceptEncoding the <code>Accept-Encoding</code> header of the remote request
+     * @param method the method of the request
+     * @param status the status of the local response
+     * @param headers the headers of the local response
+     * @return the headers to send to the openHAB Cloud, adapted if the response is compressed
+     */
+    synchronized HttpFields compressIfAccepted(@Nullable String acceptEncoding, HttpMethod method, int status,
+            HttpFields headers) {
+        if (!acceptsGzip(acceptEncoding) || !isCompressible(method, status, headers)) {
+            return headers;
+        }
+        try {
+            gzip = new GZIPOutputStream(buffer, true);
+        } catch (IOException e) {
+            // can't happen when writing to a byte array
+            return headers;
+        }
+        logger.trace("Compressing response to request {}", requestId);
+        HttpFields compressedHeaders = new HttpFields(headers);
+        compressedHeaders.remove(HttpHeader.CONTENT_LENGTH);
+        compressedHeaders.put(HttpHeader.CONTENT_ENCODING, GZIP);
+        String vary = headers.get(HttpHeader.VARY);
+        compressedHeaders.put(HttpHeader.VARY,
+                vary == null || vary.isBlank() ? "Accept-Encoding" : vary + ", Accept-Encoding");
+        return compressedHeaders;
+    }
+
+    /**
+     * Add content of the local response. The callback is completed when more content can be read.
+     */
+    void content(ByteBuffer content, Callback callback) {
+        boolean sent = false;
+        try {
+            synchronized (this) {
+                if (finished) {
+                    callback.succeeded();
+                    return;
+                }
+                write(content);
+                if (buffer.size() >= FLUSH_SIZE) {
+                    sent = send();
+                } else if (flushJob == null) {
+                    flushJob = scheduler.schedule(this::scheduledFlush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Failed to send content to request {}: {}", requestId, e.getMessage());
+        }
+        if (sent) {
+            // continue reading when the Socket.IO event thread has processed the message
+            EventThread.exec(callback::succeeded);
+        } else {
+            callback.succeeded();
+        }
+    }
+
+    /**
+     * Send the remaining content. Must be called before the response is finished.
+     */
+    synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        GZIPOutputStream localGzip = gzip;
+        if (localGzip != null) {
+            try {
+                localGzip.finish();
+            } catch (IOException e) {
+                // can't happen when writing to a byte array
+            }
+        }
+        send();
+    }
+
+    private synchronized void scheduledFlush() {
+        flushJob = null;
+        if (!finished) {
+            send();
+        }
+    }
+
+    private void write(ByteBuffer content) {
+        GZIPOutputStream localGzip = gzip;
+        byte[] bytes = BufferUtil.toArray(content);
+        if (localGzip == null) {
+            buffer.write(bytes, 0, bytes.length);
+        } else {
+            try {
+                localGzip.write(bytes);
+            } catch (IOException e) {
+                // can't happen when writing to a byte array
+            }
+        }
+    }
+
+    /**
+     * @return whether a message has been sent
+     */
+    private boolean send() {
+        ScheduledFuture<?> localFlushJob = flushJob;
+        if (localFlushJob != null) {
+            localFlushJob.cancel(false);
+            flushJob = null;
+        }
+        GZIPOutputStream localGzip = gzip;
+        if (localGzip != null && !finished) {
+            try {
+                // make all content written so far decompressible by the client
+                localGzip.flush();
+            } catch (IOException e) {
+                // can't happen when writing to a byte array
+            }
+        }
+        if (buffer.size() == 0) {
+            return false;
+        }
+
+        JSONObject responseJson = new JSONObject();
+        responseJson.put("id", requestId);
+        responseJson.put("body", buffer.toByteArray());
+        buffer.reset();
+        socket.emit("responseContentBinary", responseJson);
+        logger.trace("Sent content to request {}", requestId);
+        return true;
+    }
+
+    private static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCompressible(HttpMethod method, int status, HttpFields headers) {
+        // a HEAD response has no body and its headers must match the ones of the GET response, a partial response
+        // refers to byte ranges of the uncompressed content, and encoded content must not be encoded twice
+        if (method == HttpMethod.HEAD || status == HttpStatus.NO_CONTENT_204
+                || status == HttpStatus.PARTIAL_CONTENT_206 || status == HttpStatus.NOT_MODIFIED_304
+                || headers.containsKey(HttpHeader.CONTENT_RANGE.asString())
+                || headers.containsKey(HttpHeader.CONTENT_ENCODING.asString())) {
+            return false;
+        }
+        long contentLength = headers.getLongField(HttpHeader.CONTENT_LENGTH.asString());
+        if (contentLength >= 0 && contentLength < MIN_COMPRESS_SIZE) {
+            return false;
+        }
+        String contentType = headers.get(HttpHeader.CONTENT_TYPE);
+        if (contentType == null) {
+            return false;
+        }
+        String mimeType = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        // event streams are left alone, intermediate proxies may buffer compressed streams
+        return (mimeType.startsWith("text/") && !"text/event-stream".equals(mimeType)) || mimeType.endsWith("json")
+                || mimeType.endsWith("javascript") || mimeType.endsWith("xml");
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link ItemUpdateBuffer}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemUpdateBufferTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    public void latestStateIsSentInOrderOfFirstUpdate() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(10, nanoTime::get);
+
+        assertFalse(buffer.add("a", "1"));
+        assertFalse(buffer.add("b", "1"));
+        assertTrue(buffer.add("a", "2"));
+
+        assertEquals(List.of(Map.entry("a", "2"), Map.entry("b", "1")), buffer.take());
+        assertEquals(List.of(), buffer.take());
+    }
+
+    @Test
+    public void takeIsLimitedByTheBudget() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(2, nanoTime::get);
+        buffer.add("a", "1");
+        buffer.add("b", "1");
+        buffer.add("c", "1");
+
+        assertEquals(List.of(Map.entry("a", "1"), Map.entry("b", "1")), buffer.take());
+        assertEquals(List.of(), buffer.take());
+
+        // half a second refills one update
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(List.of(Map.entry("c", "1")), buffer.take());
+    }
+
+    @Test
+    public void itemOverBudgetKeepsItsPlace() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(1, nanoTime::get);
+        buffer.add("a", "1");
+        buffer.add("b", "1");
+        assertEquals(List.of(Map.entry("a", "1")), buffer.take());
+
+        buffer.add("c", "1");
+        buffer.add("b", "2");
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(List.of(Map.entry("b", "2")), buffer.take());
+    }
+
+    @Test
+    public void budgetDoesNotExceedTheRate() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(2, nanoTime::get);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 5; i++) {
+            buffer.add("item" + i, "1");
+        }
+
+        assertEquals(2, buffer.take().size());
+    }
+
+    @Test
+    public void lowerRateLimitsTheCurrentBudget() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(10, nanoTime::get);
+        buffer.setMaxUpdatesPerSecond(1);
+        buffer.add("a", "1");
+        buffer.add("b", "1");
+
+        assertEquals(1, buffer.take().size());
+    }
+
+    @Test
+    public void discardPendingDropsAllUpdates() {
+        ItemUpdateBuffer buffer = new ItemUpdateBuffer(10, nanoTime::get);
+        buffer.add("a", "1");
+        buffer.add("b", "1");
+
+        assertEquals(2, buffer.discardPending());
+        assertEquals(List.of(), buffer.take());
+        assertEquals(0, buffer.discardPending());
+    }
+}
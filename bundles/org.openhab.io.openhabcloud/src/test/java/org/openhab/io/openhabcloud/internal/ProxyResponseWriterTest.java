@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.socket.client.Socket;
+
+/**
+ * Tests the decision of the {@link ProxyResponseWriter} whether a response is compressed.
+ *
+ * @author Agent - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@NonNullByDefault
+public class ProxyResponseWriterTest {
+    private static final String ACCEPT_GZIP = "gzip, deflate";
+
+    private @Mock @NonNullByDefault({}) Socket socket;
+    private @Mock @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @NonNullByDefault({}) ProxyResponseWriter writer;
+
+    @BeforeEach
+    public void setup() {
+        writer = new ProxyResponseWriter(socket, scheduler, 1);
+    }
+
+    private static HttpFields textHeaders() {
+        HttpFields headers = new HttpFields();
+        headers.put(HttpHeader.CONTENT_TYPE, "text/html; charset=UTF-8");
+        headers.put(HttpHeader.CONTENT_LENGTH, "10000");
+        return headers;
+    }
+
+    @Test
+    public void textResponseIsCompressed() {
+        HttpFields headers = writer.compressIfAccepted(ACCEPT_GZIP, HttpMethod.GET, HttpStatus.OK_200, textHeaders());
+
+        assertEquals("gzip", headers.get(HttpHeader.CONTENT_ENCODING));
+        assertFalse(headers.containsKey(HttpHeader.CONTENT_LENGTH.asString()));
+        assertEquals("Accept-Encoding", headers.get(HttpHeader.VARY));
+    }
+
+    @Test
+    public void headResponseIsNotCompressed() {
+        HttpFields headers = textHeaders();
+
+        assertSame(headers, writer.compressIfAccepted(ACCEPT_GZIP, HttpMethod.HEAD, HttpStatus.OK_200, headers));
+    }
+
+    @Test
+    public void partialContentIsNotCompressed() {
+        HttpFields headers = textHeaders();
+
+        assertSame(headers,
+                writer.compressIfAccepted(ACCEPT_GZIP, HttpMethod.GET, HttpStatus.PARTIAL_CONTENT_206, headers));
+    }
+
+    @Test
+    public void responseWithContentRangeIsNotCompressed() {
+        HttpFields headers = textHeaders();
+        headers.put(HttpHeader.CONTENT_RANGE, "bytes */10000");
+
+        assertSame(headers,
+                writer.compressIfAccepted(ACCEPT_GZIP, HttpMethod.GET, HttpStatus.RANGE_NOT_SATISFIABLE_416, headers));
+    }
+
+    @Test
+    public void encodedResponseIsNotCompressedAgain() {
+        HttpFields headers = textHeaders();
+        headers.put(HttpHeader.CONTENT_ENCODING, "br");
+
+        assertSame(headers, writer.compressIfAccepted(ACCEPT_GZIP, HttpMethod.GET, HttpStatus.OK_200, headers));
+        assertEquals("br", headers.get(HttpHeader.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void responseIsNotCompressedIfGzipIsNotAccepted() {
+        HttpFields headers = textHeaders();
+
+        assertSame(headers, writer.compressIfAccepted("gzip;q=0, deflate", HttpMethod.GET, HttpStatus.OK_200, headers));
+        assertSame(headers, writer.compressIfAccepted(null, HttpMethod.GET, HttpStatus.OK_200, headers));
+    }
+}
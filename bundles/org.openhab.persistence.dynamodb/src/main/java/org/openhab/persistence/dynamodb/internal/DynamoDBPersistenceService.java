@@ -27,7 +27,10 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.measure.Unit;
@@ -115,6 +118,12 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     private final ExecutorService executor = ThreadPoolManager.getPool(DYNAMODB_THREADPOOL_NAME);
     private static final Duration TIMEOUT_API_CALL = Duration.ofSeconds(60);
     private static final Duration TIMEOUT_API_CALL_ATTEMPT = Duration.ofSeconds(5);
+    private static final Duration WRITE_BUFFER_FLUSH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration WRITE_BUFFER_FLUSH_TIMEOUT = Duration.ofSeconds(10);
+    private final ScheduledExecutorService scheduler = ThreadPoolManager
+            .getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+    private @Nullable DynamoDBWriteBuffer writeBuffer;
+    private @Nullable ScheduledFuture<?> writeBufferFlushJob;
     private Map<Class<? extends DynamoDBItem<?>>, DynamoDbAsyncTable<? extends DynamoDBItem<?>>> tableCache = new ConcurrentHashMap<>(
             2);
 
@@ -176,6 +185,14 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
         return dbConfig;
     }
 
+    /**
+     * For tests
+     */
+    @Nullable
+    DynamoDBWriteBuffer getWriteBuffer() {
+        return writeBuffer;
+    }
+
     @Activate
     public void activate(final @Nullable BundleContext bundleContext, final Map<String, Object> config) {
         disconnect();
@@ -196,6 +213,14 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             logger.error("Error constructing dynamodb client", e);
             return;
         }
+        DynamoDbEnhancedAsyncClient localClient = client;
+        if (localClient != null) {
+            DynamoDBWriteBuffer localWriteBuffer = new DynamoDBWriteBuffer(this, localClient, executor, scheduler);
+            writeBuffer = localWriteBuffer;
+            writeBufferFlushJob = scheduler.scheduleWithFixedDelay(localWriteBuffer::flush,
+                    WRITE_BUFFER_FLUSH_INTERVAL.toMillis(), WRITE_BUFFER_FLUSH_INTERVAL.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
 
         isProperlyConfigured = true;
         logger.debug("dynamodb persistence service activated");
@@ -316,6 +341,23 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     }
 
     private void disconnect() {
+        ScheduledFuture<?> localWriteBufferFlushJob = writeBufferFlushJob;
+        if (localWriteBufferFlushJob != null) {
+            localWriteBufferFlushJob.cancel(false);
+            writeBufferFlushJob = null;
+        }
+        DynamoDBWriteBuffer localWriteBuffer = writeBuffer;
+        if (localWriteBuffer != null) {
+            try {
+                if (!localWriteBuffer.flush(WRITE_BUFFER_FLUSH_TIMEOUT)) {
+                    logger.warn("{} values were not written before disconnecting",
+                            localWriteBuffer.getPendingCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeBuffer = null;
+        }
         DynamoDbAsyncClient localLowLevelClient = lowLevelClient;
         if (client == null || localLowLevelClient == null) {
             return;
@@ -351,6 +393,11 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
         logIfManyQueuedTasks();
+        DynamoDBWriteBuffer localWriteBuffer = writeBuffer;
+        if (localWriteBuffer != null) {
+            // start writing buffered values, queries are eventually consistent anyway
+            localWriteBuffer.flush();
+        }
         Instant start = Instant.now();
         String filterDescription = filterToString(filter);
         logger.trace("Got a query with filter {}", filterDescription);
@@ -561,21 +608,23 @@ public class DynamoDBPersistenceService implements QueryablePersistenceService {
             }
             logger.trace("store() called with item {} {} '{}', which was converted to DTO {}",
                     copiedItem.getClass().getSimpleName(), effectiveName, copiedItem.getState(), dto);
-            dto.accept(new DynamoDBItemVisitor<TableCreatingPutItem<? extends DynamoDBItem<?>>>() {
+            DynamoDBWriteBuffer localWriteBuffer = writeBuffer;
+            if (localWriteBuffer == null) {
+                logger.warn("Not ready to store (config error?), not storing item {}.", item.getName());
+                return;
+            }
+            dto.accept(new DynamoDBItemVisitor<Integer>() {
 
                 @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(
-                        DynamoDBBigDecimalItem dynamoBigDecimalItem) {
-                    return new TableCreatingPutItem<>(DynamoDBPersistenceService.this, dynamoBigDecimalItem,
-                            getTable(DynamoDBBigDecimalItem.class));
+                public Integer visit(DynamoDBBigDecimalItem dynamoBigDecimalItem) {
+                    return localWriteBuffer.add(getTable(DynamoDBBigDecimalItem.class), dynamoBigDecimalItem);
                 }
 
                 @Override
-                public TableCreatingPutItem<? extends DynamoDBItem<?>> visit(DynamoDBStringItem dynamoStringItem) {
-                    return new TableCreatingPutItem<>(DynamoDBPersistenceService.this, dynamoStringItem,
-                            getTable(DynamoDBStringItem.class));
+                public Integer visit(DynamoDBStringItem dynamoStringItem) {
+                    return localWriteBuffer.add(getTable(DynamoDBStringItem.class), dynamoStringItem);
                 }
-            }).putItemAsync();
+            });
         }, executor).exceptionally(e -> {
             logger.error("Unexcepted error", e);
             return null;
@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+/**
+ * Buffers items to be written and writes them with <code>BatchWriteItem</code> requests of up to 25 items.
+ * <p />
+ * A batch is written as soon as 25 items are buffered or when {@link #flush()} is called. Batches are written one
+ * after another. Items that DynamoDB did not process, and batches rejected because of throttling, are written again
+ * after a backoff with jitter. The backoff doubles with every throttled batch and halves with every batch written
+ * without throttling, which adapts the write rate to the provisioned capacity.
+ * <p />
+ * If a batch fails for another reason, e.g. because the table does not exist yet, its items are written one by one
+ * with {@link TableCreatingPutItem}. A flush waiting for the buffer to be written waits for these puts as well.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class DynamoDBWriteBuffer {
+    static final int MAX_BATCH_SIZE = 25;
+    private static final int MAX_PENDING = 10000;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 20000;
+
+    private final Logger logger = LoggerFactory.getLogger(DynamoDBWriteBuffer.class);
+
+    private final DynamoDBPersistenceService service;
+    private final DynamoDbEnhancedAsyncClient client;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Deque<PendingPut<?>> pending = new ArrayDeque<>();
+    // a batch is being written or the next batch is scheduled
+    private boolean writing;
+    // write all pending items, not only full batches
+    private boolean drain;
+    // items of failed batches that are being written one by one
+    private int fallbackPuts;
+    private long backoffMillis;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private static class PendingPut<T extends DynamoDBItem<?>> {
+        final DynamoDbAsyncTable<T> table;
+        final T item;
+        int attempts;
+
+        PendingPut(DynamoDbAsyncTable<T> table, T item) {
+            this.table = table;
+            this.item = item;
+        }
+
+        String key() {
+            return table.tableName() + "/" + item.getName() + "/" + item.getTime().toInstant().toEpochMilli();
+        }
+
+        void addTo(Map<String, WriteBatch.Builder<?>> batches) {
+            @SuppressWarnings("unchecked") // the builder of a table is always created for the item type of the table
+            WriteBatch.Builder<T> batch = (WriteBatch.Builder<T>) batches.computeIfAbsent(table.tableName(),
+                    name -> WriteBatch.builder(table.tableSchema().itemType().rawClass()).mappedTableResource(table));
+            batch.addPutItem(item);
+        }
+
+        List<T> unprocessed(BatchWriteResult result) {
+            return result.unprocessedPutItemsForTable(table);
+        }
+
+        CompletableFuture<Void> putItem(DynamoDBPersistenceService service) {
+            return new TableCreatingPutItem<>(service, item, table).putItemAsync();
+        }
+    }
+
+    public DynamoDBWriteBuffer(DynamoDBPersistenceService service, DynamoDbEnhancedAsyncClient client,
+            ExecutorService executor, ScheduledExecutorService scheduler) {
+        this.service = service;
+        this.client = client;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add an item to be written.
+     *
+     * @param table the table to write the item to
+     * @param item the item
+     * @return the number of buffered items
+     */
+    public synchronized <T extends DynamoDBItem<?>> int add(DynamoDbAsyncTable<T> table, T item) {
+        pending.addLast(new PendingPut<>(table, item));
+        if (pending.size() > MAX_PENDING) {
+            PendingPut<?> dropped = pending.removeFirst();
+            logger.warn("Write buffer is full, dropping the oldest buffered value of item {}", dropped.item.getName());
+        }
+        if (pending.size() >= MAX_BATCH_SIZE) {
+            startWriting();
+        }
+        return pending.size();
+    }
+
+    /**
+     * Write all buffered items. Returns immediately, the items are written asynchronously.
+     */
+    public synchronized void flush() {
+        if (!pending.isEmpty()) {
+            drain = true;
+            startWriting();
+        }
+    }
+
+    /**
+     * Write all buffered items and wait until they are written, including the items of failed batches that are
+     * written one by one.
+     *
+     * @param timeout the maximum time to wait
+     * @return <code>true</code> if all items have been written
+     */
+    public synchronized boolean flush(Duration timeout) throws InterruptedException {
+        flush();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (writing || fallbackPuts > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return pending.isEmpty() && fallbackPuts == 0;
+    }
+
+    /**
+     * @return the number of items not written yet, buffered or being written one by one
+     */
+    public synchronized int getPendingCount() {
+        return pending.size() + fallbackPuts;
+    }
+
+    /**
+     * @return the number of <code>BatchWriteItem</code> requests sent
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of items written with <code>BatchWriteItem</code> requests
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void startWriting() {
+        if (!writing) {
+            writing = true;
+            executor.execute(this::writeBatch);
+        }
+    }
+
+    private void writeBatch() {
+        List<PendingPut<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        synchronized (this) {
+            // one request must not contain the same key twice, later puts of a key go into the next batch
+            Set<String> keys = new HashSet<>();
+            while (batch.size() < MAX_BATCH_SIZE) {
+                PendingPut<?> next = pending.peekFirst();
+                if (next == null || !keys.add(next.key())) {
+                    break;
+                }
+                batch.add(pending.removeFirst());
+            }
+            if (batch.isEmpty()) {
+                stopWriting();
+                return;
+            }
+        }
+
+        Map<String, WriteBatch.Builder<?>> batches = new LinkedHashMap<>();
+        batch.forEach(put -> put.addTo(batches));
+        BatchWriteItemEnhancedRequest.Builder request = BatchWriteItemEnhancedRequest.builder();
+        batches.values().forEach(builder -> request.addWriteBatch(builder.build()));
+        requestCount.incrementAndGet();
+        try {
+            client.batchWriteItem(request.build()).whenCompleteAsync((result, exception) -> {
+                try {
+                    batchWritten(batch, result, exception);
+                } catch (RuntimeException e) {
+                    logger.warn("Unexpected error after BatchWriteItem", e);
+                    scheduleNext(false);
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            batchWritten(batch, null, e);
+        }
+    }
+
+    private void batchWritten(List<PendingPut<?>> batch, @Nullable BatchWriteResult result,
+            @Nullable Throwable exception) {
+        boolean throttled;
+        if (result != null && exception == null) {
+            Map<String, PendingPut<?>> byKey = new HashMap<>();
+            batch.forEach(put -> byKey.put(put.key(), put));
+            List<PendingPut<?>> unprocessed = new ArrayList<>();
+            Set<DynamoDbAsyncTable<?>> tables = new HashSet<>();
+            for (PendingPut<?> put : batch) {
+                if (tables.add(put.table)) {
+                    for (DynamoDBItem<?> item : put.unprocessed(result)) {
+                        PendingPut<?> original = byKey.get(put.table.tableName() + "/" + item.getName() + "/"
+                                + item.getTime().toInstant().toEpochMilli());
+                        if (original != null) {
+                            unprocessed.add(original);
+                        }
+                    }
+                }
+            }
+            writtenCount.addAndGet(batch.size() - unprocessed.size());
+            throttled = !unprocessed.isEmpty();
+            if (throttled) {
+                logger.debug("BatchWriteItem: {} of {} items were not processed, retrying", unprocessed.size(),
+                        batch.size());
+                retry(unprocessed);
+            } else {
+                logger.trace("BatchWriteItem: {} items written", batch.size());
+            }
+        } else {
+            Throwable cause = exception;
+            if (exception instanceof CompletionException && exception.getCause() != null) {
+                cause = exception.getCause();
+            }
+            if (cause instanceof SdkServiceException serviceException && serviceException.isThrottlingException()) {
+                logger.debug("BatchWriteItem was throttled, retrying {} items", batch.size());
+                throttled = true;
+                retry(batch);
+            } else {
+                // e.g. table does not exist yet
+                logger.debug("BatchWriteItem failed with {} {}, writing {} items one by one",
+                        cause == null ? null : cause.getClass().getSimpleName(),
+                        cause == null ? null : cause.getMessage(), batch.size());
+                throttled = false;
+                batch.forEach(this::putItem);
+            }
+        }
+        scheduleNext(throttled);
+    }
+
+    private void putItem(PendingPut<?> put) {
+        synchronized (this) {
+            fallbackPuts++;
+        }
+        CompletableFuture<Void> future;
+        try {
+            future = put.putItem(service);
+        } catch (RuntimeException e) {
+            logger.warn("PutItem: failed to write value of item {}: {}", put.item.getName(), e.getMessage());
+            putItemDone();
+            return;
+        }
+        future.whenComplete((result, exception) -> putItemDone());
+    }
+
+    private synchronized void putItemDone() {
+        fallbackPuts--;
+        notifyAll();
+    }
+
+    private synchronized void retry(List<PendingPut<?>> puts) {
+        // retried items stay in front of newer items
+        for (int i = puts.size() - 1; i >= 0; i--) {
+            PendingPut<?> put = puts.get(i);
+            if (++put.attempts >= MAX_ATTEMPTS) {
+                logger.warn("BatchWriteItem: giving up writing value of item {} after {} attempts",
+                        put.item.getName(), put.attempts);
+            } else {
+                pending.addFirst(put);
+            }
+        }
+    }
+
+    private synchronized void scheduleNext(boolean throttled) {
+        if (throttled) {
+            backoffMillis = Math.min(MAX_BACKOFF_MILLIS, Math.max(MIN_BACKOFF_MILLIS, backoffMillis * 2));
+        } else {
+            backoffMillis = backoffMillis / 2 < MIN_BACKOFF_MILLIS ? 0 : backoffMillis / 2;
+        }
+
+        if (pending.isEmpty() || !(drain || throttled || pending.size() >= MAX_BATCH_SIZE)) {
+            stopWriting();
+        } else if (backoffMillis > 0) {
+            long delay = ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1);
+            scheduler.schedule(() -> executor.execute(this::writeBatch), delay, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(this::writeBatch);
+        }
+    }
+
+    private void stopWriting() {
+        writing = false;
+        if (pending.isEmpty()) {
+            drain = false;
+        }
+        notifyAll();
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Tests that a flush waits for the values that are written one by one because their batch failed, here because the
+ * table does not exist yet.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class BatchWriteFallbackIntegrationTest extends BaseIntegrationTest {
+
+    public static final boolean LEGACY_MODE = false;
+    private static final String NAME = "number";
+    private static final int STATE_COUNT = 3;
+
+    @SuppressWarnings("null")
+    @Test
+    public void testFlushWaitsForValuesWrittenOneByOne() throws InterruptedException {
+        ZonedDateTime storeStart = ZonedDateTime.now();
+        NumberItem item = (NumberItem) ITEMS.get(NAME);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            item.setState(new DecimalType(i));
+            // Add some delay to enforce different timestamps in ms accuracy
+            Thread.sleep(2);
+            service.store(item);
+        }
+
+        DynamoDBWriteBuffer writeBuffer = BaseIntegrationTest.service.getWriteBuffer();
+        assertNotNull(writeBuffer);
+        // values are added to the buffer asynchronously
+        waitForAssert(() -> assertEquals(STATE_COUNT, writeBuffer.getPendingCount()));
+        assertTrue(writeBuffer.flush(Duration.ofMinutes(1)));
+        assertEquals(0, writeBuffer.getPendingCount());
+
+        waitForAssert(() -> {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME);
+            criteria.setBeginDate(storeStart);
+            criteria.setOrdering(Ordering.ASCENDING);
+            List<DecimalType> actualStates = new ArrayList<>();
+            for (HistoricItem historicItem : BaseIntegrationTest.service.query(criteria)) {
+                actualStates.add(historicItem.getState().as(DecimalType.class));
+            }
+            assertEquals(List.of(new DecimalType(0), new DecimalType(1), new DecimalType(2)), actualStates);
+        });
+    }
+}
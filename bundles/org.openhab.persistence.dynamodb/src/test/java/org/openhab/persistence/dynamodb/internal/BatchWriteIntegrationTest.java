@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.dynamodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+
+/**
+ * Tests that values are written with BatchWriteItem requests.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class BatchWriteIntegrationTest extends BaseIntegrationTest {
+
+    public static final boolean LEGACY_MODE = false;
+    private static final String NAME = "number";
+    private static final int STATE_COUNT = 3 * DynamoDBWriteBuffer.MAX_BATCH_SIZE + 5;
+
+    private static @Nullable ZonedDateTime storeStart;
+
+    @SuppressWarnings("null")
+    @BeforeAll
+    public static void populateData() {
+        storeStart = ZonedDateTime.now();
+
+        NumberItem item = (NumberItem) ITEMS.get(NAME);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            item.setState(new DecimalType(i));
+            try {
+                // Add some delay to enforce different timestamps in ms accuracy
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                fail("Interrupted");
+                return;
+            }
+            service.store(item);
+        }
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    public void testAllValuesWrittenWithFewerRequests() {
+        waitForAssert(() -> {
+            FilterCriteria criteria = new FilterCriteria();
+            criteria.setItemName(NAME);
+            criteria.setBeginDate(Objects.requireNonNull(storeStart));
+            criteria.setOrdering(Ordering.ASCENDING);
+            criteria.setPageNumber(0);
+            criteria.setPageSize(900);
+            List<DecimalType> actualStates = new ArrayList<>();
+            for (HistoricItem historicItem : BaseIntegrationTest.service.query(criteria)) {
+                actualStates.add(historicItem.getState().as(DecimalType.class));
+            }
+            List<DecimalType> expectedStates = new ArrayList<>();
+            for (int i = 0; i < STATE_COUNT; i++) {
+                expectedStates.add(new DecimalType(i));
+            }
+            assertEquals(expectedStates, actualStates);
+        });
+
+        DynamoDBWriteBuffer writeBuffer = BaseIntegrationTest.service.getWriteBuffer();
+        assertNotNull(writeBuffer);
+        assertEquals(0, writeBuffer.getPendingCount());
+        assertTrue(writeBuffer.getRequestCount() < STATE_COUNT / 2,
+                "Expected batched requests, got " + writeBuffer.getRequestCount());
+    }
+}
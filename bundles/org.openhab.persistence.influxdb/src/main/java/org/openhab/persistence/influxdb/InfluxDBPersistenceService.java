@@ -14,9 +14,9 @@ package org.openhab.persistence.influxdb;
 
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.*;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,15 +24,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
@@ -52,9 +53,11 @@ import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBHistoricItem;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
+import org.openhab.persistence.influxdb.internal.InfluxDBMetrics;
 import org.openhab.persistence.influxdb.internal.InfluxDBPersistentItemInfo;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
 import org.openhab.persistence.influxdb.internal.InfluxDBStateConvertUtils;
+import org.openhab.persistence.influxdb.internal.InfluxDBWriteQueue;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.openhab.persistence.influxdb.internal.influx1.InfluxDB1RepositoryImpl;
 import org.openhab.persistence.influxdb.internal.influx2.InfluxDB2RepositoryImpl;
@@ -97,7 +100,8 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
 
     private final Logger logger = LoggerFactory.getLogger(InfluxDBPersistenceService.class);
 
-    private static final int COMMIT_INTERVAL = 3; // in s
+    private static final Path SPILL_FILE = Path.of(OpenHAB.getUserDataFolder(), "persistence", "influxdb",
+            "influxdb.spill");
     protected static final String CONFIG_URI = "persistence:influxdb";
 
     // External dependencies
@@ -109,8 +113,11 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
     private boolean serviceActivated;
 
     // storage
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("org.openhab.influxdb");
     private final ScheduledFuture<?> storeJob;
-    private final BlockingQueue<InfluxPoint> pointsQueue = new LinkedBlockingQueue<>();
+    private final InfluxDBWriteQueue pointsQueue;
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private volatile @Nullable InfluxDBMetrics metrics;
 
     // conversion
     private final Set<ItemFactory> itemFactories = new HashSet<>();
@@ -125,8 +132,11 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         if (configuration.isValid()) {
             this.influxDBRepository = createInfluxDBRepository();
             this.influxDBRepository.connect();
-            this.storeJob = ThreadPoolManager.getScheduledPool("org.openhab.influxdb")
-                    .scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL, COMMIT_INTERVAL, TimeUnit.SECONDS);
+            this.pointsQueue = new InfluxDBWriteQueue(configuration.getQueueSize(),
+                    configuration.isSpillToDisk() ? SPILL_FILE : null);
+            int commitInterval = configuration.getCommitInterval();
+            this.storeJob = scheduler.scheduleWithFixedDelay(this::commit, commitInterval, commitInterval,
+                    TimeUnit.SECONDS);
             serviceActivated = true;
         } else {
             throw new IllegalArgumentException("Configuration invalid.");
@@ -154,10 +164,19 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
         storeJob.cancel(false);
         commit(); // ensure we at least tried to store the data;
 
-        if (!pointsQueue.isEmpty()) {
-            logger.warn("InfluxDB failed to finally store {} points.", pointsQueue.size());
+        int lost = pointsQueue.close();
+        if (lost > 0) {
+            logger.warn("InfluxDB failed to finally store {} points.", lost);
+        }
+        if (pointsQueue.getSpilledCount() > 0) {
+            logger.info("InfluxDB keeps {} points in the spill file until the next start.",
+                    pointsQueue.getSpilledCount());
         }
 
+        InfluxDBMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.setWriteQueue(null);
+        }
         influxDBRepository.disconnect();
         logger.info("InfluxDB persistence service stopped.");
     }
@@ -212,7 +231,11 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
             if (pointsQueue.offer(point)) {
                 logger.trace("Queued {} for item {}", point, item);
             } else {
-                logger.warn("Failed to queue {} for item {}", point, item);
+                logger.debug("Queue is full, dropped the oldest point to queue {} for item {}", point, item);
+            }
+            if ((pointsQueue.size() >= configuration.getBatchSize() || pointsQueue.isSpillPending())
+                    && commitScheduled.compareAndSet(false, true)) {
+                scheduler.execute(this::commit);
             }
         });
     }
@@ -278,19 +301,39 @@ public class InfluxDBPersistenceService implements ModifiablePersistenceService
     }
 
     private void commit() {
+        commitScheduled.set(false);
+        // spill file I/O is done here and not by the threads storing points
+        pointsQueue.spill();
         if (!pointsQueue.isEmpty() && checkConnection()) {
-            List<InfluxPoint> points = new ArrayList<>();
-            pointsQueue.drainTo(points);
-            if (!influxDBRepository.write(points)) {
-                logger.warn("Re-queuing {} elements, failed to write batch.", points.size());
-                pointsQueue.addAll(points);
+            boolean written = pointsQueue.flush(configuration.getBatchSize(), points -> {
+                if (influxDBRepository.write(points)) {
+                    logger.trace("Wrote {} elements to database", points.size());
+                    return true;
+                }
+                return false;
+            });
+            if (!written) {
+                logger.warn("Failed to write batch, keeping {} points queued and {} points spilled, {} dropped so far.",
+                        pointsQueue.getQueuedCount(), pointsQueue.getSpilledCount(), pointsQueue.getDroppedCount());
                 influxDBRepository.disconnect();
-            } else {
-                logger.trace("Wrote {} elements to database", points.size());
             }
+            logger.debug("Queue: {} queued, {} spilled, {} dropped, flush latency {} ms (average {} ms)",
+                    pointsQueue.getQueuedCount(), pointsQueue.getSpilledCount(), pointsQueue.getDroppedCount(),
+                    pointsQueue.getLastFlushLatency(), pointsQueue.getAverageFlushLatency());
         }
     }
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    protected void setMetrics(InfluxDBMetrics metrics) {
+        metrics.setWriteQueue(serviceActivated ? pointsQueue : null);
+        this.metrics = metrics;
+    }
+
+    protected void unsetMetrics(InfluxDBMetrics metrics) {
+        metrics.setWriteQueue(null);
+        this.metrics = null;
+    }
+
     /**
      * Convert incoming data to an {@link InfluxPoint} for further processing. This is needed because storage is
      * asynchronous and the item data may have changed.
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsMeter;
+import org.openhab.persistence.influxdb.InfluxDBPersistenceService;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Publishes the state of the {@link InfluxDBWriteQueue} through the {@link AddonMetrics} of the metrics service.
+ * <p />
+ * The metrics service is optional: this component is only activated if it is installed, and only this class refers to
+ * its package.
+ *
+ * @author Agent - Initial contribution
+ */
+@Component(service = InfluxDBMetrics.class)
+@NonNullByDefault
+public class InfluxDBMetrics {
+    static final String METRIC_POINTS = "openhab.persistence.influxdb.points";
+    static final String METRIC_FLUSH_LATENCY = "openhab.persistence.influxdb.flush.latency";
+    static final String TAG_STATE = "state";
+    static final String TAG_STATISTIC = "statistic";
+
+    private final List<MetricsMeter> meters;
+
+    private volatile @Nullable InfluxDBWriteQueue writeQueue;
+
+    @Activate
+    public InfluxDBMetrics(final @Reference AddonMetrics addonMetrics) {
+        meters = List.of(
+                addonMetrics.persistenceQueueGauge(InfluxDBPersistenceService.SERVICE_NAME, this,
+                        metrics -> metrics.read(InfluxDBWriteQueue::getQueuedCount)),
+                addonMetrics.gauge(METRIC_POINTS, this, metrics -> metrics.read(InfluxDBWriteQueue::getSpilledCount),
+                        TAG_STATE, "spilled"),
+                addonMetrics.gauge(METRIC_POINTS, this, metrics -> metrics.read(InfluxDBWriteQueue::getDroppedCount),
+                        TAG_STATE, "dropped"),
+                addonMetrics.gauge(METRIC_FLUSH_LATENCY, this,
+                        metrics -> metrics.read(InfluxDBWriteQueue::getLastFlushLatency), TAG_STATISTIC, "last"),
+                addonMetrics.gauge(METRIC_FLUSH_LATENCY, this,
+                        metrics -> metrics.read(InfluxDBWriteQueue::getAverageFlushLatency), TAG_STATISTIC,
+                        "average"));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        meters.forEach(MetricsMeter::remove);
+    }
+
+    /**
+     * Set the write queue to read the metrics from.
+     *
+     * @param writeQueue the queue, or null if the persistence service is not active
+     */
+    public void setWriteQueue(@Nullable InfluxDBWriteQueue writeQueue) {
+        this.writeQueue = writeQueue;
+    }
+
+    private double read(ToDoubleFunction<InfluxDBWriteQueue> valueFunction) {
+        InfluxDBWriteQueue writeQueue = this.writeQueue;
+        return writeQueue == null ? 0 : valueFunction.applyAsDouble(writeQueue);
+    }
+}
@@ -0,0 +1,536 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of {@link InfluxPoint}s waiting to be written to the database.
+ * <p />
+ * Points are kept in an in-memory ring of fixed capacity. When the ring is full, the oldest points are either handed
+ * over to be appended to a local spill file (if one is configured) or dropped. Offering a point never does file I/O:
+ * handed over points are written to the spill file by {@link #spill()} or {@link #flush(int, Predicate)}, which are
+ * called by the thread writing to the database. If that thread falls behind, at most <code>capacity</code> points wait
+ * for being spilled, older ones are dropped.
+ * <p />
+ * Points are always flushed in the order they were offered: a batch that failed to be written is retried first, then
+ * the spill file is replayed, then the ring is drained. The spill file survives restarts and is removed once it has
+ * been replayed completely.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteQueue {
+    private static final byte TYPE_STRING = 'S';
+    private static final byte TYPE_DECIMAL = 'B';
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_DOUBLE = 'D';
+    private static final byte TYPE_BOOLEAN = 'Z';
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxDBWriteQueue.class);
+
+    private final int capacity;
+    private final @Nullable Path spillFile;
+
+    // guarded by this
+    private final ArrayDeque<InfluxPoint> ring;
+    private ArrayDeque<List<InfluxPoint>> pendingSpills = new ArrayDeque<>();
+    private int pendingSpillCount;
+
+    // only modified while holding flushLock
+    private volatile @Nullable List<InfluxPoint> retryBatch;
+    private long spillReadPosition;
+    private volatile long spilledCount;
+    private final Object flushLock = new Object();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile long flushCount;
+    private volatile long lastFlushLatency;
+    private volatile long totalFlushLatency;
+
+    /**
+     * Create a new queue.
+     *
+     * @param capacity maximum number of points kept in memory
+     * @param spillFile file the oldest points are moved to when the ring is full, or <code>null</code> to drop them
+     */
+    public InfluxDBWriteQueue(int capacity, @Nullable Path spillFile) {
+        this.capacity = Math.max(1, capacity);
+        this.ring = new ArrayDeque<>(Math.min(this.capacity, 1024));
+        this.spillFile = spillFile;
+        if (spillFile != null) {
+            spilledCount = countSpilledPoints(spillFile);
+            if (spilledCount > 0) {
+                logger.info("Found {} points in spill file '{}', they will be written when the database is available.",
+                        spilledCount, spillFile);
+            }
+        }
+    }
+
+    /**
+     * Add a point to the end of the queue.
+     *
+     * @param point the point
+     * @return <code>false</code> if the ring was full and the oldest point had to be dropped
+     */
+    public synchronized boolean offer(InfluxPoint point) {
+        boolean accepted = true;
+        if (ring.size() >= capacity) {
+            accepted = makeRoom();
+        }
+        ring.addLast(point);
+        return accepted;
+    }
+
+    /**
+     * @return the number of points waiting in memory
+     */
+    public synchronized int size() {
+        return ring.size();
+    }
+
+    /**
+     * @return <code>true</code> if points have been handed over to be written to the spill file
+     */
+    public synchronized boolean isSpillPending() {
+        return pendingSpillCount > 0;
+    }
+
+    /**
+     * @return <code>true</code> if no points are waiting in memory, in the spill file or for a retry
+     */
+    public boolean isEmpty() {
+        synchronized (flushLock) {
+            synchronized (this) {
+                return retryBatch == null && spilledCount == 0 && ring.isEmpty() && pendingSpillCount == 0;
+            }
+        }
+    }
+
+    /**
+     * Append the points handed over by {@link #offer(InfluxPoint)} to the spill file. Points that can't be written
+     * are dropped.
+     */
+    public void spill() {
+        synchronized (flushLock) {
+            ArrayDeque<List<InfluxPoint>> spills;
+            int count;
+            synchronized (this) {
+                if (pendingSpillCount == 0) {
+                    return;
+                }
+                spills = pendingSpills;
+                count = pendingSpillCount;
+                pendingSpills = new ArrayDeque<>();
+                pendingSpillCount = 0;
+            }
+            Path spillFile = this.spillFile;
+            if (spillFile == null) {
+                droppedCount.addAndGet(count);
+                return;
+            }
+            try {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                try (FileChannel out = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND)) {
+                    for (List<InfluxPoint> spill : spills) {
+                        ByteBuffer encoded = encode(spill);
+                        while (encoded.hasRemaining()) {
+                            out.write(encoded);
+                        }
+                    }
+                }
+                spilledCount += count;
+                logger.debug("Moved {} points to spill file, {} points are waiting there.", count, spilledCount);
+            } catch (IOException e) {
+                logger.warn("Failed to write {} points to spill file '{}', they are dropped: {}", count, spillFile,
+                        e.getMessage());
+                droppedCount.addAndGet(count);
+            }
+        }
+    }
+
+    /**
+     * Write all waiting points in batches of at most <code>batchSize</code> points. Stops at the first batch the
+     * writer rejects, this batch is retried on the next flush.
+     *
+     * @param batchSize maximum number of points per batch
+     * @param writer writes a batch and returns whether it succeeded
+     * @return <code>true</code> if all points have been written
+     */
+    public boolean flush(int batchSize, Predicate<List<InfluxPoint>> writer) {
+        synchronized (flushLock) {
+            while (true) {
+                spill();
+                List<InfluxPoint> batch = retryBatch;
+                long nextSpillPosition = -1;
+                if (batch == null) {
+                    SpillBatch spillBatch = readSpillBatch(batchSize);
+                    if (spillBatch != null) {
+                        batch = spillBatch.points();
+                        nextSpillPosition = spillBatch.nextPosition();
+                    } else {
+                        batch = pollRing(batchSize);
+                        if (batch == null) {
+                            // older points have been handed over for spilling meanwhile
+                            continue;
+                        }
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return true;
+                }
+
+                long start = System.nanoTime();
+                boolean written = writer.test(batch);
+                recordFlush(System.nanoTime() - start);
+
+                if (!written) {
+                    // spilled points stay in the file until they have been written
+                    retryBatch = nextSpillPosition < 0 ? batch : null;
+                    return false;
+                }
+                retryBatch = null;
+                if (nextSpillPosition >= 0) {
+                    consumeSpillBatch(batch.size(), nextSpillPosition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move all points still waiting in memory to the spill file, keeping their order. Used when the service shuts
+     * down.
+     *
+     * @return the number of points that could not be kept and are lost
+     */
+    public int close() {
+        synchronized (flushLock) {
+            spill();
+            List<InfluxPoint> retry = retryBatch;
+            List<InfluxPoint> remaining;
+            synchronized (this) {
+                remaining = new ArrayList<>(ring);
+                ring.clear();
+            }
+            retryBatch = null;
+            int pending = remaining.size() + (retry != null ? retry.size() : 0);
+            Path spillFile = this.spillFile;
+            if (spillFile == null || pending == 0) {
+                droppedCount.addAndGet(pending);
+                return pending;
+            }
+            try {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                Path temp = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    if (retry != null) {
+                        out.write(encode(retry));
+                    }
+                    if (Files.exists(spillFile)) {
+                        try (FileChannel in = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                            long position = spillReadPosition;
+                            long size = in.size();
+                            while (position < size) {
+                                position += in.transferTo(position, size - position, out);
+                            }
+                        }
+                    }
+                    out.write(encode(remaining));
+                }
+                Files.move(temp, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                spillReadPosition = 0;
+                spilledCount += pending;
+                return 0;
+            } catch (IOException e) {
+                logger.warn("Failed to write {} points to spill file '{}': {}", pending, spillFile, e.getMessage());
+                droppedCount.addAndGet(pending);
+                return pending;
+            }
+        }
+    }
+
+    /**
+     * @return the number of points waiting in memory, including a batch waiting for a retry and points waiting for
+     *         being spilled
+     */
+    public synchronized int getQueuedCount() {
+        List<InfluxPoint> retry = retryBatch;
+        return ring.size() + pendingSpillCount + (retry != null ? retry.size() : 0);
+    }
+
+    /**
+     * @return the number of points waiting in the spill file
+     */
+    public long getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * @return the number of points that have been dropped since the queue was created
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the duration of the last write in milliseconds
+     */
+    public long getLastFlushLatency() {
+        return lastFlushLatency / 1_000_000;
+    }
+
+    /**
+     * @return the average duration of all writes in milliseconds
+     */
+    public long getAverageFlushLatency() {
+        long count = flushCount;
+        return count == 0 ? 0 : totalFlushLatency / count / 1_000_000;
+    }
+
+    private void recordFlush(long latency) {
+        lastFlushLatency = latency;
+        totalFlushLatency += latency;
+        flushCount++;
+    }
+
+    private synchronized @Nullable List<InfluxPoint> pollRing(int batchSize) {
+        if (pendingSpillCount > 0) {
+            return null;
+        }
+        int count = Math.min(batchSize, ring.size());
+        List<InfluxPoint> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(ring.removeFirst());
+        }
+        return batch;
+    }
+
+    /**
+     * Free space in the full ring, either by handing over the older half to be spilled or by dropping the oldest
+     * point.
+     *
+     * @return <code>false</code> if a point has been dropped
+     */
+    private boolean makeRoom() {
+        if (spillFile != null) {
+            int count = Math.max(1, ring.size() / 2);
+            List<InfluxPoint> spill = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                spill.add(ring.removeFirst());
+            }
+            pendingSpills.addLast(spill);
+            pendingSpillCount += count;
+            boolean accepted = true;
+            while (pendingSpillCount > capacity) {
+                // the spill file is not written fast enough, keep the memory bounded
+                List<InfluxPoint> dropped = pendingSpills.removeFirst();
+                pendingSpillCount -= dropped.size();
+                droppedCount.addAndGet(dropped.size());
+                accepted = false;
+            }
+            return accepted;
+        }
+        ring.removeFirst();
+        droppedCount.incrementAndGet();
+        return false;
+    }
+
+    private record SpillBatch(List<InfluxPoint> points, long nextPosition) {
+    }
+
+    private @Nullable SpillBatch readSpillBatch(int batchSize) {
+        Path spillFile = this.spillFile;
+        if (spillFile == null || spilledCount == 0) {
+            return null;
+        }
+        List<InfluxPoint> points = new ArrayList<>();
+        long position = spillReadPosition;
+        try (FileChannel in = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            while (points.size() < batchSize) {
+                length.clear();
+                if (in.read(length, position) < Integer.BYTES) {
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(length.getInt(0));
+                if (in.read(record, position + Integer.BYTES) < record.capacity()) {
+                    break;
+                }
+                points.add(decode(record.array()));
+                position += Integer.BYTES + record.capacity();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read spill file '{}', {} points are discarded: {}", spillFile, spilledCount,
+                    e.getMessage());
+            droppedCount.addAndGet(spilledCount);
+            resetSpillFile(spillFile);
+            return null;
+        }
+        if (points.isEmpty()) {
+            // the remainder of the file is incomplete, e.g. after a crash while spilling
+            droppedCount.addAndGet(spilledCount);
+            resetSpillFile(spillFile);
+            return null;
+        }
+        return new SpillBatch(points, position);
+    }
+
+    private void consumeSpillBatch(int count, long nextPosition) {
+        Path spillFile = this.spillFile;
+        spilledCount -= count;
+        spillReadPosition = nextPosition;
+        if (spillFile != null && spilledCount <= 0) {
+            resetSpillFile(spillFile);
+        }
+    }
+
+    private void resetSpillFile(Path spillFile) {
+        spilledCount = 0;
+        spillReadPosition = 0;
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete spill file '{}': {}", spillFile, e.getMessage());
+        }
+    }
+
+    private long countSpilledPoints(Path spillFile) {
+        if (!Files.exists(spillFile)) {
+            return 0;
+        }
+        long count = 0;
+        try (FileChannel in = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            long position = 0;
+            long size = in.size();
+            while (position + Integer.BYTES <= size) {
+                length.clear();
+                in.read(length, position);
+                long next = position + Integer.BYTES + length.getInt(0);
+                if (next > size) {
+                    break;
+                }
+                position = next;
+                count++;
+            }
+            if (position < size) {
+                logger.warn("Spill file '{}' ends with an incomplete record, it is discarded.", spillFile);
+                in.truncate(position);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read spill file '{}': {}", spillFile, e.getMessage());
+        }
+        return count;
+    }
+
+    private static ByteBuffer encode(Collection<InfluxPoint> points) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        for (InfluxPoint point : points) {
+            recordBytes.reset();
+            writeString(record, point.getMeasurementName());
+            record.writeLong(point.getTime().getEpochSecond());
+            record.writeInt(point.getTime().getNano());
+            Object value = point.getValue();
+            if (value instanceof BigDecimal decimal) {
+                record.writeByte(TYPE_DECIMAL);
+                writeString(record, decimal.toString());
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte) {
+                record.writeByte(TYPE_LONG);
+                record.writeLong(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                record.writeByte(TYPE_DOUBLE);
+                record.writeDouble(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                record.writeByte(TYPE_BOOLEAN);
+                record.writeBoolean(bool);
+            } else {
+                record.writeByte(TYPE_STRING);
+                writeString(record, String.valueOf(value));
+            }
+            record.writeInt(point.getTags().size());
+            for (Map.Entry<String, String> tag : point.getTags().entrySet()) {
+                writeString(record, tag.getKey());
+                writeString(record, tag.getValue());
+            }
+            record.flush();
+            out.writeInt(recordBytes.size());
+            recordBytes.writeTo(out);
+        }
+        out.flush();
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private static InfluxPoint decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        InfluxPoint.Builder builder = InfluxPoint.newBuilder(readString(in));
+        builder.withTime(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_DECIMAL -> builder.withValue(new BigDecimal(readString(in)));
+            case TYPE_LONG -> builder.withValue(in.readLong());
+            case TYPE_DOUBLE -> builder.withValue(in.readDouble());
+            case TYPE_BOOLEAN -> builder.withValue(in.readBoolean());
+            case TYPE_STRING -> builder.withValue(readString(in));
+            default -> throw new IOException("Unknown value type " + type);
+        }
+        int tags = in.readInt();
+        for (int i = 0; i < tags; i++) {
+            builder.withTag(readString(in), readString(in));
+        }
+        return builder.build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.FIELD_VALUE_NAME;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes {@link InfluxPoint}s into the
+ * <a href="https://docs.influxdata.com/influxdb/v2/reference/syntax/line-protocol/">InfluxDB line protocol</a> with
+ * millisecond precision. Both database versions accept this format, so the points can be written as a single request
+ * body without creating the client libraries' point objects first.
+ * <p />
+ * Points without a value are either written as the string {@code "null"}, as the InfluxDB 1 client did, or skipped,
+ * as the InfluxDB 2 client did.
+ * <p />
+ * The encoder reuses its buffer between batches and is not thread-safe.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxLineProtocolEncoder {
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(InfluxLineProtocolEncoder.class);
+
+    private final boolean writeNullValues;
+    private StringBuilder buffer = new StringBuilder(4096);
+    private String[] tagKeys = new String[8];
+
+    /**
+     * Create an encoder.
+     *
+     * @param writeNullValues {@code true} to write points without a value as the string {@code "null"},
+     *            {@code false} to skip them
+     */
+    public InfluxLineProtocolEncoder(boolean writeNullValues) {
+        this.writeNullValues = writeNullValues;
+    }
+
+    /**
+     * Encode the given points, one line per point. Points that cannot be encoded are skipped.
+     *
+     * @param points the points
+     * @return the line protocol, empty if no point could be encoded
+     */
+    public String encode(List<InfluxPoint> points) {
+        StringBuilder buffer = this.buffer;
+        buffer.setLength(0);
+        for (InfluxPoint point : points) {
+            int start = buffer.length();
+            if (!encode(point, buffer)) {
+                buffer.setLength(start);
+                logger.warn("Could not convert {}, discarding this datapoint", point);
+            }
+        }
+        String lines = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            // do not keep the memory of an exceptionally large batch
+            this.buffer = new StringBuilder(4096);
+        }
+        return lines;
+    }
+
+    private boolean encode(InfluxPoint point, StringBuilder out) {
+        Object value = point.getValue();
+        if (value == null) {
+            if (!writeNullValues) {
+                return false;
+            }
+            value = "null";
+        }
+        escape(out, point.getMeasurementName(), false);
+
+        // sorted tags are recommended for best write performance
+        Map<String, String> tags = point.getTags();
+        int tagCount = tags.size();
+        if (tagKeys.length < tagCount) {
+            tagKeys = new String[tagCount];
+        }
+        String[] keys = tags.keySet().toArray(tagKeys);
+        Arrays.sort(keys, 0, tagCount);
+        for (int i = 0; i < tagCount; i++) {
+            String key = keys[i];
+            String tagValue = tags.get(key);
+            if (tagValue == null || key.isEmpty() || tagValue.isEmpty()) {
+                continue;
+            }
+            out.append(',');
+            escape(out, key, true);
+            out.append('=');
+            escape(out, tagValue, true);
+        }
+        Arrays.fill(keys, 0, tagCount, null);
+
+        out.append(' ').append(FIELD_VALUE_NAME).append('=');
+        if (!appendValue(out, value)) {
+            return false;
+        }
+        out.append(' ').append(point.getTime().toEpochMilli()).append('\n');
+        return true;
+    }
+
+    private boolean appendValue(StringBuilder out, Object value) {
+        if (value instanceof String string) {
+            out.append('"');
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\');
+                }
+                out.append(c);
+            }
+            out.append('"');
+        } else if (value instanceof BigDecimal decimal) {
+            out.append(decimal.toPlainString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (!Double.isFinite(number)) {
+                return false;
+            }
+            out.append(number);
+        } else if (value instanceof Number number) {
+            out.append(number.longValue()).append('i');
+        } else if (value instanceof Boolean bool) {
+            out.append(bool.booleanValue());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Escape a measurement name (commas and spaces), tag key or tag value (additionally equal signs).
+     */
+    private static void escape(StringBuilder out, String value, boolean escapeEquals) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case ',', ' ' -> out.append('\\').append(c);
+                case '=' -> {
+                    if (escapeEquals) {
+                        out.append('\\');
+                    }
+                    out.append(c);
+                }
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append(c);
+            }
+        }
+    }
+}
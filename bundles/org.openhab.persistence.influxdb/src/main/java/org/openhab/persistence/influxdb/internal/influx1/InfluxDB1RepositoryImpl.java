@@ -14,7 +14,6 @@ package org.openhab.persistence.influxdb.internal.influx1;
 
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.COLUMN_TIME_NAME_V1;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.COLUMN_VALUE_NAME_V1;
-import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.FIELD_VALUE_NAME;
 import static org.openhab.persistence.influxdb.internal.InfluxDBConstants.TAG_ITEM_NAME;
 
 import java.time.Instant;
@@ -23,16 +22,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.influxdb.InfluxDB;
+import org.influxdb.InfluxDB.ConsistencyLevel;
 import org.influxdb.InfluxDBException;
 import org.influxdb.InfluxDBFactory;
-import org.influxdb.dto.BatchPoints;
-import org.influxdb.dto.Point;
 import org.influxdb.dto.Pong;
 import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
@@ -41,6 +38,7 @@ import org.openhab.persistence.influxdb.internal.FilterCriteriaQueryCreator;
 import org.openhab.persistence.influxdb.internal.InfluxDBConfiguration;
 import org.openhab.persistence.influxdb.internal.InfluxDBMetadataService;
 import org.openhab.persistence.influxdb.internal.InfluxDBRepository;
+import org.openhab.persistence.influxdb.internal.InfluxLineProtocolEncoder;
 import org.openhab.persistence.influxdb.internal.InfluxPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +58,7 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
     private final Logger logger = LoggerFactory.getLogger(InfluxDB1RepositoryImpl.class);
     private final InfluxDBConfiguration configuration;
     private final FilterCriteriaQueryCreator queryCreator;
+    private final InfluxLineProtocolEncoder encoder = new InfluxLineProtocolEncoder(true);
     private @Nullable InfluxDB client;
 
     public InfluxDB1RepositoryImpl(InfluxDBConfiguration configuration,
@@ -80,7 +79,7 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
                     configuration.getPassword());
             createdClient.setDatabase(configuration.getDatabaseName());
             createdClient.setRetentionPolicy(configuration.getRetentionPolicy());
-            createdClient.enableBatch(200, 100, TimeUnit.MILLISECONDS);
+            createdClient.enableGzip();
             this.client = createdClient;
         } catch (InfluxException | InfluxDBException e) {
             logger.debug("Connection failed", e);
@@ -128,12 +127,13 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         if (currentClient == null) {
             return false;
         }
+        String lines = encoder.encode(influxPoints);
+        if (lines.isEmpty()) {
+            return true;
+        }
         try {
-            List<Point> points = influxPoints.stream().map(this::convertPointToClientFormat).filter(Optional::isPresent)
-                    .map(Optional::get).toList();
-            BatchPoints batchPoints = BatchPoints.database(configuration.getDatabaseName())
-                    .retentionPolicy(configuration.getRetentionPolicy()).points(points).build();
-            currentClient.write(batchPoints);
+            currentClient.write(configuration.getDatabaseName(), configuration.getRetentionPolicy(),
+                    ConsistencyLevel.ONE, TimeUnit.MILLISECONDS, lines);
         } catch (InfluxException | InfluxDBException e) {
             logger.debug("Writing to database failed", e);
             return false;
@@ -147,26 +147,6 @@ public class InfluxDB1RepositoryImpl implements InfluxDBRepository {
         return false;
     }
 
-    private Optional<Point> convertPointToClientFormat(InfluxPoint point) {
-        Point.Builder clientPoint = Point.measurement(point.getMeasurementName()).time(point.getTime().toEpochMilli(),
-                TimeUnit.MILLISECONDS);
-        Object value = point.getValue();
-        if (value instanceof String string) {
-            clientPoint.addField(FIELD_VALUE_NAME, string);
-        } else if (value instanceof Number number) {
-            clientPoint.addField(FIELD_VALUE_NAME, number);
-        } else if (value instanceof Boolean boolean1) {
-            clientPoint.addField(FIELD_VALUE_NAME, boolean1);
-        } else if (value == null) {
-            clientPoint.addField(FIELD_VALUE_NAME, "null");
-        } else {
-            logger.warn("Could not convert {}, discarding this datapoint", point);
-            return Optional.empty();
-        }
-        point.getTags().forEach(clientPoint::tag);
-        return Optional.of(clientPoint.build());
-    }
-
     @Override
     public List<InfluxRow> query(FilterCriteria filter, String retentionPolicy) {
         try {
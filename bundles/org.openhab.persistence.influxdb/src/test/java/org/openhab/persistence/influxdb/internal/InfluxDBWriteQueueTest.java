@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link InfluxDBWriteQueue}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxDBWriteQueueTest {
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    private final List<InfluxPoint> written = new ArrayList<>();
+
+    private static InfluxPoint point(int i) {
+        return InfluxPoint.newBuilder("measurement").withTime(Instant.ofEpochMilli(i)).withValue(new BigDecimal(i))
+                .withTag("item", "item" + i).build();
+    }
+
+    private boolean write(List<InfluxPoint> points) {
+        written.addAll(points);
+        return true;
+    }
+
+    private List<Long> writtenTimes() {
+        return written.stream().map(p -> p.getTime().toEpochMilli()).toList();
+    }
+
+    @Test
+    void oldestPointsAreDroppedWithoutSpillFile() {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(3, null);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(point(i));
+        }
+
+        assertThat(queue.getDroppedCount(), is(2L));
+        assertThat(queue.flush(2, this::write), is(true));
+        assertThat(writtenTimes(), is(List.of(2L, 3L, 4L)));
+    }
+
+    @Test
+    void failedBatchIsRetriedBeforeNewerPoints() {
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(10, null);
+        for (int i = 0; i < 4; i++) {
+            queue.offer(point(i));
+        }
+
+        assertThat(queue.flush(2, points -> false), is(false));
+        assertThat(queue.getQueuedCount(), is(4));
+        queue.offer(point(4));
+        assertThat(queue.flush(2, this::write), is(true));
+        assertThat(writtenTimes(), is(List.of(0L, 1L, 2L, 3L, 4L)));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    void spilledPointsAreReplayedInOrder() {
+        Path spillFile = tempDir.resolve("influxdb.spill");
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(4, spillFile);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(point(i));
+            // done by the commit job
+            queue.spill();
+        }
+
+        assertThat(queue.getDroppedCount(), is(0L));
+        assertThat(queue.getSpilledCount() + queue.getQueuedCount(), is(10L));
+        assertThat(queue.flush(3, this::write), is(true));
+        assertThat(writtenTimes(), is(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)));
+        assertThat(written.get(5).getValue(), is(new BigDecimal(5)));
+        assertThat(written.get(5).getTags().get("item"), is("item5"));
+        assertThat(Files.exists(spillFile), is(false));
+    }
+
+    @Test
+    void offerDoesNotWriteSpillFile() {
+        Path spillFile = tempDir.resolve("influxdb.spill");
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(4, spillFile);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(point(i));
+        }
+
+        assertThat(Files.exists(spillFile), is(false));
+        assertThat(queue.isSpillPending(), is(true));
+        assertThat(queue.getQueuedCount(), is(6));
+
+        queue.spill();
+        assertThat(Files.exists(spillFile), is(true));
+        assertThat(queue.isSpillPending(), is(false));
+        assertThat(queue.getSpilledCount(), is(2L));
+        assertThat(queue.getQueuedCount(), is(4));
+    }
+
+    @Test
+    void oldestHandedOverPointsAreDroppedWhenNotSpilled() {
+        Path spillFile = tempDir.resolve("influxdb.spill");
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(4, spillFile);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(point(i));
+        }
+
+        assertThat(queue.getDroppedCount(), is(2L));
+        assertThat(queue.flush(3, this::write), is(true));
+        assertThat(writtenTimes(), is(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)));
+        assertThat(Files.exists(spillFile), is(false));
+    }
+
+    @Test
+    void pendingPointsAreKeptAcrossRestarts() {
+        Path spillFile = tempDir.resolve("influxdb.spill");
+        InfluxDBWriteQueue queue = new InfluxDBWriteQueue(4, spillFile);
+        for (int i = 0; i < 6; i++) {
+            queue.offer(point(i));
+        }
+        queue.flush(2, points -> false);
+        assertThat(queue.close(), is(0));
+
+        InfluxDBWriteQueue restarted = new InfluxDBWriteQueue(4, spillFile);
+        assertThat(restarted.getSpilledCount(), is(6L));
+        restarted.offer(point(6));
+        assertThat(restarted.flush(4, this::write), is(true));
+        assertThat(writtenTimes(), is(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L)));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.influxdb.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link InfluxLineProtocolEncoder}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class InfluxLineProtocolEncoderTest {
+    private static final Instant TIME = Instant.ofEpochMilli(1700000000123L);
+
+    private final InfluxLineProtocolEncoder encoder = new InfluxLineProtocolEncoder(false);
+
+    @Test
+    void valuesAreEncodedWithTheirType() {
+        List<InfluxPoint> points = List.of( //
+                InfluxPoint.newBuilder("decimal").withTime(TIME).withValue(new BigDecimal("21.50")).build(),
+                InfluxPoint.newBuilder("switch").withTime(TIME).withValue(1).build(),
+                InfluxPoint.newBuilder("double").withTime(TIME).withValue(0.5).build(),
+                InfluxPoint.newBuilder("bool").withTime(TIME).withValue(true).build(),
+                InfluxPoint.newBuilder("string").withTime(TIME).withValue("say \"hi\" \\o/").build());
+
+        assertThat(encoder.encode(points), is("decimal value=21.50 1700000000123\n" //
+                + "switch value=1i 1700000000123\n" //
+                + "double value=0.5 1700000000123\n" //
+                + "bool value=true 1700000000123\n" //
+                + "string value=\"say \\\"hi\\\" \\\\o/\" 1700000000123\n"));
+    }
+
+    @Test
+    void namesAndTagsAreEscapedAndSorted() {
+        InfluxPoint point = InfluxPoint.newBuilder("living room,temp").withTime(TIME).withValue(new BigDecimal(1))
+                .withTag("item", "Living_Temp").withTag("label", "a=b c").withTag("category", "").build();
+
+        assertThat(encoder.encode(List.of(point)),
+                is("living\\ room\\,temp,item=Living_Temp,label=a\\=b\\ c value=1 1700000000123\n"));
+    }
+
+    @Test
+    void pointsThatCannotBeEncodedAreSkipped() {
+        List<InfluxPoint> points = List.of( //
+                InfluxPoint.newBuilder("nan").withTime(TIME).withValue(Double.NaN).build(),
+                InfluxPoint.newBuilder("valid").withTime(TIME).withValue(2L).build());
+
+        assertThat(encoder.encode(points), is("valid value=2i 1700000000123\n"));
+    }
+
+    @Test
+    void nullValuesAreSkippedOrWrittenAsString() {
+        List<InfluxPoint> points = List.of(InfluxPoint.newBuilder("undef").withTime(TIME).build(),
+                InfluxPoint.newBuilder("valid").withTime(TIME).withValue(2L).build());
+
+        assertThat(encoder.encode(points), is("valid value=2i 1700000000123\n"));
+        assertThat(new InfluxLineProtocolEncoder(true).encode(points),
+                is("undef value=\"null\" 1700000000123\nvalid value=2i 1700000000123\n"));
+    }
+}
@@ -14,6 +14,7 @@ package org.openhab.persistence.inmemory.internal;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
@@ -50,6 +51,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This is the implementation of the volatile {@link PersistenceService}.
+ * <p />
+ * Items that persist {@link org.openhab.core.library.types.DecimalType}s or
+ * {@link org.openhab.core.library.types.QuantityType}s are kept in a {@link NumericTimeSeries}, all other items keep
+ * their states as entries of a sorted set.
  *
  * @author Jan N. Klug - Initial contribution
  */
@@ -86,9 +91,7 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             Lock lock = persistItem.lock();
             lock.lock();
             try {
-                while (persistItem.database().size() > maxEntries) {
-                    persistItem.database().pollFirst();
-                }
+                trim(persistItem);
             } finally {
                 lock.unlock();
             }
@@ -151,8 +154,19 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
         Lock lock = persistItem.lock();
         lock.lock();
         try {
-            List<PersistEntry> toRemove = persistItem.database().stream().filter(e -> applies(e, filter)).toList();
-            toRemove.forEach(persistItem.database()::remove);
+            if (persistItem.numeric() instanceof NumericTimeSeries numeric) {
+                int from = numericIndexFrom(numeric, filter);
+                int to = numericIndexTo(numeric, filter);
+                if (filter.getState() == null) {
+                    numeric.removeIf(from, to, i -> true);
+                } else {
+                    numeric.removeIf(from, to, i -> appliesState(numeric.state(i), filter));
+                }
+            } else {
+                List<PersistEntry> toRemove = persistItem.database().stream().filter(e -> applies(e, filter))
+                        .toList();
+                toRemove.forEach(persistItem.database()::remove);
+            }
         } finally {
             lock.unlock();
         }
@@ -179,6 +193,10 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
                 : Comparator.comparing(PersistEntry::timestamp).reversed();
 
         try {
+            NumericTimeSeries numeric = persistItem.numeric();
+            if (numeric != null) {
+                return queryNumeric(itemName, numeric, filter);
+            }
             return persistItem.database().stream().filter(e -> applies(e, filter)).sorted(comparator)
                     .map(e -> toHistoricItem(itemName, e)).toList();
         } finally {
@@ -192,14 +210,55 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
         return List.of(PersistenceStrategy.Globals.FORECAST);
     }
 
+    private List<HistoricItem> queryNumeric(String itemName, NumericTimeSeries numeric, FilterCriteria filter) {
+        int from = numericIndexFrom(numeric, filter);
+        int to = numericIndexTo(numeric, filter);
+        boolean ascending = filter.getOrdering() == FilterCriteria.Ordering.ASCENDING;
+        List<HistoricItem> result = new ArrayList<>(Math.max(0, to - from));
+        for (int n = 0; n < to - from; n++) {
+            int index = ascending ? from + n : to - 1 - n;
+            State state = numeric.state(index);
+            if (appliesState(state, filter)) {
+                result.add(toHistoricItem(itemName, new PersistEntry(numeric.timestamp(index), state)));
+            }
+        }
+        return result;
+    }
+
+    private int numericIndexFrom(NumericTimeSeries numeric, FilterCriteria filter) {
+        ZonedDateTime beginDate = filter.getBeginDate();
+        if (beginDate == null) {
+            return 0;
+        }
+        return numeric.indexFrom(NumericTimeSeries.toEpochNanos(beginDate.toInstant()));
+    }
+
+    private int numericIndexTo(NumericTimeSeries numeric, FilterCriteria filter) {
+        ZonedDateTime endDate = filter.getEndDate();
+        return endDate == null ? numeric.size()
+                : numeric.indexTo(NumericTimeSeries.toEpochNanos(endDate.toInstant()));
+    }
+
     private PersistenceItemInfo toItemInfo(Map.Entry<String, PersistItem> itemEntry) {
         Lock lock = itemEntry.getValue().lock();
         lock.lock();
         try {
             String name = itemEntry.getKey();
-            Integer count = itemEntry.getValue().database().size();
-            Instant earliest = itemEntry.getValue().database().first().timestamp().toInstant();
-            Instant latest = itemEntry.getValue().database.last().timestamp.toInstant();
+            NumericTimeSeries numeric = itemEntry.getValue().numeric();
+            Integer count;
+            @Nullable
+            Instant earliest;
+            @Nullable
+            Instant latest;
+            if (numeric != null) {
+                count = numeric.size();
+                earliest = count > 0 ? numeric.instant(0) : null;
+                latest = count > 0 ? numeric.instant(count - 1) : null;
+            } else {
+                count = itemEntry.getValue().database().size();
+                earliest = itemEntry.getValue().database().first().timestamp().toInstant();
+                latest = itemEntry.getValue().database().last().timestamp().toInstant();
+            }
             return new PersistenceItemInfo() {
 
                 @Override
@@ -214,12 +273,12 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
 
                 @Override
                 public @Nullable Date getEarliest() {
-                    return Date.from(earliest);
+                    return earliest != null ? Date.from(earliest) : null;
                 }
 
                 @Override
                 public @Nullable Date getLatest() {
-                    return Date.from(latest);
+                    return latest != null ? Date.from(latest) : null;
                 }
             };
         } finally {
@@ -251,24 +310,48 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
             return;
         }
 
-        PersistItem persistItem = Objects.requireNonNull(persistMap.computeIfAbsent(itemName,
-                k -> new PersistItem(new TreeSet<>(Comparator.comparing(PersistEntry::timestamp)),
-                        new ReentrantLock())));
+        PersistItem persistItem = Objects.requireNonNull(persistMap.computeIfAbsent(itemName, k -> new PersistItem()));
 
         Lock lock = persistItem.lock();
         lock.lock();
         try {
-            persistItem.database().add(new PersistEntry(timestamp, state));
-
-            while (persistItem.database.size() > maxEntries) {
-                persistItem.database().pollFirst();
+            NumericTimeSeries numeric = persistItem.numeric();
+            if (numeric == null && persistItem.database().isEmpty()) {
+                numeric = NumericTimeSeries.forState(timestamp, state);
+                persistItem.setNumeric(numeric);
+            }
+            if (numeric != null && !numeric.add(timestamp, state)) {
+                // the state can't be stored without loss in the series, keep all values as states from now on
+                for (int i = 0; i < numeric.size(); i++) {
+                    persistItem.database().add(new PersistEntry(numeric.timestamp(i), numeric.state(i)));
+                }
+                persistItem.setNumeric(null);
+                numeric = null;
             }
+            if (numeric == null) {
+                persistItem.database().add(new PersistEntry(timestamp, state));
+            }
+            trim(persistItem);
         } finally {
             lock.unlock();
         }
     }
 
-    @SuppressWarnings("unchecked")
+    private void trim(PersistItem persistItem) {
+        long maxEntries = this.maxEntries;
+        if (maxEntries <= 0) {
+            return;
+        }
+        NumericTimeSeries numeric = persistItem.numeric();
+        if (numeric != null) {
+            numeric.trim(maxEntries);
+        } else {
+            while (persistItem.database().size() > maxEntries) {
+                persistItem.database().pollFirst();
+            }
+        }
+    }
+
     private boolean applies(PersistEntry entry, FilterCriteria filter) {
         ZonedDateTime beginDate = filter.getBeginDate();
         if (beginDate != null && beginDate.isAfter(entry.timestamp())) {
@@ -278,7 +361,11 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
         if (endDate != null && endDate.isBefore(entry.timestamp())) {
             return false;
         }
+        return appliesState(entry.state(), filter);
+    }
 
+    @SuppressWarnings("unchecked")
+    private boolean appliesState(State state, FilterCriteria filter) {
         State refState = filter.getState();
         FilterCriteria.Operator operator = filter.getOperator();
         if (refState == null) {
@@ -287,14 +374,14 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
         }
 
         if (operator == FilterCriteria.Operator.EQ) {
-            return entry.state().equals(refState);
+            return state.equals(refState);
         }
 
         if (operator == FilterCriteria.Operator.NEQ) {
-            return !entry.state().equals(refState);
+            return !state.equals(refState);
         }
 
-        if (entry.state() instanceof Comparable comparableState && entry.state.getClass().equals(refState.getClass())) {
+        if (state instanceof Comparable comparableState && state.getClass().equals(refState.getClass())) {
             if (operator == FilterCriteria.Operator.GT) {
                 return comparableState.compareTo(refState) > 0;
             }
@@ -316,6 +403,25 @@ public class InMemoryPersistenceService implements ModifiablePersistenceService
     private record PersistEntry(ZonedDateTime timestamp, State state) {
     }
 
-    private record PersistItem(TreeSet<PersistEntry> database, Lock lock) {
+    private static class PersistItem {
+        private final TreeSet<PersistEntry> database = new TreeSet<>(Comparator.comparing(PersistEntry::timestamp));
+        private final Lock lock = new ReentrantLock();
+        private @Nullable NumericTimeSeries numeric;
+
+        public TreeSet<PersistEntry> database() {
+            return database;
+        }
+
+        public Lock lock() {
+            return lock;
+        }
+
+        public @Nullable NumericTimeSeries numeric() {
+            return numeric;
+        }
+
+        public void setNumeric(@Nullable NumericTimeSeries numeric) {
+            this.numeric = numeric;
+        }
     }
 }
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.inmemory.internal;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.types.State;
+
+/**
+ * The {@link NumericTimeSeries} stores the values of a number item as parallel arrays of epoch nanoseconds, unscaled
+ * values and scales, sorted by timestamp. Appending in timestamp order, removing the oldest values and finding the
+ * values in a time range do not create any objects; states are only created when values are read.
+ * <p />
+ * Values and timestamps are kept without any loss: all values are {@link DecimalType}s or all values are
+ * {@link QuantityType}s of the same unit, their unscaled value fits into a long, and all timestamps are in the same
+ * zone. A value that does not meet this is rejected, so the caller can keep it as a state instead. The series is not
+ * thread-safe.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class NumericTimeSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final @Nullable Unit<?> unit;
+    private final ZoneId zone;
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private long[] unscaledValues = new long[INITIAL_CAPACITY];
+    private int[] scales = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private NumericTimeSeries(@Nullable Unit<?> unit, ZoneId zone) {
+        this.unit = unit;
+        this.zone = zone;
+    }
+
+    /**
+     * Create a series for states like the given state.
+     *
+     * @param timestamp the timestamp of the first state
+     * @param state the first state
+     * @return the series or <code>null</code> if the state can't be stored in a numeric series
+     */
+    static @Nullable NumericTimeSeries forState(ZonedDateTime timestamp, State state) {
+        if (state.getClass() == DecimalType.class) {
+            return new NumericTimeSeries(null, timestamp.getZone());
+        } else if (state instanceof QuantityType<?> quantity && state.getClass() == QuantityType.class) {
+            return new NumericTimeSeries(quantity.getUnit(), timestamp.getZone());
+        }
+        return null;
+    }
+
+    /**
+     * Convert an instant to epoch nanoseconds, limited to the range of a long.
+     */
+    static long toEpochNanos(Instant instant) {
+        try {
+            return exactEpochNanos(instant);
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static long exactEpochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    /**
+     * Add a value. A value with the same timestamp as an existing value replaces it.
+     *
+     * @param timestamp the timestamp
+     * @param state the value
+     * @return <code>false</code> if the value or timestamp can't be stored without loss in this series
+     */
+    boolean add(ZonedDateTime timestamp, State state) {
+        BigDecimal value;
+        Unit<?> unit = this.unit;
+        if (unit == null && state.getClass() == DecimalType.class) {
+            value = ((DecimalType) state).toBigDecimal();
+        } else if (unit != null && state instanceof QuantityType<?> quantity && state.getClass() == QuantityType.class
+                && unit.equals(quantity.getUnit())) {
+            value = quantity.toBigDecimal();
+        } else {
+            return false;
+        }
+        if (value.unscaledValue().bitLength() > 63 || !zone.equals(timestamp.getZone())) {
+            return false;
+        }
+        long nanos;
+        try {
+            nanos = exactEpochNanos(timestamp.toInstant());
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        long unscaledValue = value.unscaledValue().longValue();
+        int scale = value.scale();
+
+        if (size == 0 || nanos > timestamps[size - 1]) {
+            ensureCapacity(size + 1);
+            set(size, nanos, unscaledValue, scale);
+            size++;
+            return true;
+        }
+
+        int index = Arrays.binarySearch(timestamps, 0, size, nanos);
+        if (index >= 0) {
+            set(index, nanos, unscaledValue, scale);
+            return true;
+        }
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+        System.arraycopy(unscaledValues, index, unscaledValues, index + 1, size - index);
+        System.arraycopy(scales, index, scales, index + 1, size - index);
+        set(index, nanos, unscaledValue, scale);
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Instant instant(int index) {
+        return Instant.ofEpochSecond(0, timestamps[index]);
+    }
+
+    ZonedDateTime timestamp(int index) {
+        return ZonedDateTime.ofInstant(instant(index), zone);
+    }
+
+    State state(int index) {
+        BigDecimal value = BigDecimal.valueOf(unscaledValues[index], scales[index]);
+        Unit<?> unit = this.unit;
+        return unit == null ? new DecimalType(value) : new QuantityType<>(value, unit);
+    }
+
+    /**
+     * @return the index of the first value at or after the given epoch nanoseconds
+     */
+    int indexFrom(long timestamp) {
+        int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return the index after the last value at or before the given epoch nanoseconds
+     */
+    int indexTo(long timestamp) {
+        int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Remove the oldest values until at most <code>maxEntries</code> values are left.
+     */
+    void trim(long maxEntries) {
+        if (size > maxEntries) {
+            int excess = size - (int) maxEntries;
+            removeRange(0, excess);
+        }
+    }
+
+    /**
+     * Remove the values in the given index range for which the filter returns <code>true</code>.
+     *
+     * @return the number of removed values
+     */
+    int removeIf(int from, int to, IntPredicate filter) {
+        int target = from;
+        for (int i = from; i < to; i++) {
+            if (!filter.test(i)) {
+                set(target, timestamps[i], unscaledValues[i], scales[i]);
+                target++;
+            }
+        }
+        int removed = to - target;
+        if (removed > 0) {
+            removeRange(target, to);
+        }
+        return removed;
+    }
+
+    private void set(int index, long timestamp, long unscaledValue, int scale) {
+        timestamps[index] = timestamp;
+        unscaledValues[index] = unscaledValue;
+        scales[index] = scale;
+    }
+
+    private void removeRange(int from, int to) {
+        System.arraycopy(timestamps, to, timestamps, from, size - to);
+        System.arraycopy(unscaledValues, to, unscaledValues, from, size - to);
+        System.arraycopy(scales, to, scales, from, size - to);
+        size -= to - from;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > timestamps.length) {
+            int newCapacity = Math.max(capacity, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            unscaledValues = Arrays.copyOf(unscaledValues, newCapacity);
+            scales = Arrays.copyOf(scales, newCapacity);
+        }
+    }
+}
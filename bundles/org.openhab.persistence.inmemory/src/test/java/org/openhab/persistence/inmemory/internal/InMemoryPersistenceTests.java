@@ -16,11 +16,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,7 +37,9 @@ import org.openhab.core.items.GenericItem;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
@@ -275,4 +279,97 @@ public class InMemoryPersistenceTests {
 
         // begin date is before first date is already covered by case #1
     }
+
+    @Test
+    public void numericValuesAreStoredInTimestampOrderAndTrimmed() {
+        service.activate(Map.of("maxEntries", 3L));
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start.plusHours(3), new DecimalType(4));
+        service.store(item, start.plusHours(1), new DecimalType(2));
+        service.store(item, start, new DecimalType(1));
+        service.store(item, start.plusHours(2), new DecimalType(3));
+        service.store(item, start.plusHours(2), new DecimalType(3.5));
+
+        filterCriteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+        filterCriteria.setBeginDate(start.plusHours(1));
+        filterCriteria.setEndDate(start.plusHours(2));
+
+        List<Double> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(((DecimalType) h.getState()).doubleValue()));
+
+        // the oldest value has been removed, the value at start + 2h has been replaced
+        assertThat(resultSet, contains(2.0, 3.5));
+    }
+
+    @Test
+    public void quantityValuesKeepTheirUnit() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start, new QuantityType<>(20, SIUnits.METRE));
+        service.store(item, start.plusHours(1), new QuantityType<>("0.5 km"));
+
+        filterCriteria.setOrdering(FilterCriteria.Ordering.DESCENDING);
+
+        List<String> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(h.getState().toFullString()));
+
+        assertThat(resultSet, contains("0.5 km", "20 m"));
+    }
+
+    @Test
+    public void numericValuesKeepPrecisionAndTimestamps() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 123456789, ZoneId.of("Asia/Kolkata"));
+        service.store(item, start, new DecimalType(new BigDecimal("21.50")));
+        service.store(item, start.plusNanos(1), new DecimalType(new BigDecimal("0.12345678901234567891")));
+
+        filterCriteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+        filterCriteria.setBeginDate(start.plusNanos(1));
+
+        List<HistoricItem> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(resultSet::add);
+
+        assertThat(resultSet, hasSize(1));
+        assertThat(resultSet.get(0).getState().toFullString(), is("0.12345678901234567891"));
+        assertThat(resultSet.get(0).getTimestamp(), is(start.plusNanos(1)));
+
+        filterCriteria.setBeginDate(null);
+        resultSet.clear();
+        service.query(filterCriteria).forEach(resultSet::add);
+
+        assertThat(resultSet.get(0).getState().toFullString(), is("21.50"));
+        assertThat(resultSet.get(0).getTimestamp(), is(start));
+    }
+
+    @Test
+    public void nonNumericValueKeepsExistingNumericValues() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        service.store(item, start, new DecimalType(1));
+        service.store(item, start.plusHours(1), new StringType("value"));
+
+        filterCriteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+
+        List<State> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(h.getState()));
+
+        assertThat(resultSet, contains((State) new DecimalType(1), new StringType("value")));
+    }
+
+    @Test
+    public void removeNumericValuesByState() {
+        ZonedDateTime start = ZonedDateTime.of(2020, 12, 1, 12, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 5; i++) {
+            service.store(item, start.plusHours(i), new DecimalType(i));
+        }
+
+        filterCriteria.setState(new DecimalType(2));
+        filterCriteria.setOperator(FilterCriteria.Operator.GTE);
+        service.remove(filterCriteria);
+
+        filterCriteria = new FilterCriteria();
+        filterCriteria.setItemName(ITEM_NAME);
+        filterCriteria.setOrdering(FilterCriteria.Ordering.ASCENDING);
+        List<Integer> resultSet = new ArrayList<>();
+        service.query(filterCriteria).forEach(h -> resultSet.add(((DecimalType) h.getState()).intValue()));
+
+        assertThat(resultSet, contains(0, 1));
+    }
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc;
+
+import java.time.Duration;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.persistence.QueryablePersistenceService;
+
+/**
+ * A {@link QueryablePersistenceService} that can return one value per fixed time bucket instead of every stored value,
+ * e.g. for charts covering long time ranges.
+ * <p />
+ * The persistence actions, charts and REST API of the core only use {@link #query(FilterCriteria)}, so aggregation is
+ * used by callers referencing this service explicitly.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public interface AggregatingPersistenceService extends QueryablePersistenceService {
+
+    /**
+     * Queries the values of an item aggregated per time bucket.
+     * <p />
+     * Buckets are aligned to the Unix epoch and each value carries the start of its bucket as timestamp, except for
+     * {@link AggregationFunction#LAST}, which keeps the original timestamp. Only number items are aggregated, all
+     * other items return their last value per bucket. Paging of the filter is ignored.
+     *
+     * @param filter the item name, time range and ordering to query
+     * @param bucketSize the size of a bucket, at least one second
+     * @param function how the values within a bucket are combined
+     * @return one value per bucket containing values
+     */
+    Iterable<HistoricItem> query(FilterCriteria filter, Duration bucketSize, AggregationFunction function);
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * This enum defines how the values within a time bucket of an aggregated query are combined.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public enum AggregationFunction {
+    /**
+     * Average of all values in the bucket.
+     */
+    AVG,
+    /**
+     * Smallest value in the bucket.
+     */
+    MIN,
+    /**
+     * Largest value in the bucket.
+     */
+    MAX,
+    /**
+     * Most recent value in the bucket, keeping its original timestamp.
+     */
+    LAST
+}
@@ -66,6 +66,12 @@ public class JdbcConfiguration {
 
     private int errReconnectThreshold = 0;
 
+    private int queueSize = 10000;
+    private int batchSize = 100;
+    private int batchInterval = 0;
+    private int writerThreads = 1;
+    private int fetchSize = 1000;
+
     public int timerCount = 0;
     public int time1000Statements = 0;
     public long timer1000 = 0;
@@ -191,6 +197,36 @@ public class JdbcConfiguration {
             logger.debug("JDBC::updateConfig: rebuildTableNames={}", rebuildTableNames);
         }
 
+        String qs = (String) configuration.get("queueSize");
+        if (qs != null && !qs.isBlank() && isNumericPattern.matcher(qs).matches()) {
+            queueSize = Integer.parseInt(qs);
+            logger.debug("JDBC::updateConfig: queueSize={}", queueSize);
+        }
+
+        String bs = (String) configuration.get("batchSize");
+        if (bs != null && !bs.isBlank() && isNumericPattern.matcher(bs).matches()) {
+            batchSize = Integer.parseInt(bs);
+            logger.debug("JDBC::updateConfig: batchSize={}", batchSize);
+        }
+
+        String bi = (String) configuration.get("batchInterval");
+        if (bi != null && !bi.isBlank() && isNumericPattern.matcher(bi).matches()) {
+            batchInterval = Integer.parseInt(bi);
+            logger.debug("JDBC::updateConfig: batchInterval={}", batchInterval);
+        }
+
+        String wt = (String) configuration.get("writerThreads");
+        if (wt != null && !wt.isBlank() && isNumericPattern.matcher(wt).matches()) {
+            writerThreads = Integer.parseInt(wt);
+            logger.debug("JDBC::updateConfig: writerThreads={}", writerThreads);
+        }
+
+        String fs = (String) configuration.get("fetchSize");
+        if (fs != null && !fs.isBlank() && isNumericPattern.matcher(fs).matches()) {
+            fetchSize = Integer.parseInt(fs);
+            logger.debug("JDBC::updateConfig: fetchSize={}", fetchSize);
+        }
+
         // undocumented
         String ac = (String) configuration.get("maximumPoolSize");
         if (ac != null && !ac.isBlank()) {
@@ -404,6 +440,54 @@ public class JdbcConfiguration {
         return tableIdDigitCount;
     }
 
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchInterval() {
+        return batchInterval;
+    }
+
+    /**
+     * Returns the number of rows fetched at a time by streamed queries. Streaming keeps a connection busy while the
+     * result is iterated, so it is disabled if the pool only has a single connection.
+     *
+     * @return fetch size, or 0 if query results are to be loaded at once
+     */
+    public int getFetchSize() {
+        return getMaximumPoolSize() > 1 ? Math.max(0, fetchSize) : 0;
+    }
+
+    /**
+     * Returns the number of writer threads, limited so that at least one pooled connection is left for queries.
+     *
+     * @return number of writer threads
+     */
+    public int getWriterThreads() {
+        return Math.max(1, Math.min(writerThreads, getMaximumPoolSize() - 1));
+    }
+
+    /**
+     * Returns the configured maximum size of the connection pool, defaulting to the HikariCP default.
+     *
+     * @return maximum number of pooled connections
+     */
+    public int getMaximumPoolSize() {
+        String maximumPoolSize = dBDAO.databaseProps.getProperty("maximumPoolSize");
+        if (maximumPoolSize != null) {
+            try {
+                return Integer.parseInt(maximumPoolSize.trim());
+            } catch (NumberFormatException e) {
+                logger.debug("JDBC::getMaximumPoolSize: invalid maximumPoolSize '{}'", maximumPoolSize);
+            }
+        }
+        return 10;
+    }
+
     public JdbcBaseDAO getDBDAO() {
         return dBDAO;
     }
@@ -12,32 +12,50 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
 import java.sql.SQLInvalidAuthorizationSpecException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.measure.Quantity;
+import javax.measure.Unit;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemUtil;
+import org.openhab.core.library.items.NumberItem;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceItemInfo;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.AggregationFunction;
+import org.openhab.persistence.jdbc.internal.db.JdbcBaseDAO;
 import org.openhab.persistence.jdbc.internal.dto.Column;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
+import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.internal.dto.JdbcPersistenceItemInfo;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
+import org.openhab.persistence.jdbc.internal.utils.ResultSetIterable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,10 +74,10 @@ public class JdbcMapper {
     private final TimeZoneProvider timeZoneProvider;
 
     // Error counter - used to reconnect to database on error
-    protected int errCnt;
+    protected volatile int errCnt;
     protected boolean initialized = false;
     protected @NonNullByDefault({}) JdbcConfiguration conf;
-    protected final Map<String, String> itemNameToTableNameMap = new HashMap<>();
+    protected final Map<String, String> itemNameToTableNameMap = new ConcurrentHashMap<>();
     protected @NonNullByDefault({}) NamingStrategy namingStrategy;
     private long afterAccessMin = 10000;
     private long afterAccessMax = 0;
@@ -225,6 +243,16 @@ public class JdbcMapper {
         errCnt = 0;
     }
 
+    protected int storeItemValues(Item item, List<ItemStateVO> states) throws JdbcException {
+        logger.debug("JDBC::storeItemValues: item={} count={}", item, states.size());
+        String tableName = getTable(item);
+        long timerStart = System.currentTimeMillis();
+        int stored = conf.getDBDAO().doStoreItemValues(tableName, states);
+        logTime("storeItemValues", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+        return stored;
+    }
+
     public long getRowCount(String tableName) throws JdbcSQLException {
         return conf.getDBDAO().doGetRowCount(tableName);
     }
@@ -242,6 +270,116 @@ public class JdbcMapper {
         return result;
     }
 
+    /**
+     * Opens a cursor over the item values matching the filter. The cursor holds a pooled connection until it has
+     * been read to the end, so the caller must close it.
+     *
+     * @param errorHandler receives the errors of reading rows
+     * @return the cursor
+     * @throws JdbcSQLException if the query fails
+     */
+    protected ResultSetIterable<HistoricItem> getHistItemFilterQueryCursor(FilterCriteria filter,
+            int numberDecimalcount, String table, Item item, int fetchSize, Consumer<SQLException> errorHandler)
+            throws JdbcSQLException {
+        logger.debug(
+                "JDBC::getHistItemFilterQueryCursor filter='{}' numberDecimalcount='{}' table='{}' item='{}' fetchSize='{}'",
+                true, numberDecimalcount, table, item, fetchSize);
+        long timerStart = System.currentTimeMillis();
+        ResultSetIterable<HistoricItem> result = conf.getDBDAO().doGetHistItemFilterQueryCursor(item, filter,
+                numberDecimalcount, table, item.getName(), timeZoneProvider.getTimeZone(), fetchSize, errorHandler);
+        logTime("getHistItemFilterQueryCursor", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+        return result;
+    }
+
+    protected List<HistoricItem> getHistItemAggregateQuery(FilterCriteria filter, int numberDecimalcount,
+            String table, Item item, Duration bucketSize, AggregationFunction function) throws JdbcSQLException {
+        logger.debug(
+                "JDBC::getHistItemAggregateQuery filter='{}' numberDecimalcount='{}' table='{}' item='{}' bucketSize='{}' function='{}'",
+                true, numberDecimalcount, table, item, bucketSize, function);
+        long timerStart = System.currentTimeMillis();
+        List<HistoricItem> result = conf.getDBDAO().doGetHistItemAggregateQuery(item, filter, numberDecimalcount,
+                table, item.getName(), bucketSize, function, timeZoneProvider.getTimeZone());
+        if (result == null) {
+            // database cannot bucket by time, so aggregate the raw values here
+            FilterCriteria rawFilter = new FilterCriteria().setItemName(filter.getItemName())
+                    .setBeginDate(filter.getBeginDate()).setEndDate(filter.getEndDate())
+                    .setOrdering(Ordering.ASCENDING);
+            List<HistoricItem> raw = conf.getDBDAO().doGetHistItemFilterQuery(item, rawFilter, numberDecimalcount,
+                    table, item.getName(), timeZoneProvider.getTimeZone());
+            result = aggregate(raw, item, bucketSize, function, numberDecimalcount, filter.getOrdering());
+        }
+        logTime("getHistItemAggregateQuery", timerStart, System.currentTimeMillis());
+        errCnt = 0;
+        return result;
+    }
+
+    /**
+     * Aggregates raw values per time bucket, for databases that cannot bucket by time. The result matches the
+     * aggregation in SQL: only number items are aggregated, with their values rounded like in the database.
+     */
+    static List<HistoricItem> aggregate(List<HistoricItem> items, Item item, Duration bucketSize,
+            AggregationFunction function, int numberDecimalcount, Ordering ordering) {
+        AggregationFunction itemFunction = JdbcBaseDAO.itemAggregationFunction(item, function);
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem numberItem ? numberItem.getUnit() : null;
+        long bucketMillis = Math.max(1, bucketSize.toSeconds()) * 1000;
+        List<HistoricItem> result = new ArrayList<>();
+        List<HistoricItem> bucketItems = new ArrayList<>();
+        long currentBucket = 0;
+        for (HistoricItem historicItem : items) {
+            long bucket = Math.floorDiv(historicItem.getInstant().toEpochMilli(), bucketMillis);
+            if (!bucketItems.isEmpty() && bucket != currentBucket) {
+                result.add(aggregateBucket(bucketItems, currentBucket * bucketMillis, itemFunction, unit,
+                        numberDecimalcount));
+                bucketItems.clear();
+            }
+            currentBucket = bucket;
+            bucketItems.add(historicItem);
+        }
+        if (!bucketItems.isEmpty()) {
+            result.add(
+                    aggregateBucket(bucketItems, currentBucket * bucketMillis, itemFunction, unit, numberDecimalcount));
+        }
+        if (ordering == Ordering.DESCENDING) {
+            Collections.reverse(result);
+        }
+        return result;
+    }
+
+    private static HistoricItem aggregateBucket(List<HistoricItem> items, long bucketStart,
+            AggregationFunction function, @Nullable Unit<? extends Quantity<?>> unit, int numberDecimalcount) {
+        HistoricItem last = items.get(items.size() - 1);
+        if (function == AggregationFunction.LAST) {
+            return last;
+        }
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int count = 0;
+        for (HistoricItem item : items) {
+            if (item.getState() instanceof Number number) {
+                double value = number.doubleValue();
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                count++;
+            }
+        }
+        if (count == 0) {
+            return last;
+        }
+        double value = switch (function) {
+            case MIN -> min;
+            case MAX -> max;
+            default -> sum / count;
+        };
+        if (numberDecimalcount > -1) {
+            value = BigDecimal.valueOf(value).setScale(numberDecimalcount, RoundingMode.HALF_UP).doubleValue();
+        }
+        return new JdbcHistoricItem(last.getName(), JdbcBaseDAO.aggregatedState(value, unit),
+                Instant.ofEpochMilli(bucketStart));
+    }
+
     protected void deleteItemValues(FilterCriteria filter, String table) throws JdbcSQLException {
         logger.debug("JDBC::deleteItemValues filter='{}' table='{}' itemName='{}'", true, table, filter.getItemName());
         long timerStart = System.currentTimeMillis();
@@ -287,7 +425,7 @@ public class JdbcMapper {
         conf.setDbConnected(false);
     }
 
-    protected boolean checkDBAccessability() {
+    protected synchronized boolean checkDBAccessability() {
         // Check if connection is valid
         if (initialized) {
             return true;
@@ -353,7 +491,7 @@ public class JdbcMapper {
         }
     }
 
-    protected String getTable(Item item) throws JdbcException {
+    protected synchronized String getTable(Item item) throws JdbcException {
         String itemName = item.getName();
         if (!initialized) {
             throw new JdbcException("Not initialized, unable to find table for item " + itemName);
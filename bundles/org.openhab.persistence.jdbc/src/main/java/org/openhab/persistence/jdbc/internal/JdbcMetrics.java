@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.metrics.AddonMetrics;
+import org.openhab.io.metrics.MetricsMeter;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Publishes the state of the {@link JdbcStoreQueue} through the {@link AddonMetrics} of the metrics service.
+ * <p />
+ * The metrics service is optional: this component is only activated if it is installed, and only this class refers to
+ * its package, so the persistence service runs without it.
+ *
+ * @author Agent - Initial contribution
+ */
+@Component(service = JdbcMetrics.class)
+@NonNullByDefault
+public class JdbcMetrics {
+    static final String METRIC_STATES = "openhab.persistence.jdbc.states";
+    static final String METRIC_FLUSH_LATENCY = "openhab.persistence.jdbc.flush.latency";
+    static final String TAG_RESULT = "result";
+    static final String TAG_STATISTIC = "statistic";
+
+    private final List<MetricsMeter> meters;
+
+    private volatile @Nullable JdbcStoreQueue storeQueue;
+
+    @Activate
+    public JdbcMetrics(final @Reference AddonMetrics addonMetrics) {
+        meters = List.of(
+                addonMetrics.persistenceQueueGauge(JdbcPersistenceServiceConstants.SERVICE_ID, this,
+                        metrics -> metrics.read(JdbcStoreQueue::getQueueSize)),
+                addonMetrics.gauge(METRIC_STATES, this, metrics -> metrics.read(JdbcStoreQueue::getWrittenCount),
+                        TAG_RESULT, "written"),
+                addonMetrics.gauge(METRIC_STATES, this, metrics -> metrics.read(JdbcStoreQueue::getDroppedCount),
+                        TAG_RESULT, "dropped"),
+                addonMetrics.gauge(METRIC_FLUSH_LATENCY, this,
+                        metrics -> metrics.read(JdbcStoreQueue::getLastFlushLatency), TAG_STATISTIC, "last"),
+                addonMetrics.gauge(METRIC_FLUSH_LATENCY, this,
+                        metrics -> metrics.read(JdbcStoreQueue::getAverageFlushLatency), TAG_STATISTIC, "average"));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        meters.forEach(MetricsMeter::remove);
+    }
+
+    /**
+     * Set the write queue to read the metrics from.
+     *
+     * @param storeQueue the queue, or null if the persistence service is not active
+     */
+    public void setStoreQueue(@Nullable JdbcStoreQueue storeQueue) {
+        this.storeQueue = storeQueue;
+    }
+
+    private double read(ToDoubleFunction<JdbcStoreQueue> valueFunction) {
+        JdbcStoreQueue storeQueue = this.storeQueue;
+        return storeQueue == null ? 0 : valueFunction.applyAsDouble(storeQueue);
+    }
+}
@@ -12,6 +12,8 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,13 +23,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
-import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.GroupItem;
@@ -43,17 +42,23 @@ import org.openhab.core.persistence.QueryablePersistenceService;
 import org.openhab.core.persistence.strategy.PersistenceStrategy;
 import org.openhab.core.types.State;
 import org.openhab.core.types.UnDefType;
+import org.openhab.persistence.jdbc.AggregatingPersistenceService;
+import org.openhab.persistence.jdbc.AggregationFunction;
 import org.openhab.persistence.jdbc.internal.db.JdbcBaseDAO;
 import org.openhab.persistence.jdbc.internal.dto.Column;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
+import org.openhab.persistence.jdbc.internal.utils.ResultSetIterable;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,18 +69,21 @@ import org.slf4j.LoggerFactory;
  * @author Kai Kreuzer - Migration to 3.x
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class,
-        QueryablePersistenceService.class }, configurationPid = "org.openhab.jdbc", //
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        AggregatingPersistenceService.class }, configurationPid = "org.openhab.jdbc", //
         property = Constants.SERVICE_PID + "=org.openhab.jdbc")
 @ConfigurableService(category = "persistence", label = "JDBC Persistence Service", description_uri = JdbcPersistenceServiceConstants.CONFIG_URI)
-public class JdbcPersistenceService extends JdbcMapper implements ModifiablePersistenceService {
+public class JdbcPersistenceService extends JdbcMapper
+        implements ModifiablePersistenceService, AggregatingPersistenceService {
 
     private final Logger logger = LoggerFactory.getLogger(JdbcPersistenceService.class);
 
     private final ItemRegistry itemRegistry;
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
-            new NamedThreadFactory(JdbcPersistenceServiceConstants.SERVICE_ID));
+    private static final long STORE_QUEUE_SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private volatile @Nullable JdbcStoreQueue storeQueue;
+    private volatile @Nullable JdbcMetrics metrics;
 
     @Activate
     public JdbcPersistenceService(final @Reference ItemRegistry itemRegistry,
@@ -98,6 +106,14 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     public void activate(BundleContext bundleContext, Map<Object, Object> configuration) {
         logger.debug("JDBC::activate: persistence service activated");
         updateConfig(configuration);
+        JdbcStoreQueue storeQueue = new JdbcStoreQueue(this::writeStates, conf.getQueueSize(), conf.getBatchSize(),
+                conf.getBatchInterval(), conf.getWriterThreads());
+        storeQueue.start();
+        this.storeQueue = storeQueue;
+        JdbcMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.setStoreQueue(storeQueue);
+        }
     }
 
     /**
@@ -120,6 +136,15 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("JDBC::deactivate:  persistence bundle stopping. Disconnecting from database. reason={}", reason);
+        JdbcStoreQueue storeQueue = this.storeQueue;
+        if (storeQueue != null) {
+            storeQueue.stop(STORE_QUEUE_SHUTDOWN_TIMEOUT_MS);
+            this.storeQueue = null;
+        }
+        JdbcMetrics metrics = this.metrics;
+        if (metrics != null) {
+            metrics.setStoreQueue(null);
+        }
         // closeConnection();
         initialized = false;
     }
@@ -137,48 +162,73 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
     @Override
     public void store(Item item) {
-        scheduler.execute(() -> internalStore(item, null, item.getState()));
+        internalStore(item, null, item.getState());
     }
 
     @Override
     public void store(Item item, @Nullable String alias) {
         // alias is not supported
-        scheduler.execute(() -> internalStore(item, null, item.getState()));
+        internalStore(item, null, item.getState());
     }
 
     @Override
     public void store(Item item, ZonedDateTime date, State state) {
-        scheduler.execute(() -> internalStore(item, date, state));
+        internalStore(item, date, state);
     }
 
     @Override
     public void store(Item item, ZonedDateTime date, State state, @Nullable String alias) {
         // alias is not supported
-        scheduler.execute(() -> internalStore(item, date, state));
+        internalStore(item, date, state);
     }
 
-    private synchronized void internalStore(Item item, @Nullable ZonedDateTime date, State state) {
+    private void internalStore(Item item, @Nullable ZonedDateTime date, State state) {
         // Do not store undefined/uninitialized data
         if (state instanceof UnDefType) {
             logger.debug("JDBC::store: ignore Item '{}' because it is UnDefType", item.getName());
             return;
         }
-        if (!checkDBAccessability()) {
-            logger.warn(
-                    "JDBC::store: No connection to database. Cannot persist state '{}' for item '{}'! Will retry connecting to database when error count:{} equals errReconnectThreshold:{}",
-                    state, item, errCnt, conf.getErrReconnectThreshold());
+        JdbcStoreQueue storeQueue = this.storeQueue;
+        if (storeQueue == null) {
+            logger.debug("JDBC::store: service not active, ignore Item '{}'", item.getName());
             return;
         }
-        try {
-            long timerStart = System.currentTimeMillis();
-            storeItemValue(item, state, date);
-            if (logger.isDebugEnabled()) {
-                logger.debug("JDBC: Stored item '{}' as '{}' in SQL database at {} in {} ms.", item.getName(), state,
-                        new Date(), System.currentTimeMillis() - timerStart);
-            }
-        } catch (JdbcException e) {
-            logger.warn("JDBC::store: Unable to store item", e);
+        // the timestamp is taken now from the clock of this host, not by the database, as the state is written with
+        // some delay
+        storeQueue.offer(new ItemStateVO(item, state, date != null ? date : ZonedDateTime.now()));
+    }
+
+    private int writeStates(Item item, List<ItemStateVO> states) throws JdbcException {
+        if (!checkDBAccessability()) {
+            throw new JdbcException("No connection to database. Cannot persist " + states.size()
+                    + " state(s) for item '" + item.getName() + "'! Will retry connecting to database when error count:"
+                    + errCnt + " equals errReconnectThreshold:" + conf.getErrReconnectThreshold());
         }
+        long timerStart = System.currentTimeMillis();
+        int stored = storeItemValues(item, states);
+        if (logger.isDebugEnabled()) {
+            logger.debug("JDBC: Stored {} of {} state(s) of item '{}' in SQL database at {} in {} ms.", stored,
+                    states.size(), item.getName(), new Date(), System.currentTimeMillis() - timerStart);
+        }
+        return stored;
+    }
+
+    /**
+     * Get the write-behind queue, if the service is active.
+     */
+    public @Nullable JdbcStoreQueue getStoreQueue() {
+        return storeQueue;
+    }
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    protected void setMetrics(JdbcMetrics metrics) {
+        metrics.setStoreQueue(storeQueue);
+        this.metrics = metrics;
+    }
+
+    protected void unsetMetrics(JdbcMetrics metrics) {
+        metrics.setStoreQueue(null);
+        this.metrics = null;
     }
 
     @Override
@@ -201,36 +251,71 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
             return List.of();
         }
 
-        // Get the item name from the filter
-        // Also get the Item object so we can determine the type
-        Item item = null;
         String itemName = filter.getItemName();
         if (itemName == null) {
             logger.warn("Item name is missing in filter {}", filter);
             return List.of();
         }
-        logger.debug("JDBC::query: item is {}", itemName);
-        try {
-            item = itemRegistry.getItem(itemName);
-        } catch (ItemNotFoundException e1) {
-            logger.error("JDBC::query: unable to get item for itemName: '{}'. Ignore and give up!", itemName);
+        Item item = getQueryItem(itemName);
+        if (item == null) {
+            return List.of();
+        }
+        String table = itemNameToTableNameMap.get(itemName);
+        if (table == null) {
+            logger.debug("JDBC::query: unable to find table for item with name: '{}', no data in database.", itemName);
             return List.of();
         }
 
-        if (item instanceof GroupItem) {
-            // For Group Item is BaseItem needed to get correct Type of Value.
-            item = GroupItem.class.cast(item).getBaseItem();
-            logger.debug("JDBC::query: item is instanceof GroupItem '{}'", itemName);
-            if (item == null) {
-                logger.debug("JDBC::query: BaseItem of GroupItem is null. Ignore and give up!");
-                return List.of();
+        int fetchSize = conf.getFetchSize();
+        try {
+            long timerStart = System.currentTimeMillis();
+            List<HistoricItem> items;
+            if (fetchSize > 0 && filter.getPageSize() == Integer.MAX_VALUE) {
+                // Unpaged queries may match any number of rows, so they are read in chunks and converted while
+                // reading, without holding a copy of the raw rows. The cursor is closed before returning, as callers
+                // don't close the result.
+                items = new ArrayList<>();
+                List<SQLException> errors = new ArrayList<>(1);
+                try (ResultSetIterable<HistoricItem> rows = getHistItemFilterQueryCursor(filter,
+                        conf.getNumberDecimalcount(), table, item, fetchSize, errors::add)) {
+                    rows.forEach(items::add);
+                }
+                if (!errors.isEmpty()) {
+                    throw new JdbcSQLException(errors.get(0));
+                }
+            } else {
+                items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
             }
-            if (item instanceof GroupItem) {
-                logger.debug("JDBC::query: BaseItem of GroupItem is a GroupItem too. Ignore and give up!");
-                return List.of();
+            if (logger.isDebugEnabled()) {
+                logger.debug("JDBC: Query for item '{}' returned {} rows in {} ms", itemName, items.size(),
+                        System.currentTimeMillis() - timerStart);
             }
+            // Success
+            errCnt = 0;
+            return items;
+        } catch (JdbcSQLException e) {
+            logger.warn("JDBC::query: Unable to query item", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public Iterable<HistoricItem> query(FilterCriteria filter, Duration bucketSize, AggregationFunction function) {
+        if (!checkDBAccessability()) {
+            logger.warn("JDBC::query: database not connected, aggregated query aborted for item '{}'",
+                    filter.getItemName());
+            return List.of();
         }
 
+        String itemName = filter.getItemName();
+        if (itemName == null) {
+            logger.warn("Item name is missing in filter {}", filter);
+            return List.of();
+        }
+        Item item = getQueryItem(itemName);
+        if (item == null) {
+            return List.of();
+        }
         String table = itemNameToTableNameMap.get(itemName);
         if (table == null) {
             logger.debug("JDBC::query: unable to find table for item with name: '{}', no data in database.", itemName);
@@ -239,13 +324,12 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
 
         try {
             long timerStart = System.currentTimeMillis();
-            List<HistoricItem> items = getHistItemFilterQuery(filter, conf.getNumberDecimalcount(), table, item);
+            List<HistoricItem> items = getHistItemAggregateQuery(filter, conf.getNumberDecimalcount(), table, item,
+                    bucketSize, function);
             if (logger.isDebugEnabled()) {
-                logger.debug("JDBC: Query for item '{}' returned {} rows in {} ms", itemName, items.size(),
-                        System.currentTimeMillis() - timerStart);
+                logger.debug("JDBC: Aggregated query for item '{}' returned {} rows in {} ms", itemName,
+                        items.size(), System.currentTimeMillis() - timerStart);
             }
-            // Success
-            errCnt = 0;
             return items;
         } catch (JdbcSQLException e) {
             logger.warn("JDBC::query: Unable to query item", e);
@@ -253,6 +337,38 @@ public class JdbcPersistenceService extends JdbcMapper implements ModifiablePers
         }
     }
 
+    /**
+     * Get the item to query, which is the base item for group items, as it determines the type of the values.
+     *
+     * @param itemName the name of the item
+     * @return the item, or null if it can't be queried
+     */
+    private @Nullable Item getQueryItem(String itemName) {
+        logger.debug("JDBC::query: item is {}", itemName);
+        Item item;
+        try {
+            item = itemRegistry.getItem(itemName);
+        } catch (ItemNotFoundException e1) {
+            logger.error("JDBC::query: unable to get item for itemName: '{}'. Ignore and give up!", itemName);
+            return null;
+        }
+
+        if (item instanceof GroupItem) {
+            // For Group Item is BaseItem needed to get correct Type of Value.
+            item = GroupItem.class.cast(item).getBaseItem();
+            logger.debug("JDBC::query: item is instanceof GroupItem '{}'", itemName);
+            if (item == null) {
+                logger.debug("JDBC::query: BaseItem of GroupItem is null. Ignore and give up!");
+                return null;
+            }
+            if (item instanceof GroupItem) {
+                logger.debug("JDBC::query: BaseItem of GroupItem is a GroupItem too. Ignore and give up!");
+                return null;
+            }
+        }
+        return item;
+    }
+
     public void updateConfig(Map<Object, Object> configuration) {
         logger.debug("JDBC::updateConfig");
 
@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.items.Item;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
+import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
+import org.openhab.persistence.jdbc.internal.utils.MovingAverage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind queue for item states. A bounded queue is drained by a configurable number of writer threads,
+ * each of them collecting up to {@code batchSize} states, grouping them per item and handing each group to
+ * the {@link BatchWriter} in one call. A group that can't be written is retried with an increasing delay, and
+ * dropped when the retries are exhausted.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcStoreQueue {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final int MAX_WRITE_RETRIES = 3;
+    private static final long WRITE_RETRY_DELAY_MS = 1000;
+
+    /**
+     * Writes all states of a single item in one go. A {@link JdbcException} signals that none of them was written,
+     * and the states are written again. States not written otherwise were rejected and are dropped.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        /**
+         * @return the number of states written
+         */
+        int write(Item item, List<ItemStateVO> states) throws JdbcException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcStoreQueue.class);
+
+    private final BlockingQueue<ItemStateVO> queue;
+    private final BatchWriter writer;
+    private final int batchSize;
+    private final long batchIntervalNanos;
+    private final int writerThreads;
+    private final int maxWriteRetries;
+    private final long writeRetryDelayMillis;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final MovingAverage flushLatency = new MovingAverage(100);
+    private volatile long lastFlushLatency = 0;
+
+    private @Nullable ExecutorService executor;
+    private volatile boolean running = false;
+
+    public JdbcStoreQueue(BatchWriter writer, int queueSize, int batchSize, long batchIntervalMillis,
+            int writerThreads) {
+        this(writer, queueSize, batchSize, batchIntervalMillis, writerThreads, MAX_WRITE_RETRIES,
+                WRITE_RETRY_DELAY_MS);
+    }
+
+    JdbcStoreQueue(BatchWriter writer, int queueSize, int batchSize, long batchIntervalMillis, int writerThreads,
+            int maxWriteRetries, long writeRetryDelayMillis) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.batchIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchIntervalMillis));
+        this.writerThreads = Math.max(1, writerThreads);
+        this.maxWriteRetries = Math.max(0, maxWriteRetries);
+        this.writeRetryDelayMillis = Math.max(0, writeRetryDelayMillis);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(writerThreads,
+                new NamedThreadFactory(JdbcPersistenceServiceConstants.SERVICE_ID));
+        for (int i = 0; i < writerThreads; i++) {
+            executor.execute(this::processQueue);
+        }
+        executor.shutdown();
+        this.executor = executor;
+        logger.debug("JDBC::JdbcStoreQueue: started {} writer thread(s), batchSize={}", writerThreads, batchSize);
+    }
+
+    /**
+     * Stops accepting new states and waits for the writer threads to flush what is left in the queue.
+     *
+     * @param timeoutMillis maximum time to wait for pending states to be written
+     */
+    public void stop(long timeoutMillis) {
+        ExecutorService executor;
+        synchronized (this) {
+            running = false;
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                logger.warn("JDBC::JdbcStoreQueue: {} pending state(s) could not be written before shutdown",
+                        queue.size());
+                queue.clear();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds a state to the queue without blocking.
+     *
+     * @param state the state to be written
+     * @return false if the queue is not running or full and the state was dropped
+     */
+    public boolean offer(ItemStateVO state) {
+        if (running && queue.offer(state)) {
+            return true;
+        }
+        long count = dropped.incrementAndGet();
+        if (count == 1 || count % 1000 == 0) {
+            logger.warn(
+                    "JDBC::store: Write queue is full or stopped, dropped state '{}' for item '{}' ({} states dropped in total)",
+                    state.getState(), state.getItem().getName(), count);
+        }
+        return false;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getLastFlushLatency() {
+        return lastFlushLatency;
+    }
+
+    public double getAverageFlushLatency() {
+        synchronized (flushLatency) {
+            return flushLatency.getAverageDouble();
+        }
+    }
+
+    private void processQueue() {
+        List<ItemStateVO> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ItemStateVO first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                if (batchIntervalNanos > 0) {
+                    long deadline = System.nanoTime() + batchIntervalNanos;
+                    while (running && batch.size() < batchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        ItemStateVO next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<ItemStateVO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long timerStart = System.currentTimeMillis();
+        Map<String, List<ItemStateVO>> statesPerItem = new LinkedHashMap<>();
+        for (ItemStateVO state : batch) {
+            statesPerItem.computeIfAbsent(state.getItem().getName(), k -> new ArrayList<>()).add(state);
+        }
+        for (List<ItemStateVO> states : statesPerItem.values()) {
+            write(states);
+        }
+        long latency = System.currentTimeMillis() - timerStart;
+        lastFlushLatency = latency;
+        synchronized (flushLatency) {
+            flushLatency.add(latency);
+        }
+        logger.debug("JDBC::JdbcStoreQueue: flushed {} state(s) of {} item(s) in {} ms, {} pending", batch.size(),
+                statesPerItem.size(), latency, queue.size());
+    }
+
+    private void write(List<ItemStateVO> states) {
+        Item item = states.get(0).getItem();
+        long retryDelay = writeRetryDelayMillis;
+        for (int attempt = 0;; attempt++) {
+            try {
+                int stored = writer.write(item, states);
+                written.addAndGet(stored);
+                if (stored < states.size()) {
+                    dropped.addAndGet(states.size() - stored);
+                }
+                return;
+            } catch (JdbcException e) {
+                if (!running || attempt >= maxWriteRetries) {
+                    logger.warn("JDBC::store: Unable to store {} state(s) of item '{}', dropped them: {}",
+                            states.size(), item.getName(), e.getMessage());
+                    break;
+                }
+                logger.debug("JDBC::store: Unable to store {} state(s) of item '{}', retrying in {} ms: {}",
+                        states.size(), item.getName(), retryDelay, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("JDBC::store: Unexpected error while storing item '{}', dropped {} state(s)",
+                        item.getName(), states.size(), e);
+                break;
+            }
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("JDBC::store: Interrupted while storing item '{}', dropped {} state(s)", item.getName(),
+                        states.size());
+                break;
+            }
+            retryDelay *= 2;
+        }
+        dropped.addAndGet(states.size());
+        if (logger.isDebugEnabled()) {
+            for (ItemStateVO state : states) {
+                logger.debug("JDBC::store: Dropped state '{}' of item '{}' at {}", state.getState(), item.getName(),
+                        state.getDate());
+            }
+        }
+    }
+}
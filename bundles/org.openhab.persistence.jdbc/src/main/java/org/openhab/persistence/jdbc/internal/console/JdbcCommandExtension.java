@@ -12,10 +12,14 @@
  */
 package org.openhab.persistence.jdbc.internal.console;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
@@ -28,12 +32,17 @@ import org.openhab.core.io.console.ConsoleCommandCompleter;
 import org.openhab.core.io.console.StringsCompleter;
 import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
 import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.persistence.PersistenceService;
 import org.openhab.core.persistence.PersistenceServiceRegistry;
+import org.openhab.persistence.jdbc.AggregationFunction;
 import org.openhab.persistence.jdbc.internal.ItemTableCheckEntry;
 import org.openhab.persistence.jdbc.internal.ItemTableCheckEntryStatus;
 import org.openhab.persistence.jdbc.internal.JdbcPersistenceService;
 import org.openhab.persistence.jdbc.internal.JdbcPersistenceServiceConstants;
+import org.openhab.persistence.jdbc.internal.JdbcStoreQueue;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -51,14 +60,19 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
     private static final String CMD_SCHEMA = "schema";
     private static final String CMD_TABLES = "tables";
     private static final String CMD_RELOAD = "reload";
+    private static final String CMD_QUEUE = "queue";
+    private static final String CMD_AGGREGATE = "aggregate";
     private static final String SUBCMD_SCHEMA_CHECK = "check";
     private static final String SUBCMD_SCHEMA_FIX = "fix";
     private static final String SUBCMD_TABLES_LIST = "list";
     private static final String SUBCMD_TABLES_CLEAN = "clean";
     private static final String PARAMETER_ALL = "all";
     private static final String PARAMETER_FORCE = "force";
+    private static final Duration DEFAULT_AGGREGATE_PERIOD = Duration.ofDays(1);
     private static final StringsCompleter CMD_COMPLETER = new StringsCompleter(
-            List.of(CMD_SCHEMA, CMD_TABLES, CMD_RELOAD), false);
+            List.of(CMD_SCHEMA, CMD_TABLES, CMD_RELOAD, CMD_QUEUE, CMD_AGGREGATE), false);
+    private static final StringsCompleter AGGREGATION_FUNCTION_COMPLETER = new StringsCompleter(
+            Stream.of(AggregationFunction.values()).map(f -> f.name().toLowerCase(Locale.ROOT)).toList(), false);
     private static final StringsCompleter SUBCMD_SCHEMA_COMPLETER = new StringsCompleter(
             List.of(SUBCMD_SCHEMA_CHECK, SUBCMD_SCHEMA_FIX), false);
     private static final StringsCompleter SUBCMD_TABLES_COMPLETER = new StringsCompleter(
@@ -74,7 +88,7 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
 
     @Override
     public void execute(String[] args, Console console) {
-        if (args.length < 1 || args.length > 4) {
+        if (args.length < 1 || args.length > 5) {
             printUsage(console);
             return;
         }
@@ -135,6 +149,12 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
         } else if (args.length == 1 && CMD_RELOAD.equalsIgnoreCase(args[0])) {
             reload(persistenceService, console);
             return true;
+        } else if (args.length == 1 && CMD_QUEUE.equalsIgnoreCase(args[0])) {
+            showQueue(persistenceService, console);
+            return true;
+        } else if ((args.length == 4 || args.length == 5) && CMD_AGGREGATE.equalsIgnoreCase(args[0])) {
+            return aggregate(persistenceService, console, args[1], args[2], args[3],
+                    args.length == 5 ? args[4] : null);
         }
         return false;
     }
@@ -252,6 +272,43 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
         console.println("Item index reloaded.");
     }
 
+    private void showQueue(JdbcPersistenceService persistenceService, Console console) {
+        JdbcStoreQueue storeQueue = persistenceService.getStoreQueue();
+        if (storeQueue == null) {
+            console.println("Write queue is not running.");
+            return;
+        }
+        console.println("Queued states:       " + storeQueue.getQueueSize() + "/" + storeQueue.getQueueCapacity());
+        console.println("Written states:      " + storeQueue.getWrittenCount());
+        console.println("Dropped states:      " + storeQueue.getDroppedCount());
+        console.println("Last flush latency:  " + storeQueue.getLastFlushLatency() + " ms");
+        console.println("Avg. flush latency:  " + storeQueue.getAverageFlushLatency() + " ms");
+    }
+
+    private boolean aggregate(JdbcPersistenceService persistenceService, Console console, String itemName,
+            String functionName, String bucketSizeText, @Nullable String periodText) {
+        AggregationFunction function;
+        Duration bucketSize;
+        Duration period;
+        try {
+            function = AggregationFunction.valueOf(functionName.toUpperCase(Locale.ROOT));
+            bucketSize = Duration.parse(bucketSizeText);
+            period = periodText == null ? DEFAULT_AGGREGATE_PERIOD : Duration.parse(periodText);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return false;
+        }
+        ZonedDateTime end = ZonedDateTime.now();
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName(itemName);
+        filter.setBeginDate(end.minus(period));
+        filter.setEndDate(end);
+        filter.setOrdering(Ordering.ASCENDING);
+        for (HistoricItem historicItem : persistenceService.query(filter, bucketSize, function)) {
+            console.println(historicItem.getTimestamp() + "  " + historicItem.getState());
+        }
+        return true;
+    }
+
     @Override
     public List<String> getUsages() {
         return Arrays.asList(buildCommandUsage(CMD_SCHEMA + " " + SUBCMD_SCHEMA_CHECK, "check schema integrity"),
@@ -261,7 +318,10 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
                 buildCommandUsage(
                         CMD_TABLES + " " + SUBCMD_TABLES_CLEAN + " [<itemName>]" + " [" + PARAMETER_FORCE + "]",
                         "clean inconsistent items (remove from index and drop tables)"),
-                buildCommandUsage(CMD_RELOAD, "reload item index/schema"));
+                buildCommandUsage(CMD_RELOAD, "reload item index/schema"),
+                buildCommandUsage(CMD_QUEUE, "show write queue statistics"),
+                buildCommandUsage(CMD_AGGREGATE + " <itemName> <avg|min|max|last> <bucketSize> [<period>]",
+                        "show values aggregated per bucket, e.g. PT15M, for the last period (default P1D)"));
     }
 
     @Override
@@ -278,9 +338,17 @@ public class JdbcCommandExtension extends AbstractConsoleCommandExtension implem
                 return SUBCMD_TABLES_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
             } else if (CMD_SCHEMA.equalsIgnoreCase(args[0])) {
                 return SUBCMD_SCHEMA_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
+            } else if (CMD_AGGREGATE.equalsIgnoreCase(args[0])) {
+                JdbcPersistenceService persistenceService = getPersistenceService();
+                if (persistenceService != null) {
+                    return new StringsCompleter(persistenceService.getItemNames(), true).complete(args,
+                            cursorArgumentIndex, cursorPosition, candidates);
+                }
             }
         } else if (cursorArgumentIndex == 2) {
-            if (CMD_TABLES.equalsIgnoreCase(args[0])) {
+            if (CMD_AGGREGATE.equalsIgnoreCase(args[0])) {
+                return AGGREGATION_FUNCTION_COMPLETER.complete(args, cursorArgumentIndex, cursorPosition, candidates);
+            } else if (CMD_TABLES.equalsIgnoreCase(args[0])) {
                 if (SUBCMD_TABLES_CLEAN.equalsIgnoreCase(args[1])) {
                     JdbcPersistenceService persistenceService = getPersistenceService();
                     if (persistenceService != null) {
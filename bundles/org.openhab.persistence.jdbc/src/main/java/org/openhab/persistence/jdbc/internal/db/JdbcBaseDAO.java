@@ -13,6 +13,8 @@
 package org.openhab.persistence.jdbc.internal.db;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -24,6 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.measure.Quantity;
@@ -56,12 +60,15 @@ import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.persistence.HistoricItem;
 import org.openhab.core.types.State;
 import org.openhab.core.types.TypeParser;
+import org.openhab.persistence.jdbc.AggregationFunction;
 import org.openhab.persistence.jdbc.internal.dto.Column;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 import org.openhab.persistence.jdbc.internal.dto.ItemsVO;
 import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
 import org.openhab.persistence.jdbc.internal.exceptions.JdbcSQLException;
 import org.openhab.persistence.jdbc.internal.utils.DbMetaData;
+import org.openhab.persistence.jdbc.internal.utils.ResultSetIterable;
 import org.openhab.persistence.jdbc.internal.utils.StringUtilsExt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +86,10 @@ public class JdbcBaseDAO {
     protected String urlSuffix = "";
     public final Map<String, String> sqlTypes = new HashMap<>();
 
+    // Rendered insert statements per table, avoids rebuilding the SQL for every stored state.
+    // Entries only depend on the table, so they are just dropped when tables are dropped or renamed.
+    private final Map<String, InsertItemValueSql> insertItemValueSqlCache = new ConcurrentHashMap<>();
+
     // Get Database Meta data
     protected @Nullable DbMetaData dbMeta;
 
@@ -331,6 +342,7 @@ public class JdbcBaseDAO {
     }
 
     public void doDropTable(String tableName) throws JdbcSQLException {
+        insertItemValueSqlCache.clear();
         String sql = StringUtilsExt.replaceArrayMerge(sqlDropTable, new String[] { "#tableName#" },
                 new String[] { formattedIdentifier(tableName) });
         logger.debug("JDBC::doDropTable sql={}", sql);
@@ -393,6 +405,7 @@ public class JdbcBaseDAO {
      *************/
     public void doUpdateItemTableNames(List<ItemVO> vol) throws JdbcSQLException {
         logger.debug("JDBC::doUpdateItemTableNames vol.size = {}", vol.size());
+        insertItemValueSqlCache.clear();
         for (ItemVO itemTable : vol) {
             String sql = updateItemTableNamesProvider(itemTable);
             try {
@@ -430,10 +443,8 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, State itemState, ItemVO vo) throws JdbcSQLException {
         ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { formattedIdentifier(storedVO.getTableName()), sqlTypes.get("tablePrimaryValue") });
-        Object[] params = { storedVO.getValue(), storedVO.getValue() };
+        String sql = getInsertItemValueSql(storedVO, Objects.requireNonNull(sqlTypes.get("tablePrimaryValue")));
+        Object[] params = insertItemValueParamsProvider(storedVO, null);
         logger.debug("JDBC::doStoreItemValue sql={} value='{}'", sql, storedVO.getValue());
         try {
             Yank.execute(sql, params);
@@ -444,11 +455,9 @@ public class JdbcBaseDAO {
 
     public void doStoreItemValue(Item item, State itemState, ItemVO vo, ZonedDateTime date) throws JdbcSQLException {
         ItemVO storedVO = storeItemValueProvider(item, itemState, vo);
-        String sql = StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
-                new String[] { "#tableName#", "#tablePrimaryValue#" },
-                new String[] { formattedIdentifier(storedVO.getTableName()), "?" });
+        String sql = getInsertItemValueSql(storedVO, "?");
         java.sql.Timestamp timestamp = new java.sql.Timestamp(date.toInstant().toEpochMilli());
-        Object[] params = { timestamp, storedVO.getValue(), storedVO.getValue() };
+        Object[] params = insertItemValueParamsProvider(storedVO, timestamp);
         logger.debug("JDBC::doStoreItemValue sql={} timestamp={} value='{}'", sql, timestamp, storedVO.getValue());
         try {
             Yank.execute(sql, params);
@@ -457,6 +466,65 @@ public class JdbcBaseDAO {
         }
     }
 
+    /**
+     * Stores several states of items sharing the same table as one JDBC batch in a single transaction.
+     * If the batch fails while the database is reachable, the states are stored one by one, so that a single
+     * rejected row only loses its own state.
+     *
+     * @param tableName the table all states are written to
+     * @param states the states to store, each carrying its own timestamp
+     * @return the number of states stored
+     * @throws JdbcSQLException on SQL errors, if the database is not reachable
+     */
+    public int doStoreItemValues(String tableName, List<ItemStateVO> states) throws JdbcSQLException {
+        if (states.isEmpty()) {
+            return 0;
+        }
+        String sql = "";
+        Object[][] params = new Object[states.size()][];
+        for (int i = 0; i < states.size(); i++) {
+            ItemStateVO state = states.get(i);
+            ItemVO storedVO = storeItemValueProvider(state.getItem(), state.getState(), new ItemVO(tableName, null));
+            if (i == 0) {
+                sql = getInsertItemValueSql(storedVO, "?");
+            }
+            params[i] = insertItemValueParamsProvider(storedVO,
+                    new java.sql.Timestamp(state.getDate().toInstant().toEpochMilli()));
+        }
+        logger.debug("JDBC::doStoreItemValues sql={} rows={}", sql, params.length);
+        try {
+            Yank.executeBatch(sql, params);
+            return params.length;
+        } catch (YankSQLException e) {
+            if (!isReachable()) {
+                throw new JdbcSQLException(e);
+            }
+            logger.debug("JDBC::doStoreItemValues batch failed, storing {} rows one by one: {}", params.length,
+                    e.getMessage());
+        }
+        int stored = 0;
+        for (int i = 0; i < params.length; i++) {
+            try {
+                Yank.execute(sql, params[i]);
+                stored++;
+            } catch (YankSQLException e) {
+                ItemStateVO state = states.get(i);
+                logger.warn("JDBC::doStoreItemValues: Unable to store state '{}' of item '{}' at {}: {}",
+                        state.getState(), state.getItem().getName(), state.getDate(), e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    private boolean isReachable() {
+        try {
+            final @Nullable Integer result = doPingDB();
+            return result != null && result > 0;
+        } catch (JdbcSQLException e) {
+            return false;
+        }
+    }
+
     public List<HistoricItem> doGetHistItemFilterQuery(Item item, FilterCriteria filter, int numberDecimalcount,
             String table, String name, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
@@ -479,6 +547,91 @@ public class JdbcBaseDAO {
                 .collect(Collectors.<HistoricItem> toList());
     }
 
+    /**
+     * Queries item values without loading them into memory. The query is executed when iteration starts and the rows
+     * are fetched from the database in chunks of {@code fetchSize} while iterating.
+     *
+     * @return an {@link Iterable} reading the matching values from the database
+     */
+    public ResultSetIterable<HistoricItem> doGetHistItemFilterQueryCursor(Item item, FilterCriteria filter,
+            int numberDecimalcount, String table, String name, ZoneId timeZone, int fetchSize,
+            Consumer<SQLException> errorHandler) throws JdbcSQLException {
+        String sql = histItemFilterQueryProvider(filter, numberDecimalcount, table, name, timeZone);
+        logger.debug("JDBC::doGetHistItemFilterQueryCursor sql={}", sql);
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem numberItem ? numberItem.getUnit() : null;
+        try {
+            return new ResultSetIterable<HistoricItem>(Yank.getDefaultConnectionPool(), sql,
+                    streamingFetchSize(fetchSize),
+                    o -> new JdbcHistoricItem(itemName, objectAsState(item, unit, o[1]), objectAsInstant(o[0])),
+                    errorHandler).open();
+        } catch (SQLException e) {
+            throw new JdbcSQLException(e);
+        }
+    }
+
+    /**
+     * Queries item values aggregated into time buckets by the database.
+     *
+     * @return the aggregated values, or null if the database does not support aggregated queries
+     * @throws JdbcSQLException on SQL errors
+     */
+    public @Nullable List<HistoricItem> doGetHistItemAggregateQuery(Item item, FilterCriteria filter,
+            int numberDecimalcount, String table, String name, Duration bucketSize, AggregationFunction function,
+            ZoneId timeZone) throws JdbcSQLException {
+        AggregationFunction itemFunction = itemAggregationFunction(item, function);
+        String sql = histItemAggregateQueryProvider(filter, numberDecimalcount, table, bucketSize.toSeconds(),
+                itemFunction, timeZone);
+        if (sql == null) {
+            return null;
+        }
+        logger.debug("JDBC::doGetHistItemAggregateQuery sql={}", sql);
+        List<Object[]> m;
+        try {
+            m = Yank.queryObjectArrays(sql, null);
+        } catch (YankSQLException e) {
+            throw new JdbcSQLException(e);
+        }
+        if (m == null) {
+            logger.debug("JDBC::doGetHistItemAggregateQuery Query failed. Returning an empty list.");
+            return List.of();
+        }
+        String itemName = item.getName();
+        Unit<? extends Quantity<?>> unit = item instanceof NumberItem numberItem ? numberItem.getUnit() : null;
+        if (itemFunction == AggregationFunction.LAST) {
+            return m.stream()
+                    .map(o -> new JdbcHistoricItem(itemName, objectAsState(item, unit, o[1]), objectAsInstant(o[0])))
+                    .collect(Collectors.<HistoricItem> toList());
+        }
+        // aggregated numbers may be returned as any numeric type, independent of the column type
+        return m.stream().filter(o -> o[1] != null).map(o -> new JdbcHistoricItem(itemName,
+                aggregatedState(objectAsNumber(o[1]).doubleValue(), unit), objectAsInstant(o[0])))
+                .collect(Collectors.<HistoricItem> toList());
+    }
+
+    /**
+     * Returns the function the values of an item are aggregated with. Only number items are aggregated, all other
+     * items, including dimmers and rollershutters, keep their last value per bucket.
+     *
+     * @param item the item, for group items its base item
+     * @param function the requested function
+     * @return the function to apply
+     */
+    public static AggregationFunction itemAggregationFunction(Item item, AggregationFunction function) {
+        return item instanceof NumberItem ? function : AggregationFunction.LAST;
+    }
+
+    /**
+     * Returns the state of an aggregated number item value.
+     *
+     * @param value the aggregated value
+     * @param unit the unit of the item, or null for plain numbers
+     * @return the state
+     */
+    public static State aggregatedState(double value, @Nullable Unit<? extends Quantity<?>> unit) {
+        return unit == null ? new DecimalType(value) : QuantityType.valueOf(value, unit);
+    }
+
     public void doDeleteItemValues(FilterCriteria filter, String table, ZoneId timeZone) throws JdbcSQLException {
         String sql = histItemFilterDeleteProvider(filter, table, timeZone);
         logger.debug("JDBC::doDeleteItemValues sql={}", sql);
@@ -529,6 +682,59 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Builds a query returning one row per time bucket. For {@link AggregationFunction#LAST} the rows hold the original
+     * time and value of the latest row in each bucket, otherwise the bucket start and the aggregated value.
+     *
+     * @return the query, or null if the database does not provide a {@link #timeBucketProvider(long)}
+     */
+    protected @Nullable String histItemAggregateQueryProvider(FilterCriteria filter, int numberDecimalcount,
+            String table, long bucketSeconds, AggregationFunction function, ZoneId timeZone) {
+        String bucket = timeBucketProvider(Math.max(1, bucketSeconds));
+        if (bucket == null) {
+            return null;
+        }
+        String filterString = resolveTimeFilter(filter, timeZone);
+        String order = filter.getOrdering() == Ordering.ASCENDING ? " ASC" : " DESC";
+        String tableName = formattedIdentifier(table);
+        String queryString;
+        if (function == AggregationFunction.LAST) {
+            queryString = "SELECT t.time, t.value FROM " + tableName
+                    + " t INNER JOIN (SELECT MAX(time) AS last_time FROM " + tableName + filterString + " GROUP BY "
+                    + bucket + ") b ON t.time = b.last_time ORDER BY t.time" + order;
+        } else {
+            queryString = "SELECT " + bucket + " AS bucket, "
+                    + aggregateValueProvider(function.name() + "(value)", numberDecimalcount) + " FROM " + tableName
+                    + filterString + " GROUP BY " + bucket + " ORDER BY bucket" + order;
+        }
+        logger.debug("JDBC::query queryString = {}", queryString);
+        return queryString;
+    }
+
+    /**
+     * Provides the fetch size passed to the JDBC driver for streamed queries.
+     *
+     * @param fetchSize the configured number of rows per round trip
+     * @return the driver specific fetch size
+     */
+    protected int streamingFetchSize(int fetchSize) {
+        return fetchSize;
+    }
+
+    /**
+     * Provides an SQL expression truncating the time column to the start of its time bucket.
+     *
+     * @param bucketSeconds size of a bucket in seconds
+     * @return the SQL expression, or null if the database does not support it
+     */
+    protected @Nullable String timeBucketProvider(long bucketSeconds) {
+        return "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / " + bucketSeconds + ") * " + bucketSeconds + ")";
+    }
+
+    protected String aggregateValueProvider(String aggregate, int numberDecimalcount) {
+        return numberDecimalcount > -1 ? "ROUND(" + aggregate + "," + numberDecimalcount + ")" : aggregate;
+    }
+
     protected String histItemFilterDeleteProvider(FilterCriteria filter, String table, ZoneId timeZone) {
         logger.debug("JDBC::histItemFilterDeleteProvider filter = {}, table = {}", filter, table);
 
@@ -565,6 +771,65 @@ public class JdbcBaseDAO {
         return queryString;
     }
 
+    /**
+     * Returns the insert statement for an item value, rendering it only once per table, data type and time value.
+     *
+     * @param storedVO the value object prepared by {@link #storeItemValueProvider(Item, State, ItemVO)}
+     * @param tablePrimaryValue SQL expression for the time column, {@code ?} for a bound timestamp
+     * @return the SQL statement
+     */
+    protected String getInsertItemValueSql(ItemVO storedVO, String tablePrimaryValue) {
+        InsertItemValueSql statements = insertItemValueSqlCache.get(storedVO.getTableName());
+        if (statements == null || !statements.dbType.equals(storedVO.getDbType())) {
+            // the data type of a table only changes if the item type changes
+            statements = new InsertItemValueSql(storedVO.getDbType());
+            insertItemValueSqlCache.put(storedVO.getTableName(), statements);
+        }
+        String sql = statements.sqlByTablePrimaryValue.get(tablePrimaryValue);
+        if (sql == null) {
+            sql = insertItemValueSqlProvider(storedVO, tablePrimaryValue);
+            statements.sqlByTablePrimaryValue.put(tablePrimaryValue, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * The rendered insert statements of a table, per value of the time column.
+     */
+    private static class InsertItemValueSql {
+        private final String dbType;
+        private final Map<String, String> sqlByTablePrimaryValue = new ConcurrentHashMap<>(4);
+
+        private InsertItemValueSql(String dbType) {
+            this.dbType = dbType;
+        }
+    }
+
+    /**
+     * Renders the insert statement for an item value.
+     *
+     * @param storedVO the value object prepared by {@link #storeItemValueProvider(Item, State, ItemVO)}
+     * @param tablePrimaryValue SQL expression for the time column, {@code ?} for a bound timestamp
+     * @return the SQL statement
+     */
+    protected String insertItemValueSqlProvider(ItemVO storedVO, String tablePrimaryValue) {
+        return StringUtilsExt.replaceArrayMerge(sqlInsertItemValue,
+                new String[] { "#tableName#", "#tablePrimaryValue#" },
+                new String[] { formattedIdentifier(storedVO.getTableName()), tablePrimaryValue });
+    }
+
+    /**
+     * Provides the parameters matching the statement of {@link #insertItemValueSqlProvider(ItemVO, String)}.
+     *
+     * @param storedVO the value object prepared by {@link #storeItemValueProvider(Item, State, ItemVO)}
+     * @param timestamp the timestamp to bind, or null if the time column is set by the database
+     * @return the statement parameters
+     */
+    protected Object[] insertItemValueParamsProvider(ItemVO storedVO, java.sql.@Nullable Timestamp timestamp) {
+        return timestamp == null ? new Object[] { storedVO.getValue(), storedVO.getValue() }
+                : new Object[] { timestamp, storedVO.getValue(), storedVO.getValue() };
+    }
+
     protected ItemVO storeItemValueProvider(Item item, State itemState, ItemVO vo) {
         String itemType = getItemType(item);
 
@@ -74,6 +74,9 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
         databaseProps.setProperty("dataSource.cachePrepStmts", "true");
         databaseProps.setProperty("dataSource.prepStmtCacheSize", "250");
         databaseProps.setProperty("dataSource.prepStmtCacheSqlLimit", "2048");
+        // Let the server keep the parsed statements and send batches as multi-row inserts
+        databaseProps.setProperty("dataSource.useServerPrepStmts", "true");
+        databaseProps.setProperty("dataSource.rewriteBatchedStatements", "true");
         databaseProps.setProperty("dataSource.jdbcCompliantTruncation", "false");// jdbc standard max varchar max length
                                                                                  // of 21845
 
@@ -120,6 +123,12 @@ public class JdbcMysqlDAO extends JdbcBaseDAO {
      * SQL generation Providers *
      ****************************/
 
+    @Override
+    protected int streamingFetchSize(int fetchSize) {
+        // Connector/J only streams results row by row if the fetch size is Integer.MIN_VALUE
+        return fetchSize > 0 ? Integer.MIN_VALUE : fetchSize;
+    }
+
     /*****************
      * H E L P E R S *
      *****************/
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Properties;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.knowm.yank.Yank;
 import org.knowm.yank.exceptions.YankSQLException;
 import org.openhab.persistence.jdbc.internal.dto.ItemVO;
@@ -77,4 +78,13 @@ public class JdbcTimescaledbDAO extends JdbcPostgresqlDAO {
             throw new JdbcSQLException(e);
         }
     }
+
+    /****************************
+     * SQL generation Providers *
+     ****************************/
+
+    @Override
+    protected @Nullable String timeBucketProvider(long bucketSeconds) {
+        return "time_bucket(INTERVAL '" + bucketSeconds + " seconds', time)";
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.dto;
+
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.items.Item;
+import org.openhab.core.types.State;
+
+/**
+ * Represents a pending state change of an item waiting to be written to the database.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemStateVO {
+    private final Item item;
+    private final State state;
+    private final ZonedDateTime date;
+
+    public ItemStateVO(Item item, State state, ZonedDateTime date) {
+        this.item = item;
+        this.state = state;
+        this.date = date;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public ZonedDateTime getDate() {
+        return date;
+    }
+}
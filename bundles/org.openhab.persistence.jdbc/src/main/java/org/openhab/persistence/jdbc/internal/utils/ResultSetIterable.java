@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.utils;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Iterable} over the rows of a query, read from the database while iterating. Every iterator runs the query
+ * on its own pooled connection, fetching {@code fetchSize} rows at a time, so only the current rows are held in
+ * memory. The query of the first iterator is run by {@link #open()}, so errors of the query are reported to the caller.
+ * <p />
+ * The connection is released as soon as the last row has been read or a database error occurred, which is reported
+ * to the error handler. Callers that stop iterating early should {@link #close()} the iterable. Iterators that are
+ * abandoned without closing release their connection when they are garbage collected.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class ResultSetIterable<T> implements Iterable<T>, AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner.create(new NamedThreadFactory("jdbc-cursor"));
+
+    /**
+     * Maps the column values of one row to an element.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(Object[] row);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ResultSetIterable.class);
+
+    private final DataSource dataSource;
+    private final String sql;
+    private final int fetchSize;
+    private final RowMapper<T> mapper;
+    private final Consumer<SQLException> errorHandler;
+    // the cursors of the iterators that have not been read to the end
+    private final Set<Cleanable> openCursors = ConcurrentHashMap.newKeySet();
+    private @Nullable Iterator<T> openedIterator;
+
+    /**
+     * @param dataSource the pool to take the connections from
+     * @param sql the query
+     * @param fetchSize the number of rows fetched per round trip
+     * @param mapper maps a row to an element
+     * @param errorHandler receives the errors of queries run by {@link #iterator()} and of reading rows
+     */
+    public ResultSetIterable(DataSource dataSource, String sql, int fetchSize, RowMapper<T> mapper,
+            Consumer<SQLException> errorHandler) {
+        this.dataSource = dataSource;
+        this.sql = sql;
+        this.fetchSize = fetchSize;
+        this.mapper = mapper;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Runs the query for the first iterator.
+     *
+     * @return this iterable
+     * @throws SQLException if the query fails
+     */
+    public synchronized ResultSetIterable<T> open() throws SQLException {
+        openedIterator = new CursorIterator(Cursor.open(dataSource, sql, fetchSize));
+        return this;
+    }
+
+    @Override
+    public synchronized Iterator<T> iterator() {
+        Iterator<T> iterator = openedIterator;
+        if (iterator != null) {
+            openedIterator = null;
+            return iterator;
+        }
+        try {
+            return new CursorIterator(Cursor.open(dataSource, sql, fetchSize));
+        } catch (SQLException e) {
+            errorHandler.accept(e);
+            return Collections.emptyIterator();
+        }
+    }
+
+    /**
+     * Releases the connections of all iterators that have not been read to the end.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            openedIterator = null;
+        }
+        openCursors.forEach(Cleanable::clean);
+        openCursors.clear();
+    }
+
+    /**
+     * Holds the database resources of an iterator. Kept separate from the iterator so that the {@link Cleaner} does
+     * not keep the iterator reachable.
+     */
+    private static class Cursor implements Runnable {
+        private final Logger logger = LoggerFactory.getLogger(ResultSetIterable.class);
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final int columnCount;
+
+        private Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet) throws SQLException {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.columnCount = resultSet.getMetaData().getColumnCount();
+        }
+
+        private static Cursor open(DataSource dataSource, String sql, int fetchSize) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                // some drivers (e.g. PostgreSQL) only honor the fetch size within a transaction
+                connection.setAutoCommit(false);
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return new Cursor(connection, statement, statement.executeQuery());
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                resultSet.close();
+                statement.close();
+                connection.rollback();
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.debug("JDBC::ResultSetIterable: closing cursor failed", e);
+            } finally {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.debug("JDBC::ResultSetIterable: releasing connection failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads one row ahead, so the cursor is closed as soon as the last element has been returned.
+     */
+    private class CursorIterator implements Iterator<T> {
+        private @Nullable Cursor cursor;
+        private @Nullable Cleanable cleanable;
+        private @Nullable T next;
+
+        private CursorIterator(Cursor cursor) {
+            Cleanable cleanable = CLEANER.register(this, cursor);
+            this.cursor = cursor;
+            this.cleanable = cleanable;
+            openCursors.add(cleanable);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            T current = next;
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            Cursor cursor = this.cursor;
+            if (cursor == null) {
+                return;
+            }
+            try {
+                if (cursor.resultSet.next()) {
+                    Object[] row = new Object[cursor.columnCount];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = cursor.resultSet.getObject(i + 1);
+                    }
+                    next = mapper.map(row);
+                    return;
+                }
+            } catch (SQLException e) {
+                logger.debug("JDBC::query: Unable to read next row of '{}', iteration stopped", sql);
+                close();
+                errorHandler.accept(e);
+                return;
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            close();
+        }
+
+        private void close() {
+            Cleanable cleanable = this.cleanable;
+            this.cursor = null;
+            this.cleanable = null;
+            if (cleanable != null) {
+                openCursors.remove(cleanable);
+                cleanable.clean();
+            }
+        }
+    }
+}
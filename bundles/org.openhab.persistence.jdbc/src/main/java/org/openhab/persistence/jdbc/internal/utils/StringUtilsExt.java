@@ -50,12 +50,15 @@ public class StringUtilsExt {
     }
 
     /**
+     * Replaces the given placeholders literally, i.e. neither placeholders nor replacements are treated as regular
+     * expressions.
+     *
      * @see #replaceArrayMerge(String str, String separate, Object[] separators)
      */
     public static String replaceArrayMerge(String str, String[] separate, String[] separators) {
         String s = str;
         for (int i = 0; i < separators.length; i++) {
-            s = s.replaceAll(separate[i], separators[i]);
+            s = s.replace(separate[i], separators[i]);
         }
         return s;
     }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.DimmerItem;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.persistence.FilterCriteria.Ordering;
+import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.AggregationFunction;
+import org.openhab.persistence.jdbc.internal.dto.JdbcHistoricItem;
+
+/**
+ * Tests the aggregation of the {@link JdbcMapper} for databases that cannot bucket by time.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcMapperTest {
+    private static final Duration BUCKET = Duration.ofMinutes(1);
+
+    private final NumberItem numberItem = new NumberItem("Number");
+    private final List<HistoricItem> numbers = List.of(historicItem("Number", new DecimalType(1), 0),
+            historicItem("Number", new DecimalType(2), 10), historicItem("Number", new DecimalType(4), 59),
+            historicItem("Number", new DecimalType(10), 60));
+
+    @Test
+    void aggregateAveragePerBucket() {
+        List<HistoricItem> result = JdbcMapper.aggregate(numbers, numberItem, BUCKET, AggregationFunction.AVG, 3,
+                Ordering.ASCENDING);
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getState(), is(new DecimalType(2.333)));
+        assertThat(result.get(0).getInstant(), is(Instant.ofEpochSecond(0)));
+        assertThat(result.get(1).getState(), is(new DecimalType(10.0)));
+        assertThat(result.get(1).getInstant(), is(Instant.ofEpochSecond(60)));
+    }
+
+    @Test
+    void aggregateMinAndMaxPerBucket() {
+        List<HistoricItem> min = JdbcMapper.aggregate(numbers, numberItem, BUCKET, AggregationFunction.MIN, -1,
+                Ordering.ASCENDING);
+        List<HistoricItem> max = JdbcMapper.aggregate(numbers, numberItem, BUCKET, AggregationFunction.MAX, -1,
+                Ordering.ASCENDING);
+
+        assertThat(min.get(0).getState(), is(new DecimalType(1.0)));
+        assertThat(max.get(0).getState(), is(new DecimalType(4.0)));
+    }
+
+    @Test
+    void aggregateLastKeepsOriginalTimestamp() {
+        List<HistoricItem> result = JdbcMapper.aggregate(numbers, numberItem, BUCKET, AggregationFunction.LAST, 3,
+                Ordering.DESCENDING);
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getInstant(), is(Instant.ofEpochSecond(60)));
+        assertThat(result.get(1).getState(), is(new DecimalType(4)));
+        assertThat(result.get(1).getInstant(), is(Instant.ofEpochSecond(59)));
+    }
+
+    @Test
+    void aggregateDimmerReturnsLastValueLikeTheDatabase() {
+        List<HistoricItem> dimmers = List.of(historicItem("Dimmer", new PercentType(10), 0),
+                historicItem("Dimmer", new PercentType(30), 30));
+
+        List<HistoricItem> result = JdbcMapper.aggregate(dimmers, new DimmerItem("Dimmer"), BUCKET,
+                AggregationFunction.AVG, 3, Ordering.ASCENDING);
+
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(new PercentType(30)));
+        assertThat(result.get(0).getInstant(), is(Instant.ofEpochSecond(30)));
+    }
+
+    private static HistoricItem historicItem(String name, State state, long epochSecond) {
+        return new JdbcHistoricItem(name, state, Instant.ofEpochSecond(epochSecond));
+    }
+}
@@ -12,15 +12,23 @@
  */
 package org.openhab.persistence.jdbc.internal;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.i18n.TimeZoneProvider;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.persistence.FilterCriteria;
+import org.openhab.persistence.jdbc.AggregationFunction;
 
 /**
  * Tests the {@link JdbcPersistenceService}.
@@ -30,7 +38,8 @@ import org.openhab.core.persistence.FilterCriteria;
 @NonNullByDefault
 public class JdbcPersistenceServiceTest {
 
-    private final JdbcPersistenceService jdbcPersistenceService = new JdbcPersistenceService(mock(ItemRegistry.class),
+    private final ItemRegistry itemRegistry = mock(ItemRegistry.class);
+    private final JdbcPersistenceService jdbcPersistenceService = new JdbcPersistenceService(itemRegistry,
             mock(TimeZoneProvider.class)) {
         @Override
         protected boolean checkDBAccessability() {
@@ -48,4 +57,22 @@ public class JdbcPersistenceServiceTest {
     void removeThrowsIllegalArgumentExceptionIfItemNameOfFilterIsNull() {
         assertThrows(IllegalArgumentException.class, () -> jdbcPersistenceService.remove(filter));
     }
+
+    @Test
+    void aggregatedQueryReturnsNothingIfItemDoesNotExist() throws ItemNotFoundException {
+        when(itemRegistry.getItem("Unknown")).thenThrow(new ItemNotFoundException("Unknown"));
+        filter.setItemName("Unknown");
+
+        assertThat(jdbcPersistenceService.query(filter, Duration.ofMinutes(15), AggregationFunction.AVG).iterator()
+                .hasNext(), is(false));
+    }
+
+    @Test
+    void aggregatedQueryReturnsNothingForGroupWithoutBaseItem() throws ItemNotFoundException {
+        when(itemRegistry.getItem("Group")).thenReturn(new GroupItem("Group"));
+        filter.setItemName("Group");
+
+        assertThat(jdbcPersistenceService.query(filter, Duration.ofMinutes(15), AggregationFunction.AVG).iterator()
+                .hasNext(), is(false));
+    }
 }
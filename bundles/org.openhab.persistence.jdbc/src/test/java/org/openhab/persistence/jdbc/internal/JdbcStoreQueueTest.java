@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.items.Item;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.test.java.JavaTest;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
+import org.openhab.persistence.jdbc.internal.exceptions.JdbcException;
+
+/**
+ * Tests the {@link JdbcStoreQueue}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcStoreQueueTest extends JavaTest {
+
+    private final Map<String, List<ItemStateVO>> written = new ConcurrentHashMap<>();
+
+    private int write(Item item, List<ItemStateVO> states) {
+        written.computeIfAbsent(item.getName(), k -> new ArrayList<>()).addAll(states);
+        return states.size();
+    }
+
+    @Test
+    void statesAreWrittenGroupedPerItemOnStop() {
+        JdbcStoreQueue queue = new JdbcStoreQueue(this::write, 100, 50, 0, 1);
+        NumberItem item1 = new NumberItem("item1");
+        NumberItem item2 = new NumberItem("item2");
+        queue.start();
+        for (int i = 0; i < 10; i++) {
+            queue.offer(new ItemStateVO(item1, new DecimalType(i), ZonedDateTime.now()));
+            queue.offer(new ItemStateVO(item2, new DecimalType(i), ZonedDateTime.now()));
+        }
+        queue.stop(5000);
+
+        assertThat(Objects.requireNonNull(written.get("item1")).size(), is(10));
+        assertThat(Objects.requireNonNull(written.get("item2")).size(), is(10));
+        assertThat(queue.getWrittenCount(), is(20L));
+        assertThat(queue.getDroppedCount(), is(0L));
+        assertThat(queue.getQueueSize(), is(0));
+    }
+
+    @Test
+    void statesAreDroppedWhenQueueIsNotRunning() {
+        JdbcStoreQueue queue = new JdbcStoreQueue(this::write, 1, 1, 0, 1);
+        NumberItem item = new NumberItem("item");
+
+        assertThat(queue.offer(new ItemStateVO(item, new DecimalType(1), ZonedDateTime.now())), is(false));
+        assertThat(queue.getDroppedCount(), is(1L));
+    }
+
+    @Test
+    void failedWriteIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        JdbcStoreQueue queue = new JdbcStoreQueue((item, states) -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new JdbcException("No connection to database");
+            }
+            return write(item, states);
+        }, 10, 10, 0, 1, 3, 1);
+        NumberItem item = new NumberItem("item");
+        queue.start();
+        queue.offer(new ItemStateVO(item, new DecimalType(1), ZonedDateTime.now()));
+        queue.offer(new ItemStateVO(item, new DecimalType(2), ZonedDateTime.now()));
+        waitForAssert(() -> assertThat(queue.getWrittenCount(), is(2L)));
+        queue.stop(5000);
+
+        assertThat(attempts.get(), is(3));
+        assertThat(Objects.requireNonNull(written.get("item")).size(), is(2));
+        assertThat(queue.getWrittenCount(), is(2L));
+        assertThat(queue.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    void statesAreDroppedWhenRetriesAreExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+        JdbcStoreQueue queue = new JdbcStoreQueue((item, states) -> {
+            attempts.incrementAndGet();
+            throw new JdbcException("No connection to database");
+        }, 10, 10, 0, 1, 2, 1);
+        NumberItem item = new NumberItem("item");
+        queue.start();
+        queue.offer(new ItemStateVO(item, new DecimalType(1), ZonedDateTime.now()));
+        queue.offer(new ItemStateVO(item, new DecimalType(2), ZonedDateTime.now()));
+        waitForAssert(() -> assertThat(queue.getDroppedCount(), is(2L)));
+        queue.stop(5000);
+
+        assertThat(attempts.get(), is(3));
+        assertThat(queue.getWrittenCount(), is(0L));
+        assertThat(queue.getDroppedCount(), is(2L));
+    }
+
+    @Test
+    void rejectedStatesAreCountedAsDropped() {
+        JdbcStoreQueue queue = new JdbcStoreQueue((item, states) -> states.size() - 1, 10, 10, 0, 1, 3, 1);
+        NumberItem item = new NumberItem("item");
+        queue.start();
+        for (int i = 0; i < 3; i++) {
+            queue.offer(new ItemStateVO(item, new DecimalType(i), ZonedDateTime.now()));
+        }
+        waitForAssert(() -> assertThat(queue.getWrittenCount() + queue.getDroppedCount(), is(3L)));
+        queue.stop(5000);
+
+        assertThat(queue.getDroppedCount() > 0, is(true));
+    }
+}
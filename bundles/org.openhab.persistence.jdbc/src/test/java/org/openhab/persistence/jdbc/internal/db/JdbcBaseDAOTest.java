@@ -16,6 +16,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.Instant;
@@ -66,6 +67,8 @@ import org.openhab.core.library.unit.SIUnits;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.FilterCriteria.Ordering;
 import org.openhab.core.types.State;
+import org.openhab.persistence.jdbc.AggregationFunction;
+import org.openhab.persistence.jdbc.internal.dto.ItemVO;
 
 /**
  * Tests the {@link JdbcBaseDAO}.
@@ -194,6 +197,30 @@ public class JdbcBaseDAOTest {
         assertThat(sql, is("SELECT time, value FROM " + DB_TABLE_NAME + " ORDER BY time DESC LIMIT 0,1"));
     }
 
+    @Test
+    void testHistItemAggregateQueryProviderReturnsGroupedAverageQuery() {
+        filter.setOrdering(Ordering.ASCENDING);
+
+        String sql = jdbcBaseDAO.histItemAggregateQueryProvider(filter, 2, DB_TABLE_NAME, 900,
+                AggregationFunction.AVG, UTC_ZONE_ID);
+        String bucket = "FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 900) * 900)";
+        assertThat(sql, is("SELECT " + bucket + " AS bucket, ROUND(AVG(value),2) FROM " + DB_TABLE_NAME
+                + " GROUP BY " + bucket + " ORDER BY bucket ASC"));
+    }
+
+    @Test
+    void testHistItemAggregateQueryProviderReturnsLastValuePerBucketQuery() {
+        filter.setBeginDate(parseDateTimeString("2022-01-10T15:01:44"));
+
+        String sql = jdbcBaseDAO.histItemAggregateQueryProvider(filter, 2, DB_TABLE_NAME, 60,
+                AggregationFunction.LAST, UTC_ZONE_ID);
+        assertThat(sql, is("SELECT t.time, t.value FROM " + DB_TABLE_NAME
+                + " t INNER JOIN (SELECT MAX(time) AS last_time FROM " + DB_TABLE_NAME + " WHERE TIME>='"
+                + JdbcBaseDAO.JDBC_DATE_FORMAT.format(Objects.requireNonNull(filter.getBeginDate()))
+                + "' GROUP BY FROM_UNIXTIME(FLOOR(UNIX_TIMESTAMP(time) / 60) * 60)) b ON t.time = b.last_time"
+                + " ORDER BY t.time DESC"));
+    }
+
     @Test
     void testHistItemFilterDeleteProviderReturnsDeleteQueryWithoutWhereClause() {
         String sql = jdbcBaseDAO.histItemFilterDeleteProvider(filter, DB_TABLE_NAME, UTC_ZONE_ID);
@@ -249,6 +276,30 @@ public class JdbcBaseDAOTest {
                         + JdbcBaseDAO.JDBC_DATE_FORMAT.format(Objects.requireNonNull(filter.getEndDate())) + "'"));
     }
 
+    @Test
+    void testGetInsertItemValueSqlRendersStatementOncePerTable() {
+        ItemVO vo = new ItemVO(DB_TABLE_NAME, null);
+        vo.setValueTypes("DOUBLE", Double.class);
+
+        String sql = jdbcBaseDAO.getInsertItemValueSql(vo, "?");
+        assertThat(sql,
+                is("INSERT INTO " + DB_TABLE_NAME + " (time, value) VALUES( ?, ? ) ON DUPLICATE KEY UPDATE VALUE= ?"));
+        assertSame(sql, jdbcBaseDAO.getInsertItemValueSql(vo, "?"));
+    }
+
+    @Test
+    void testGetInsertItemValueSqlRendersStatementPerTimeValue() {
+        ItemVO vo = new ItemVO(DB_TABLE_NAME, null);
+        vo.setValueTypes("DOUBLE", Double.class);
+
+        String boundSql = jdbcBaseDAO.getInsertItemValueSql(vo, "?");
+        String nowSql = jdbcBaseDAO.getInsertItemValueSql(vo, "NOW()");
+        assertThat(nowSql, is("INSERT INTO " + DB_TABLE_NAME
+                + " (time, value) VALUES( NOW(), ? ) ON DUPLICATE KEY UPDATE VALUE= ?"));
+        assertSame(boundSql, jdbcBaseDAO.getInsertItemValueSql(vo, "?"));
+        assertSame(nowSql, jdbcBaseDAO.getInsertItemValueSql(vo, "NOW()"));
+    }
+
     private ZonedDateTime parseDateTimeString(String dts) {
         return ZonedDateTime.of(LocalDateTime.parse(dts, DATE_PARSER), UTC_ZONE_ID);
     }
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.db;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.knowm.yank.Yank;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.persistence.jdbc.internal.dto.ItemStateVO;
+
+/**
+ * Tests storing values with the {@link JdbcH2DAO} against an embedded H2 database.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JdbcH2DAOTest {
+
+    private static final String TABLE_NAME = "item0001";
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+    private final JdbcH2DAO dao = new JdbcH2DAO();
+    private final NumberItem item = new NumberItem("item");
+
+    @BeforeEach
+    void setup() {
+        Properties properties = new Properties();
+        properties.setProperty("jdbcUrl", "jdbc:h2:file:" + tempDir.resolve("store") + ";NON_KEYWORDS=VALUE");
+        properties.setProperty("username", "sa");
+        properties.setProperty("password", "");
+        Yank.setupDefaultConnectionPool(properties);
+        // the check constraint lets the database reject single rows
+        Yank.execute("CREATE TABLE " + TABLE_NAME
+                + " (time TIMESTAMP NOT NULL PRIMARY KEY, value DOUBLE CHECK (value < 100))", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Yank.releaseDefaultConnectionPool();
+    }
+
+    @Test
+    void allStatesAreStoredInOneBatch() throws Exception {
+        int stored = dao.doStoreItemValues(TABLE_NAME, createStates(1, 2, 3));
+
+        assertThat(stored, is(3));
+        assertThat(getRowCount(), is(3L));
+    }
+
+    @Test
+    void onlyRejectedStateIsLostWhenBatchFails() throws Exception {
+        int stored = dao.doStoreItemValues(TABLE_NAME, createStates(1, 2, 100, 4));
+
+        assertThat(stored, is(3));
+        assertThat(getRowCount(), is(3L));
+    }
+
+    private List<ItemStateVO> createStates(int... values) {
+        ZonedDateTime time = ZonedDateTime.now().withNano(0);
+        List<ItemStateVO> states = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            states.add(new ItemStateVO(item, new DecimalType(values[i]), time.plusSeconds(i)));
+        }
+        return states;
+    }
+
+    private long getRowCount() {
+        Long count = Yank.queryScalar("SELECT COUNT(*) FROM " + TABLE_NAME, Long.class, null);
+        return count == null ? 0 : count;
+    }
+}
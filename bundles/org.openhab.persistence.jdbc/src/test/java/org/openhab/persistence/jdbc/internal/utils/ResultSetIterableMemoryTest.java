@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the {@link ResultSetIterable} reads a result much larger than the heap.
+ * <p />
+ * Only for manual execution with a small heap:
+ * <code>mvn test -Dtest=ResultSetIterableMemoryTest -Djdbc.test.memory=true -DargLine=-Xmx64m</code>
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+@Tag("memory")
+@EnabledIfSystemProperty(named = "jdbc.test.memory", matches = "true", disabledReason = "Only for manual execution.")
+public class ResultSetIterableMemoryTest {
+
+    private static final long ROW_COUNT = 2_000_000;
+    private static final long MAX_HEAP_BYTES = 128L * 1024 * 1024;
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+    private @NonNullByDefault({}) JdbcConnectionPool pool;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        pool = JdbcConnectionPool.create("jdbc:h2:file:" + tempDir.resolve("memory") + ";NON_KEYWORDS=VALUE", "sa", "");
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE item0001 (time TIMESTAMP NOT NULL PRIMARY KEY, value DOUBLE)");
+            statement.execute("INSERT INTO item0001 SELECT DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00'), X"
+                    + " FROM SYSTEM_RANGE(1, " + ROW_COUNT + ")");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    void rowsExceedingTheHeapAreIterated() throws SQLException {
+        // loading all rows at once would exceed a heap of this size
+        assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES, "The heap must be limited, e.g. -Xmx64m");
+
+        long count = 0;
+        long sum = 0;
+        try (ResultSetIterable<Long> rows = new ResultSetIterable<Long>(pool,
+                "SELECT time, value FROM item0001 ORDER BY time ASC", 1000, row -> ((Number) row[1]).longValue(),
+                e -> {
+                }).open()) {
+            for (Long value : rows) {
+                sum += value;
+                count++;
+            }
+        }
+
+        assertThat(count, is(ROW_COUNT));
+        assertThat(sum, is(ROW_COUNT * (ROW_COUNT + 1) / 2));
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jdbc.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link ResultSetIterable} against an embedded H2 database.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class ResultSetIterableTest {
+
+    private static final long ROW_COUNT = 100;
+    // smaller than the number of rows, so the rows are fetched in several round trips
+    private static final int FETCH_SIZE = 10;
+    private static final String QUERY = "SELECT time, value FROM item0001 ORDER BY time ASC";
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+    private @NonNullByDefault({}) JdbcConnectionPool pool;
+    private final List<SQLException> errors = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws SQLException {
+        pool = JdbcConnectionPool.create("jdbc:h2:file:" + tempDir.resolve("streaming") + ";NON_KEYWORDS=VALUE", "sa",
+                "");
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE item0001 (time TIMESTAMP NOT NULL PRIMARY KEY, value DOUBLE)");
+            statement.execute("INSERT INTO item0001 SELECT DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00'), X"
+                    + " FROM SYSTEM_RANGE(1, " + ROW_COUNT + ")");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    void allRowsAreIteratedAndConnectionIsReleased() throws SQLException {
+        ResultSetIterable<Long> rows = createRows(QUERY).open();
+
+        long count = 0;
+        long sum = 0;
+        Iterator<Long> iterator = rows.iterator();
+        assertThat(pool.getActiveConnections(), is(1));
+        while (iterator.hasNext()) {
+            sum += iterator.next();
+            count++;
+        }
+
+        assertThat(count, is(ROW_COUNT));
+        assertThat(sum, is(ROW_COUNT * (ROW_COUNT + 1) / 2));
+        assertThat(pool.getActiveConnections(), is(0));
+        assertThat(errors.isEmpty(), is(true));
+    }
+
+    @Test
+    void closeReleasesConnectionOfUnfinishedIteration() throws SQLException {
+        try (ResultSetIterable<Long> rows = createRows(QUERY).open()) {
+            Iterator<Long> iterator = rows.iterator();
+            assertThat(iterator.next(), is(1L));
+            assertThat(pool.getActiveConnections(), is(1));
+        }
+
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+
+    @Test
+    void closeReleasesConnectionsOfAllUnfinishedIterators() throws SQLException {
+        ResultSetIterable<Long> rows = createRows(QUERY).open();
+        Iterator<Long> first = rows.iterator();
+        Iterator<Long> second = rows.iterator();
+        for (int i = 0; i < FETCH_SIZE + 1; i++) {
+            first.next();
+        }
+        second.next();
+        assertThat(pool.getActiveConnections(), is(2));
+
+        rows.close();
+
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+
+    @Test
+    void eachIteratorRunsTheQueryAgain() {
+        ResultSetIterable<Long> rows = createRows(QUERY + " LIMIT 3");
+
+        for (int i = 0; i < 2; i++) {
+            long count = 0;
+            for (Long value : rows) {
+                assertThat(value, is(++count));
+            }
+            assertThat(count, is(3L));
+        }
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+
+    @Test
+    void invalidQueryFailsOnOpenAndReleasesConnection() {
+        assertThrows(SQLException.class, () -> createRows("SELECT time, value FROM missing").open());
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+
+    @Test
+    void invalidQueryOfFurtherIteratorIsReportedAndReturnsNoRows() {
+        ResultSetIterable<Long> rows = createRows("SELECT time, value FROM missing");
+
+        assertThat(rows.iterator().hasNext(), is(false));
+        assertThat(errors.size(), is(1));
+        assertThat(pool.getActiveConnections(), is(0));
+    }
+
+    private ResultSetIterable<Long> createRows(String sql) {
+        return new ResultSetIterable<>(pool, sql, FETCH_SIZE, row -> ((Number) row[1]).longValue(), errors::add);
+    }
+}
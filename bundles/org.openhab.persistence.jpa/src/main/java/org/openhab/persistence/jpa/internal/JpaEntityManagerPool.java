@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.jpa.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps idle {@link EntityManager}s of an {@link EntityManagerFactory} for reuse, so that their query compilation
+ * caches and database connections are not set up again for every store and query.
+ * <p />
+ * An {@link EntityManager} is only used by one thread at a time: it is acquired for one operation and released
+ * afterwards. Its persistence context is cleared when it is released.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JpaEntityManagerPool {
+    private static final int MAX_IDLE = 4;
+
+    private final EntityManagerFactory factory;
+    private final Deque<EntityManager> idle = new ArrayDeque<>(MAX_IDLE);
+    private boolean closed;
+
+    public JpaEntityManagerPool(EntityManagerFactory factory) {
+        this.factory = factory;
+    }
+
+    public EntityManager acquire() {
+        @Nullable
+        EntityManager em;
+        synchronized (idle) {
+            em = idle.pollFirst();
+        }
+        return em != null && em.isOpen() ? em : factory.createEntityManager();
+    }
+
+    /**
+     * Return an {@link EntityManager} to the pool.
+     *
+     * @param em the entity manager
+     * @param reusable <code>false</code> if the entity manager must be closed, e.g. after an exception
+     */
+    public void release(EntityManager em, boolean reusable) {
+        if (reusable && em.isOpen()) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.clear();
+            synchronized (idle) {
+                if (!closed && idle.size() < MAX_IDLE) {
+                    idle.addFirst(em);
+                    return;
+                }
+            }
+        }
+        if (em.isOpen()) {
+            em.close();
+        }
+    }
+
+    /**
+     * Close all idle entity managers. Entity managers released afterwards are closed.
+     */
+    public void close() {
+        synchronized (idle) {
+            closed = true;
+            idle.forEach(EntityManager::close);
+            idle.clear();
+        }
+    }
+}
@@ -12,15 +12,25 @@
  */
 package org.openhab.persistence.jpa.internal;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.config.core.ConfigurableService;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
@@ -47,7 +57,7 @@ import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
-import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
 /**
  * JPA based implementation of QueryablePersistenceService.
@@ -69,12 +79,20 @@ public class JpaPersistenceService implements QueryablePersistenceService {
 
     private final ItemRegistry itemRegistry;
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("org.openhab.jpa");
+
     private @Nullable EntityManagerFactory emf;
+    private @Nullable JpaEntityManagerPool entityManagerPool;
 
     private @NonNullByDefault({}) JpaConfiguration config;
 
     private boolean initialized;
 
+    private final Queue<JpaPersistentItem> pendingItems = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private @Nullable ScheduledFuture<?> commitJob;
+
     @Activate
     public JpaPersistenceService(BundleContext context, Map<String, @Nullable Object> properties,
             final @Reference ItemRegistry itemRegistry) {
@@ -83,6 +101,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         try {
             config = new JpaConfiguration(properties);
             initialized = true;
+            if (config.batchSize > 0) {
+                commitJob = scheduler.scheduleWithFixedDelay(this::commit, config.commitInterval,
+                        config.commitInterval, TimeUnit.SECONDS);
+            }
         } catch (IllegalArgumentException e) {
             logger.warn("{}", e.getMessage());
         }
@@ -93,7 +115,7 @@ public class JpaPersistenceService implements QueryablePersistenceService {
      *
      * @return EntityManagerFactory
      */
-    protected EntityManagerFactory getEntityManagerFactory() {
+    protected synchronized EntityManagerFactory getEntityManagerFactory() {
         EntityManagerFactory emf = this.emf;
         if (emf == null) {
             emf = newEntityManagerFactory();
@@ -102,12 +124,30 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         return emf;
     }
 
+    /**
+     * @return the pool of entity managers of the EntityManagerFactory
+     */
+    protected synchronized JpaEntityManagerPool getEntityManagerPool() {
+        JpaEntityManagerPool entityManagerPool = this.entityManagerPool;
+        if (entityManagerPool == null) {
+            entityManagerPool = new JpaEntityManagerPool(getEntityManagerFactory());
+            this.entityManagerPool = entityManagerPool;
+        }
+        return entityManagerPool;
+    }
+
     /**
      * Closes the EntityPersistenceFactory
      */
     @Deactivate
     public void deactivate() {
         logger.debug("Deactivating JPA persistence service");
+        ScheduledFuture<?> commitJob = this.commitJob;
+        if (commitJob != null) {
+            commitJob.cancel(false);
+            this.commitJob = null;
+        }
+        commit();
         closeEntityManagerFactory();
     }
 
@@ -156,28 +196,87 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         pItem.setRealName(item.getName());
         pItem.setTimestamp(new Date());
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
+        if (config.batchSize > 0) {
+            pendingItems.add(pItem);
+            if (pendingCount.incrementAndGet() >= config.batchSize && commitScheduled.compareAndSet(false, true)) {
+                scheduler.execute(this::commit);
+            }
+        } else {
+            persist(List.of(pItem));
+        }
+
+        logger.debug("Storing item...done");
+    }
+
+    /**
+     * Persists the buffered items in one transaction.
+     */
+    private void commit() {
+        commitScheduled.set(false);
+        List<JpaPersistentItem> items = new ArrayList<>();
+        @Nullable
+        JpaPersistentItem pItem;
+        while ((pItem = pendingItems.poll()) != null) {
+            pendingCount.decrementAndGet();
+            items.add(pItem);
+        }
+        if (!items.isEmpty()) {
+            persist(items);
+        }
+    }
+
+    /**
+     * Persists the items in one transaction. If this fails, the items are persisted one by one, so that only the
+     * failing items are lost.
+     *
+     * @param items the items to persist
+     */
+    private void persist(List<JpaPersistentItem> items) {
+        JpaEntityManagerPool pool = getEntityManagerPool();
+        EntityManager em = pool.acquire();
+        boolean reusable = false;
         try {
-            logger.debug("Persisting item...");
+            logger.debug("Persisting {} items...", items.size());
             // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
             em.getTransaction().begin();
-            em.persist(pItem);
+            for (JpaPersistentItem pItem : items) {
+                em.persist(pItem);
+            }
             em.getTransaction().commit();
-            logger.debug("Persisting item...done");
+            reusable = true;
+            logger.debug("Persisting {} items...done", items.size());
         } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            if (items.size() > 1) {
+                logger.debug("Failed to persist {} items in one transaction, persisting them one by one: {}",
+                        items.size(), e.getMessage());
+                pool.release(em, false);
+                for (JpaPersistentItem pItem : items) {
+                    // the rolled back items may have been assigned an id already
+                    persist(List.of(copy(pItem)));
+                }
+                return;
+            }
             if (e.getCause() instanceof EntityExistsException) {
                 // there's a UNIQUE constraint in the database, and we tried to write
                 // a duplicate timestamp. Just ignore
-                logger.debug("Failed to persist item {} because of duplicate timestamp", name);
+                logger.debug("Failed to persist item {} because of duplicate timestamp", items.get(0).getName());
             } else {
                 logger.error("Error while persisting item! Rolling back!", e);
             }
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
         }
+        pool.release(em, reusable);
+    }
 
-        logger.debug("Storing item...done");
+    private static JpaPersistentItem copy(JpaPersistentItem pItem) {
+        JpaPersistentItem copy = new JpaPersistentItem();
+        copy.setName(pItem.getName());
+        copy.setRealName(pItem.getRealName());
+        copy.setTimestamp(Date.from(pItem.getInstant()));
+        copy.setValue(pItem.getValue());
+        return copy;
     }
 
     @Override
@@ -205,42 +304,27 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             return List.of();
         }
 
-        String sortOrder;
-        if (filter.getOrdering() == Ordering.ASCENDING) {
-            sortOrder = "ASC";
-        } else {
-            sortOrder = "DESC";
-        }
+        // values that are still buffered are part of the result
+        commit();
 
-        boolean hasBeginDate = false;
-        boolean hasEndDate = false;
-        String queryString = "SELECT n FROM " + JpaPersistentItem.class.getSimpleName()
-                + " n WHERE n.realName = :itemName";
-        if (filter.getBeginDate() != null) {
-            queryString += " AND n.timestamp >= :beginDate";
-            hasBeginDate = true;
-        }
-        if (filter.getEndDate() != null) {
-            queryString += " AND n.timestamp <= :endDate";
-            hasEndDate = true;
-        }
-        queryString += " ORDER BY n.timestamp " + sortOrder;
-
-        logger.debug("The query: {}", queryString);
+        ZonedDateTime beginDate = filter.getBeginDate();
+        ZonedDateTime endDate = filter.getEndDate();
+        String queryName = JpaPersistentItem.queryName(beginDate != null, endDate != null,
+                filter.getOrdering() == Ordering.ASCENDING);
+        logger.debug("The query: {}", queryName);
 
-        EntityManager em = getEntityManagerFactory().createEntityManager();
+        JpaEntityManagerPool pool = getEntityManagerPool();
+        EntityManager em = pool.acquire();
+        boolean reusable = false;
         try {
-            // In RESOURCE_LOCAL calls to EntityManager require a begin/commit
-            em.getTransaction().begin();
-
             logger.debug("Creating query...");
-            Query query = em.createQuery(queryString);
+            TypedQuery<JpaPersistentItem> query = em.createNamedQuery(queryName, JpaPersistentItem.class);
             query.setParameter("itemName", item.getName());
-            if (hasBeginDate) {
-                query.setParameter("beginDate", Date.from(filter.getBeginDate().toInstant()));
+            if (beginDate != null) {
+                query.setParameter("beginDate", Date.from(beginDate.toInstant()));
             }
-            if (hasEndDate) {
-                query.setParameter("endDate", Date.from(filter.getEndDate().toInstant()));
+            if (endDate != null) {
+                query.setParameter("endDate", Date.from(endDate.toInstant()));
             }
 
             query.setFirstResult(filter.getPageNumber() * filter.getPageSize());
@@ -248,21 +332,18 @@ public class JpaPersistenceService implements QueryablePersistenceService {
             logger.debug("Creating query...done");
 
             logger.debug("Retrieving result list...");
-            @SuppressWarnings("unchecked")
             List<JpaPersistentItem> result = query.getResultList();
             logger.debug("Retrieving result list...done");
 
             List<HistoricItem> historicList = JpaHistoricItem.fromResultList(result, item);
             logger.debug("Convert to HistoricItem: {}", historicList.size());
 
-            em.getTransaction().commit();
-
+            reusable = true;
             return historicList;
         } catch (Exception e) {
             logger.error("Error while querying database!", e);
-            em.getTransaction().rollback();
         } finally {
-            em.close();
+            pool.release(em, reusable);
         }
 
         return List.of();
@@ -288,6 +369,10 @@ public class JpaPersistenceService implements QueryablePersistenceService {
         if (config.dbUserName.isBlank() && config.dbPassword.isBlank()) {
             logger.info("It is recommended to use a password to protect the JPA persistence data store");
         }
+        if (config.batchSize > 0) {
+            // send the inserts of a transaction in JDBC batches
+            properties.put("openjpa.jdbc.DBDictionary", "batchLimit=" + config.batchSize);
+        }
         if (!config.dbSyncMapping.isBlank()) {
             logger.info("You are setting openjpa.jdbc.SynchronizeMappings, I hope you know what you're doing!");
             properties.put("openjpa.jdbc.SynchronizeMappings", config.dbSyncMapping);
@@ -302,7 +387,12 @@ public class JpaPersistenceService implements QueryablePersistenceService {
     /**
      * Closes EntityManagerFactory
      */
-    protected void closeEntityManagerFactory() {
+    protected synchronized void closeEntityManagerFactory() {
+        JpaEntityManagerPool entityManagerPool = this.entityManagerPool;
+        if (entityManagerPool != null) {
+            entityManagerPool.close();
+            this.entityManagerPool = null;
+        }
         if (emf != null) {
             emf.close();
             emf = null;
@@ -28,6 +28,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -41,9 +43,41 @@ import jakarta.persistence.TemporalType;
 
 @Entity
 @Table(name = "HISTORIC_ITEM")
+@NamedQueries({ //
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameAsc", query = JpaPersistentItem.BY_REAL_NAME
+                + "ORDER BY n.timestamp ASC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameDesc", query = JpaPersistentItem.BY_REAL_NAME
+                + "ORDER BY n.timestamp DESC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameToAsc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp <= :endDate ORDER BY n.timestamp ASC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameToDesc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp <= :endDate ORDER BY n.timestamp DESC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameFromAsc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp >= :beginDate ORDER BY n.timestamp ASC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameFromDesc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp >= :beginDate ORDER BY n.timestamp DESC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameFromToAsc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp >= :beginDate AND n.timestamp <= :endDate ORDER BY n.timestamp ASC"),
+        @NamedQuery(name = "JpaPersistentItem.findByRealNameFromToDesc", query = JpaPersistentItem.BY_REAL_NAME
+                + "AND n.timestamp >= :beginDate AND n.timestamp <= :endDate ORDER BY n.timestamp DESC") })
 @NonNullByDefault
 public class JpaPersistentItem implements HistoricItem {
 
+    static final String BY_REAL_NAME = "SELECT n FROM JpaPersistentItem n WHERE n.realName = :itemName ";
+
+    /**
+     * Returns the name of the precompiled query for the states of an item.
+     *
+     * @param hasBeginDate whether the query has a <code>beginDate</code> parameter
+     * @param hasEndDate whether the query has an <code>endDate</code> parameter
+     * @param ascending the order of the states
+     * @return the name of the named query
+     */
+    public static String queryName(boolean hasBeginDate, boolean hasEndDate, boolean ascending) {
+        return "JpaPersistentItem.findByRealName" + (hasBeginDate ? "From" : "") + (hasEndDate ? "To" : "")
+                + (ascending ? "Asc" : "Desc");
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private @NonNullByDefault({}) Long id;
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binary encoding of a {@link MapDbItem}'s timestamp and state. The item name is not part of the encoding, it is the
+ * key the value is stored with.
+ * <p />
+ * Numbers and switch states are stored in binary form, the most common other types are stored as their full string
+ * representation with a type tag, all remaining types with their class name like the JSON format of
+ * {@link StateTypeAdapter}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodec {
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_OTHER = 0;
+    private static final byte TYPE_DECIMAL = 1;
+    private static final byte TYPE_PERCENT = 2;
+    private static final byte TYPE_ON_OFF = 3;
+    private static final byte TYPE_OPEN_CLOSED = 4;
+    private static final byte TYPE_STRING = 5;
+    private static final byte TYPE_QUANTITY = 6;
+    private static final byte TYPE_DATE_TIME = 7;
+    private static final byte TYPE_HSB = 8;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapDbItemCodec.class);
+
+    private MapDbItemCodec() {
+        // prevent instantiation
+    }
+
+    public static byte[] encode(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(item.getInstant().toEpochMilli());
+            State state = item.getState();
+            Class<?> type = state.getClass();
+            if (type == DecimalType.class) {
+                out.writeByte(TYPE_DECIMAL);
+                writeDecimal(out, ((DecimalType) state).toBigDecimal());
+            } else if (type == PercentType.class) {
+                out.writeByte(TYPE_PERCENT);
+                writeDecimal(out, ((PercentType) state).toBigDecimal());
+            } else if (type == OnOffType.class) {
+                out.writeByte(TYPE_ON_OFF);
+                out.writeBoolean(state == OnOffType.ON);
+            } else if (type == OpenClosedType.class) {
+                out.writeByte(TYPE_OPEN_CLOSED);
+                out.writeBoolean(state == OpenClosedType.OPEN);
+            } else if (type == StringType.class) {
+                out.writeByte(TYPE_STRING);
+                writeString(out, state.toFullString());
+            } else if (type == QuantityType.class) {
+                out.writeByte(TYPE_QUANTITY);
+                writeString(out, state.toFullString());
+            } else if (type == DateTimeType.class) {
+                out.writeByte(TYPE_DATE_TIME);
+                writeString(out, state.toFullString());
+            } else if (type == HSBType.class) {
+                out.writeByte(TYPE_HSB);
+                writeString(out, state.toFullString());
+            } else {
+                out.writeByte(TYPE_OTHER);
+                writeString(out, type.getName());
+                writeString(out, state.toFullString());
+            }
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode an item.
+     *
+     * @param name the name of the item
+     * @param bytes the encoded timestamp and state
+     * @return the item or <code>null</code> if the state could not be decoded
+     */
+    public static @Nullable MapDbItem decode(String name, byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                LOGGER.warn("Couldn't decode state of '{}': unknown version {}", name, version);
+                return null;
+            }
+            Date timestamp = new Date(in.readLong());
+            @Nullable
+            State state = switch (in.readByte()) {
+                case TYPE_DECIMAL -> new DecimalType(readDecimal(in));
+                case TYPE_PERCENT -> new PercentType(readDecimal(in));
+                case TYPE_ON_OFF -> OnOffType.from(in.readBoolean());
+                case TYPE_OPEN_CLOSED -> in.readBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                case TYPE_STRING -> new StringType(readString(in));
+                case TYPE_QUANTITY -> parse(QuantityType.class, readString(in));
+                case TYPE_DATE_TIME -> parse(DateTimeType.class, readString(in));
+                case TYPE_HSB -> parse(HSBType.class, readString(in));
+                case TYPE_OTHER -> parse(readString(in), readString(in));
+                default -> null;
+            };
+            if (state == null) {
+                LOGGER.warn("Couldn't decode state of '{}'", name);
+                return null;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(timestamp);
+            return item;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Couldn't decode state of '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static @Nullable State parse(String typeName, String value) {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> type = (Class<? extends State>) Class.forName(typeName);
+            return parse(type, value);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Couldn't decode state '{}' of type '{}': {}", value, typeName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static @Nullable State parse(Class<? extends State> type, String value) {
+        return TypeParser.parseState(List.of(type), value);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
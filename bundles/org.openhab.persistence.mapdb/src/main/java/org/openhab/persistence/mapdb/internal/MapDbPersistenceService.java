@@ -25,13 +25,18 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.BTreeKeySerializer;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.Item;
@@ -71,6 +76,12 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private static final Path DB_DIR = new File(OpenHAB.getUserDataFolder(), "persistence").toPath().resolve("mapdb");
     private static final Path BACKUP_DIR = DB_DIR.resolve("backup");
     private static final String DB_FILE_NAME = "storage.mapdb";
+    private static final String JSON_STORE_NAME = "itemStore";
+    private static final String STORE_NAME = "states";
+
+    // pending updates are committed after this interval or as soon as this number of updates is pending
+    private static final long COMMIT_INTERVAL_MS = 1000;
+    private static final int COMMIT_COUNT = 1000;
 
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
@@ -81,8 +92,14 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
      */
 
     private @NonNullByDefault({}) DB db;
-    private @NonNullByDefault({}) Map<String, String> map;
+    private @NonNullByDefault({}) Map<String, byte[]> map;
+
+    private final AtomicInteger pendingCommits = new AtomicInteger();
+    private @Nullable ScheduledFuture<?> commitJob;
 
+    /**
+     * only used to migrate the JSON store of previous versions
+     */
     private transient Gson mapper = new GsonBuilder().setDateFormat(DateTimeType.DATE_PATTERN_JSON_COMPAT)
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter()).create();
 
@@ -101,7 +118,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         File dbFile = DB_DIR.resolve(DB_FILE_NAME).toFile();
         try {
             db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-            map = db.createTreeMap("itemStore").makeOrGet();
+            map = openStore(db);
         } catch (RuntimeException re) {
             Throwable cause = re.getCause();
             if (cause instanceof ClassNotFoundException cnf) {
@@ -133,23 +150,65 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
                 }
 
                 db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-                map = db.createTreeMap("itemStore").makeOrGet();
+                map = openStore(db);
             } else {
                 logger.warn("Failed to create or open the MapDB: {}", re.getMessage());
                 logger.warn("MapDB persistence service activation has failed.");
+                return;
             }
         }
+        commitJob = ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON)
+                .scheduleWithFixedDelay(this::commit, COMMIT_INTERVAL_MS, COMMIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
         logger.debug("MapDB persistence service is now activated");
     }
 
     @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> commitJob = this.commitJob;
+        if (commitJob != null) {
+            commitJob.cancel(false);
+            this.commitJob = null;
+        }
         if (db != null) {
+            commit();
             db.close();
         }
     }
 
+    /**
+     * Open the store of binary encoded states. The JSON encoded states of previous versions are migrated into it.
+     */
+    private Map<String, byte[]> openStore(DB db) {
+        Map<String, byte[]> store = db.createTreeMap(STORE_NAME).keySerializer(BTreeKeySerializer.STRING)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        if (db.exists(JSON_STORE_NAME)) {
+            Map<String, String> jsonStore = db.getTreeMap(JSON_STORE_NAME);
+            int migrated = 0;
+            for (Map.Entry<String, String> entry : jsonStore.entrySet()) {
+                Optional<MapDbItem> item = deserialize(entry.getValue());
+                if (item.isPresent()) {
+                    store.put(entry.getKey(), MapDbItemCodec.encode(item.get()));
+                    migrated++;
+                }
+            }
+            db.delete(JSON_STORE_NAME);
+            db.commit();
+            logger.info("Migrated {} of {} item states to the binary format.", migrated, jsonStore.size());
+        }
+        return store;
+    }
+
+    private synchronized void commit() {
+        if (pendingCommits.getAndSet(0) > 0) {
+            try {
+                db.commit();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to commit to the MapDB: {}", e.getMessage());
+            }
+        }
+    }
+
     @Override
     public String getId() {
         return SERVICE_ID;
@@ -162,7 +221,8 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream().map(this::deserialize).flatMap(MapDbPersistenceService::streamOptional)
+        return map.entrySet().stream().map(entry -> decode(entry.getKey(), entry.getValue()))
+                .flatMap(MapDbPersistenceService::streamOptional)
                 .collect(Collectors.<PersistenceItemInfo> toUnmodifiableSet());
     }
 
@@ -187,25 +247,30 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setState(state);
         mItem.setTimestamp(new Date());
         threadPool.submit(() -> {
-            String json = serialize(mItem);
-            map.put(localAlias, json);
-            db.commit();
-            logger.debug("Stored '{}' with state '{}' as '{}' in MapDB database", localAlias, state, json);
+            map.put(localAlias, MapDbItemCodec.encode(mItem));
+            logger.debug("Stored '{}' with state '{}' in MapDB database", localAlias, state);
+            if (pendingCommits.incrementAndGet() >= COMMIT_COUNT) {
+                commit();
+            }
         });
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        String itemName = filter.getItemName();
+        if (itemName == null) {
+            return List.of();
+        }
+        byte[] bytes = map.get(itemName);
+        if (bytes == null) {
             return List.of();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = decode(itemName, bytes);
         return item.isPresent() ? List.of(item.get()) : List.of();
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<MapDbItem> decode(String name, byte[] bytes) {
+        return Optional.ofNullable(MapDbItemCodec.decode(name, bytes));
     }
 
     @SuppressWarnings("null")
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openhab.core.library.types.DateTimeType;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.library.types.PointType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.Units;
+import org.openhab.core.types.State;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemCodec;
+
+/**
+ * Tests the {@link MapDbItemCodec}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodecTest {
+
+    public static Stream<State> encodeDecodeRoundtripShouldRecreateTheItem() {
+        return Stream.of(DecimalType.ZERO, new DecimalType(1.123), new DecimalType(new BigDecimal("-1E+30")),
+                PercentType.HUNDRED, PercentType.valueOf("0.0000001"), OnOffType.ON, OnOffType.OFF,
+                OpenClosedType.OPEN, OpenClosedType.CLOSED, StringType.valueOf(""), StringType.valueOf("ä @@@ 1 2 3"),
+                QuantityType.valueOf("1 kW"), new QuantityType<>(new BigDecimal("21.23"), SIUnits.CELSIUS),
+                QuantityType.valueOf(20, Units.AMPERE), new DateTimeType("2024-05-01T12:34:56.789+02:00"),
+                HSBType.fromRGB(11, 22, 33), new PointType("52.5,13.4"));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    public void encodeDecodeRoundtripShouldRecreateTheItem(State state) {
+        MapDbItem item = new MapDbItem();
+        item.setName("item");
+        item.setState(state);
+        item.setTimestamp(new Date(1700000000123L));
+
+        MapDbItem actual = Objects.requireNonNull(MapDbItemCodec.decode("item", MapDbItemCodec.encode(item)));
+
+        assertThat(actual.getName(), is("item"));
+        assertThat(actual.getState(), is(equalTo(state)));
+        assertThat(actual.getInstant(), is(item.getInstant()));
+    }
+
+    @Test
+    public void invalidDataShouldNotBeDecoded() {
+        assertThat(MapDbItemCodec.decode("item", new byte[] { 1, 2, 3 }), is(nullValue()));
+        assertThat(MapDbItemCodec.decode("item", "{\"name\":\"item\"}".getBytes()), is(nullValue()));
+    }
+}
@@ -16,15 +16,23 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.openhab.core.config.core.ConfigParser;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
@@ -50,10 +58,16 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -69,12 +83,19 @@ import com.mongodb.client.result.DeleteResult;
                 + "=org.openhab.mongodb")
 public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
+    private static final int MAX_PAGE_BOUNDARIES = 100;
+    private static final int MAX_PENDING = 100000;
+
     private final Logger logger = LoggerFactory.getLogger(MongoDBPersistenceService.class);
 
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool("org.openhab.mongodb");
+
     private String url = "";
     private String db = "";
     private String collection = "";
     private boolean collectionPerItem;
+    private int batchSize;
+    private boolean timeSeries;
 
     private boolean initialized = false;
 
@@ -82,6 +103,29 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
     private @Nullable MongoClient cl;
 
+    private final Map<String, MongoCollection<Document>> collections = new ConcurrentHashMap<>();
+    private final Set<String> timeSeriesCollections = ConcurrentHashMap.newKeySet();
+    private @Nullable MongoDBWriteBuffer writeBuffer;
+    private @Nullable ScheduledFuture<?> commitJob;
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+
+    /**
+     * The last document of already queried pages, keyed by the number of the following page. A query of a later page
+     * continues from the nearest of these documents instead of skipping all documents of the previous pages.
+     * <p />
+     * {@link FilterCriteria} has no way to pass such a document, so only pages following a page queried before by
+     * this service are found here. Callers querying large ranges should narrow the begin or end date instead, which
+     * is answered by the (item, timestamp, _id) index without skipping.
+     */
+    private final Map<String, Document> pageBoundaries = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, Document> eldest) {
+            return size() > MAX_PAGE_BOUNDARIES;
+        }
+    };
+
     @Activate
     public MongoDBPersistenceService(final @Reference ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
@@ -113,6 +157,17 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         collection = dbCollection == null ? "" : dbCollection;
         collectionPerItem = dbCollection == null || dbCollection.isBlank();
 
+        batchSize = ConfigParser.valueAsOrElse(config.get("batchSize"), Integer.class, 0);
+        int commitInterval = ConfigParser.valueAsOrElse(config.get("commitInterval"), Integer.class, 1);
+        timeSeries = ConfigParser.valueAsOrElse(config.get("timeSeries"), Boolean.class, false);
+        if (batchSize > 0) {
+            logger.debug("MongoDB writes batches of {} documents at least every {}s", batchSize, commitInterval);
+            writeBuffer = new MongoDBWriteBuffer(Math.max(MAX_PENDING, batchSize), timeSeriesCollections::contains);
+            commitInterval = Math.max(commitInterval, 1);
+            commitJob = scheduler.scheduleWithFixedDelay(this::commit, commitInterval, commitInterval,
+                    TimeUnit.SECONDS);
+        }
+
         if (!tryConnectToDatabase()) {
             logger.warn("Failed to connect to MongoDB server. Trying to reconnect later.");
         }
@@ -123,9 +178,37 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
     @Deactivate
     public void deactivate(final int reason) {
         logger.debug("MongoDB persistence bundle stopping. Disconnecting from database.");
+        ScheduledFuture<?> commitJob = this.commitJob;
+        if (commitJob != null) {
+            commitJob.cancel(false);
+            this.commitJob = null;
+        }
+        commit();
+        MongoDBWriteBuffer writeBuffer = this.writeBuffer;
+        if (writeBuffer != null && writeBuffer.getPendingCount() > 0) {
+            logger.warn("MongoDB persistence stopped with {} values not persisted", writeBuffer.getPendingCount());
+        }
+        this.writeBuffer = null;
         disconnectFromDatabase();
     }
 
+    /**
+     * Write the buffered documents.
+     */
+    private void commit() {
+        commitScheduled.set(false);
+        MongoDBWriteBuffer writeBuffer = this.writeBuffer;
+        if (writeBuffer == null || writeBuffer.getPendingCount() == 0) {
+            return;
+        }
+        if (!tryConnectToDatabase()) {
+            logger.warn("mongodb: No connection to database. Cannot persist {} values, will retry.",
+                    writeBuffer.getPendingCount());
+            return;
+        }
+        writeBuffer.flush(this::connectToCollection);
+    }
+
     @Override
     public String getId() {
         return "mongodb";
@@ -211,6 +294,10 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
      * @return The collection object when collection creation was successful. Null otherwise.
      */
     private @Nullable MongoCollection<Document> connectToCollection(String collectionName) {
+        MongoCollection<Document> mongoCollection = collections.get(collectionName);
+        if (mongoCollection != null) {
+            return mongoCollection;
+        }
         try {
             @Nullable
             MongoClient db = getDatabase();
@@ -220,12 +307,30 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
                 return null;
             }
 
-            MongoCollection<Document> mongoCollection = db.getDatabase(this.db).getCollection(collectionName);
+            MongoDatabase database = db.getDatabase(this.db);
+            if (timeSeries) {
+                createTimeSeriesCollection(database, collectionName);
+            }
+            mongoCollection = database.getCollection(collectionName);
 
             Document idx = new Document();
             idx.append(MongoDBFields.FIELD_ITEM, 1).append(MongoDBFields.FIELD_TIMESTAMP, 1);
-            mongoCollection.createIndex(idx);
+            if (isTimeSeriesCollection(database, collectionName)) {
+                // secondary indexes of time series collections are restricted, _id can't be part of them
+                timeSeriesCollections.add(collectionName);
+                try {
+                    mongoCollection.createIndex(idx);
+                } catch (MongoException e) {
+                    logger.debug("Failed to create index for time series collection {}: {}", collectionName,
+                            e.getMessage());
+                }
+            } else {
+                // _id orders documents with the same timestamp for paging
+                idx.append(MongoDBFields.FIELD_ID, 1);
+                mongoCollection.createIndex(idx);
+            }
 
+            collections.put(collectionName, mongoCollection);
             return mongoCollection;
         } catch (Exception e) {
             logger.error("Failed to connect to collection {}: {}", collectionName, e.getMessage(), e);
@@ -233,6 +338,32 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         }
     }
 
+    /**
+     * Creates a time series collection with the item name as meta field, unless the collection exists. Servers before
+     * MongoDB 5.0 do not support time series collections, a regular collection will be created on the first insert.
+     */
+    private void createTimeSeriesCollection(MongoDatabase database, String collectionName) {
+        for (String name : database.listCollectionNames()) {
+            if (name.equals(collectionName)) {
+                return;
+            }
+        }
+        try {
+            TimeSeriesOptions options = new TimeSeriesOptions(MongoDBFields.FIELD_TIMESTAMP)
+                    .metaField(MongoDBFields.FIELD_ITEM).granularity(TimeSeriesGranularity.SECONDS);
+            database.createCollection(collectionName, new CreateCollectionOptions().timeSeriesOptions(options));
+            logger.debug("Created time series collection {}", collectionName);
+        } catch (MongoException e) {
+            logger.warn("Failed to create time series collection {}, using a regular collection: {}", collectionName,
+                    e.getMessage());
+        }
+    }
+
+    private boolean isTimeSeriesCollection(MongoDatabase database, String collectionName) {
+        Document info = database.listCollections().filter(new Document("name", collectionName)).first();
+        return info != null && "timeseries".equals(info.getString("type"));
+    }
+
     /**
      * Disconnects from the database
      */
@@ -243,10 +374,13 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         }
 
         cl = null;
+        collections.clear();
+        timeSeriesCollections.clear();
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
+        commit();
         MongoCollection<Document> collection = prepareCollection(filter);
         // If collection creation failed, return nothing.
         if (collection == null) {
@@ -275,11 +409,27 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
         logger.debug("Query: {}", query);
 
-        Integer sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
+        int sortDir = (filter.getOrdering() == Ordering.ASCENDING) ? 1 : -1;
+        Document sort = new Document(MongoDBFields.FIELD_TIMESTAMP, sortDir).append(MongoDBFields.FIELD_ID, sortDir);
+        int pageNumber = filter.getPageNumber();
+        int pageSize = filter.getPageSize();
+        String pageKey = collection.getNamespace().getCollectionName() + sortDir + pageSize + query.toJson();
+
+        PageBoundary boundary = pageNumber > 0 ? getPageBoundary(pageKey, pageNumber) : null;
+        FindIterable<Document> find;
+        if (boundary != null) {
+            // continue after the last document of the nearest previous page that has been queried
+            find = collection.find(new Document("$and", List.of(query, createPageQuery(boundary.document(), sortDir))))
+                    .sort(sort).skip((pageNumber - boundary.pageNumber()) * pageSize).limit(pageSize);
+        } else {
+            find = collection.find(query).sort(sort).skip(pageNumber * pageSize).limit(pageSize);
+        }
+
         MongoCursor<Document> cursor = null;
+        @Nullable
+        Document last = null;
         try {
-            cursor = collection.find(query).sort(new Document(MongoDBFields.FIELD_TIMESTAMP, sortDir))
-                    .skip(filter.getPageNumber() * filter.getPageSize()).limit(filter.getPageSize()).iterator();
+            cursor = find.iterator();
 
             while (cursor.hasNext()) {
                 Document obj = cursor.next();
@@ -287,6 +437,7 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
                 final State state = MongoDBTypeConversions.getStateFromDocument(item, obj);
 
                 items.add(new MongoDBItem(realItemName, state, obj.getDate(MongoDBFields.FIELD_TIMESTAMP).toInstant()));
+                last = obj;
             }
         } finally {
             if (cursor != null) {
@@ -294,9 +445,49 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
             }
         }
 
+        if (last != null && items.size() == pageSize && pageSize < Integer.MAX_VALUE) {
+            synchronized (pageBoundaries) {
+                pageBoundaries.put(pageKey + "#" + (pageNumber + 1), new Document(MongoDBFields.FIELD_TIMESTAMP,
+                        last.get(MongoDBFields.FIELD_TIMESTAMP)).append(MongoDBFields.FIELD_ID,
+                                last.get(MongoDBFields.FIELD_ID)));
+            }
+        }
+
         return items;
     }
 
+    private record PageBoundary(int pageNumber, Document document) {
+    }
+
+    /**
+     * Finds the boundary of the given page or of the nearest previous page that is still known.
+     */
+    private @Nullable PageBoundary getPageBoundary(String pageKey, int pageNumber) {
+        synchronized (pageBoundaries) {
+            for (int page = pageNumber; page > 0 && page > pageNumber - MAX_PAGE_BOUNDARIES; page--) {
+                Document document = pageBoundaries.get(pageKey + "#" + page);
+                if (document != null) {
+                    return new PageBoundary(page, document);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Creates a query for the documents after the given boundary in sort order, which can be answered with the
+     * (item, timestamp, _id) index.
+     */
+    private Document createPageQuery(Document boundary, int sortDir) {
+        String op = sortDir > 0 ? "$gt" : "$lt";
+        Object timestamp = boundary.get(MongoDBFields.FIELD_TIMESTAMP);
+        Object id = boundary.get(MongoDBFields.FIELD_ID);
+        return new Document("$or",
+                List.of(new Document(MongoDBFields.FIELD_TIMESTAMP, new Document(op, timestamp)),
+                        new Document(MongoDBFields.FIELD_TIMESTAMP, timestamp).append(MongoDBFields.FIELD_ID,
+                                new Document(op, id))));
+    }
+
     private @Nullable Item getItem(String itemName) {
         try {
             return itemRegistry.getItem(itemName);
@@ -344,6 +535,17 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
             return;
         }
 
+        MongoDBWriteBuffer writeBuffer = this.writeBuffer;
+        if (writeBuffer != null) {
+            String realItemName = item.getName();
+            String collectionName = collectionPerItem ? realItemName : this.collection;
+            if (writeBuffer.add(collectionName, createDocument(item, date, state, alias)) >= batchSize
+                    && commitScheduled.compareAndSet(false, true)) {
+                scheduler.execute(this::commit);
+            }
+            return;
+        }
+
         // Connect to mongodb server if we're not already connected
         // If we can't connect, log.
         if (!tryConnectToDatabase()) {
@@ -364,6 +566,19 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
             return;
         }
 
+        Document obj = createDocument(item, date, state, alias);
+        String name = obj.getString(MongoDBFields.FIELD_ITEM);
+        try {
+            collection.insertOne(obj);
+        } catch (org.bson.BsonMaximumSizeExceededException e) {
+            logger.error("Document size exceeds maximum size of 16MB. Item {} not persisted.", name);
+            throw e;
+        }
+        logger.debug("MongoDB save {}={}", name, obj.get(MongoDBFields.FIELD_VALUE));
+    }
+
+    private Document createDocument(Item item, Date date, State state, @Nullable String alias) {
+        String realItemName = item.getName();
         String name = (alias != null) ? alias : realItemName;
         Object value = MongoDBTypeConversions.convertValue(state);
 
@@ -376,13 +591,7 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
         if (item instanceof NumberItem && state instanceof QuantityType<?>) {
             obj.put(MongoDBFields.FIELD_UNIT, ((QuantityType<?>) state).getUnit().toString());
         }
-        try {
-            collection.insertOne(obj);
-        } catch (org.bson.BsonMaximumSizeExceededException e) {
-            logger.error("Document size exceeds maximum size of 16MB. Item {} not persisted.", name);
-            throw e;
-        }
-        logger.debug("MongoDB save {}={}", name, value);
+        return obj;
     }
 
     @Nullable
@@ -465,6 +674,7 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
     @Override
     public boolean remove(FilterCriteria filter) {
+        commit();
         MongoCollection<Document> collection = prepareCollection(filter);
         // If collection creation failed, return nothing.
         if (collection == null) {
@@ -479,7 +689,20 @@ public class MongoDBPersistenceService implements ModifiablePersistenceService {
 
         logger.debug("Query: {}", query);
 
-        DeleteResult result = collection.deleteMany(query);
+        DeleteResult result;
+        try {
+            result = collection.deleteMany(query);
+        } catch (MongoException e) {
+            if (!timeSeriesCollections.contains(collection.getNamespace().getCollectionName())) {
+                throw e;
+            }
+            logger.warn("Failed to remove values from time series collection {}, MongoDB 7.0 or later is required: {}",
+                    collection.getNamespace().getCollectionName(), e.getMessage());
+            return false;
+        }
+        synchronized (pageBoundaries) {
+            pageBoundaries.clear();
+        }
 
         logger.debug("Deleted {} documents", result.getDeletedCount());
         return true;
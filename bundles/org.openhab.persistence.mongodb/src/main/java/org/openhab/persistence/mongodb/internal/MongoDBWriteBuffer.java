@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.bson.BsonMaximumSizeExceededException;
+import org.bson.Document;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+/**
+ * The {@link MongoDBWriteBuffer} collects documents per collection and writes them with one unordered
+ * <code>insertMany</code> per collection.
+ * <p />
+ * All documents get their <code>_id</code> when they are created, so writing a batch again after a failure is safe:
+ * documents that were already inserted are rejected as duplicates while the others are inserted. Time series
+ * collections have no unique index on <code>_id</code>, so the documents of a failed batch that were inserted anyway
+ * are looked up and removed from the batch before it is written again. Failed batches are kept for the next flush, at
+ * most <code>maxPending</code> documents are kept, older documents are dropped.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBWriteBuffer {
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    private final Logger logger = LoggerFactory.getLogger(MongoDBWriteBuffer.class);
+
+    private final int maxPending;
+    private final Predicate<String> isTimeSeries;
+    private final Object flushLock = new Object();
+
+    private Map<String, List<Document>> pending = new LinkedHashMap<>();
+    private int pendingCount;
+    // collections whose last batch failed, only accessed while holding the flush lock
+    private final Set<String> failedCollections = new HashSet<>();
+
+    /**
+     * Create a write buffer.
+     *
+     * @param maxPending the maximum number of buffered documents
+     * @param isTimeSeries returns <code>true</code> if the collection with the given name is a time series collection
+     */
+    public MongoDBWriteBuffer(int maxPending, Predicate<String> isTimeSeries) {
+        this.maxPending = maxPending;
+        this.isTimeSeries = isTimeSeries;
+    }
+
+    /**
+     * Add a document to the buffer.
+     *
+     * @param collectionName the name of the collection to write the document to
+     * @param document the document
+     * @return the number of buffered documents
+     */
+    public synchronized int add(String collectionName, Document document) {
+        pending.computeIfAbsent(collectionName, name -> new ArrayList<>()).add(document);
+        pendingCount++;
+        if (pendingCount > maxPending) {
+            dropOldest();
+        }
+        return pendingCount;
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Write all buffered documents.
+     *
+     * @param collections returns the collection with the given name or <code>null</code> if it is not available
+     * @return <code>true</code> if all documents have been written
+     */
+    public boolean flush(Function<String, @Nullable MongoCollection<Document>> collections) {
+        // a flush returns only after the documents of a concurrent flush have been written as well
+        synchronized (flushLock) {
+            return flushPending(collections);
+        }
+    }
+
+    private boolean flushPending(Function<String, @Nullable MongoCollection<Document>> collections) {
+        Map<String, List<Document>> batches;
+        synchronized (this) {
+            if (pendingCount == 0) {
+                return true;
+            }
+            batches = pending;
+            pending = new LinkedHashMap<>();
+            pendingCount = 0;
+        }
+
+        Map<String, List<Document>> failed = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Document>> batch : batches.entrySet()) {
+            String collectionName = batch.getKey();
+            @Nullable
+            MongoCollection<Document> collection = collections.apply(collectionName);
+            if (collection == null || !write(collectionName, collection, batch.getValue())) {
+                failed.put(collectionName, batch.getValue());
+                failedCollections.add(collectionName);
+            } else {
+                failedCollections.remove(collectionName);
+            }
+        }
+
+        if (failed.isEmpty()) {
+            return true;
+        }
+        synchronized (this) {
+            // failed documents are older than everything added in the meantime
+            for (Map.Entry<String, List<Document>> batch : pending.entrySet()) {
+                failed.computeIfAbsent(batch.getKey(), name -> new ArrayList<>()).addAll(batch.getValue());
+            }
+            pending = failed;
+            pendingCount = failed.values().stream().mapToInt(List::size).sum();
+            while (pendingCount > maxPending) {
+                dropOldest();
+            }
+        }
+        return false;
+    }
+
+    private boolean write(String collectionName, MongoCollection<Document> collection, List<Document> documents) {
+        try {
+            if (failedCollections.contains(collectionName) && isTimeSeries.test(collectionName)) {
+                documents = withoutInserted(collection, documents);
+                if (documents.isEmpty()) {
+                    return true;
+                }
+            }
+            collection.insertMany(documents, UNORDERED);
+            logger.debug("MongoDB saved {} documents to {}", documents.size(), collection.getNamespace());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            // the server inserted all other documents
+            long duplicates = e.getWriteErrors().stream()
+                    .filter(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY)
+                    .count();
+            if (duplicates < e.getWriteErrors().size()) {
+                logger.warn("Failed to persist {} of {} documents in {}: {}", e.getWriteErrors().size() - duplicates,
+                        documents.size(), collection.getNamespace(), e.getWriteErrors().get(0).getMessage());
+            }
+            return true;
+        } catch (BsonMaximumSizeExceededException e) {
+            return writeEach(collection, documents);
+        } catch (MongoException e) {
+            logger.warn("Failed to persist {} documents in {}, will retry: {}", documents.size(),
+                    collection.getNamespace(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Remove the documents that have already been inserted by a failed batch.
+     */
+    private List<Document> withoutInserted(MongoCollection<Document> collection, List<Document> documents) {
+        List<Object> ids = new ArrayList<>(documents.size());
+        documents.forEach(document -> ids.add(document.get(MongoDBFields.FIELD_ID)));
+        Set<Object> inserted = collection
+                .distinct(MongoDBFields.FIELD_ID, new Document(MongoDBFields.FIELD_ID, new Document("$in", ids)),
+                        Object.class)
+                .into(new HashSet<>());
+        if (inserted.isEmpty()) {
+            return documents;
+        }
+        logger.debug("{} documents of a failed batch have been inserted in {}", inserted.size(),
+                collection.getNamespace());
+        List<Document> remaining = new ArrayList<>(documents.size() - inserted.size());
+        for (Document document : documents) {
+            if (!inserted.contains(document.get(MongoDBFields.FIELD_ID))) {
+                remaining.add(document);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Write the documents one by one to skip the documents exceeding the maximum document size.
+     */
+    private boolean writeEach(MongoCollection<Document> collection, List<Document> documents) {
+        for (Document document : documents) {
+            try {
+                collection.insertOne(document);
+            } catch (BsonMaximumSizeExceededException e) {
+                logger.error("Document size exceeds maximum size of 16MB. Item {} not persisted.",
+                        document.get(MongoDBFields.FIELD_ITEM));
+            } catch (MongoWriteException e) {
+                if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                    logger.warn("Failed to persist item {}: {}", document.get(MongoDBFields.FIELD_ITEM),
+                            e.getMessage());
+                }
+            } catch (MongoException e) {
+                logger.warn("Failed to persist documents in {}, will retry: {}", collection.getNamespace(),
+                        e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dropOldest() {
+        // drop from the collection that has been buffered first, its first document is among the oldest
+        Map.Entry<String, List<Document>> first = pending.entrySet().iterator().next();
+        List<Document> documents = first.getValue();
+        documents.remove(0);
+        if (documents.isEmpty()) {
+            pending.remove(first.getKey());
+        }
+        pendingCount--;
+        logger.warn("MongoDB write buffer is full, dropped a buffered value of collection {}", first.getKey());
+    }
+}
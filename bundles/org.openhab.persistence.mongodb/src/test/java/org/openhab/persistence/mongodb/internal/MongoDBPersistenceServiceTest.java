@@ -48,6 +48,7 @@ import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.RawType;
 import org.openhab.core.persistence.FilterCriteria;
 import org.openhab.core.persistence.HistoricItem;
+import org.openhab.core.types.State;
 import org.osgi.framework.BundleContext;
 
 import com.mongodb.client.MongoCollection;
@@ -990,4 +991,144 @@ public class MongoDBPersistenceServiceTest {
             dbContainer.stop();
         }
     }
+
+    /**
+     * Tests that buffered values are written with one batch before they are queried.
+     */
+    @Test
+    public void testBufferedStoreIsWrittenBeforeQuery() {
+        // Preparation
+        DatabaseTestContainer dbContainer = new DatabaseTestContainer(new MemoryBackend());
+        try {
+            SetupResult setupResult = DataCreationHelper.setupMongoDB("testCollection", dbContainer);
+            MongoDBPersistenceService service = setupResult.service;
+            MongoDatabase database = setupResult.database;
+            setupResult.config.put("batchSize", 100);
+            setupResult.config.put("commitInterval", 3600);
+
+            service.activate(setupResult.bundleContext, setupResult.config);
+
+            NumberItem item = DataCreationHelper.createNumberItem("TestItem", 0);
+            Mockito.when(setupResult.itemRegistry.getItem("TestItem")).thenReturn(item);
+            ZonedDateTime now = ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                service.store(item, now.plusSeconds(i), new DecimalType(i));
+            }
+            MongoCollection<Document> collection = database.getCollection("testCollection");
+            assertEquals(0, collection.countDocuments());
+
+            // Execution
+            Iterable<HistoricItem> result = service.query(DataCreationHelper.createFilterCriteria("TestItem"));
+
+            // Verification
+            List<HistoricItem> items = new ArrayList<>();
+            result.forEach(items::add);
+            assertEquals(3, items.size());
+            assertEquals(3, collection.countDocuments());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(new DecimalType(i), items.get(i).getState());
+            }
+
+            service.store(item, now.plusSeconds(3), new DecimalType(3));
+            service.deactivate(0);
+            assertEquals(4, collection.countDocuments());
+        } catch (ItemNotFoundException e) {
+        } finally {
+            dbContainer.stop();
+        }
+    }
+
+    /**
+     * Tests that following pages return the same values as a query of all values, also if several values have the
+     * same timestamp.
+     */
+    @Test
+    public void testQueryFollowingPages() {
+        // Preparation
+        DatabaseTestContainer dbContainer = new DatabaseTestContainer(new MemoryBackend());
+        try {
+            SetupResult setupResult = DataCreationHelper.setupMongoDB("testCollection", dbContainer);
+            MongoDBPersistenceService service = setupResult.service;
+
+            service.activate(setupResult.bundleContext, setupResult.config);
+
+            NumberItem item = DataCreationHelper.createNumberItem("TestItem", 0);
+            Mockito.when(setupResult.itemRegistry.getItem("TestItem")).thenReturn(item);
+            ZonedDateTime now = ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            for (int i = 0; i < 25; i++) {
+                // values 10 to 14 have the same timestamp
+                service.store(item, now.plusSeconds(i >= 10 && i <= 14 ? 10 : i), new DecimalType(i));
+            }
+
+            for (FilterCriteria.Ordering ordering : FilterCriteria.Ordering.values()) {
+                FilterCriteria all = DataCreationHelper.createFilterCriteria("TestItem");
+                all.setOrdering(ordering);
+                all.setPageSize(100);
+                List<State> expected = new ArrayList<>();
+                service.query(all).forEach(historicItem -> expected.add(historicItem.getState()));
+
+                // Execution
+                List<State> paged = new ArrayList<>();
+                for (int page = 0; page < 5; page++) {
+                    FilterCriteria filter = DataCreationHelper.createFilterCriteria("TestItem");
+                    filter.setOrdering(ordering);
+                    filter.setPageSize(6);
+                    filter.setPageNumber(page);
+                    service.query(filter).forEach(historicItem -> paged.add(historicItem.getState()));
+                }
+
+                // Verification
+                assertEquals(25, expected.size());
+                assertEquals(expected, paged);
+            }
+        } catch (ItemNotFoundException e) {
+        } finally {
+            dbContainer.stop();
+        }
+    }
+
+    /**
+     * Tests that pages which do not follow the previously queried page return the same values as a query of all
+     * values.
+     */
+    @Test
+    public void testQueryPagesOutOfOrder() {
+        // Preparation
+        DatabaseTestContainer dbContainer = new DatabaseTestContainer(new MemoryBackend());
+        try {
+            SetupResult setupResult = DataCreationHelper.setupMongoDB("testCollection", dbContainer);
+            MongoDBPersistenceService service = setupResult.service;
+
+            service.activate(setupResult.bundleContext, setupResult.config);
+
+            NumberItem item = DataCreationHelper.createNumberItem("TestItem", 0);
+            Mockito.when(setupResult.itemRegistry.getItem("TestItem")).thenReturn(item);
+            ZonedDateTime now = ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            for (int i = 0; i < 25; i++) {
+                service.store(item, now.plusSeconds(i), new DecimalType(i));
+            }
+
+            FilterCriteria all = DataCreationHelper.createFilterCriteria("TestItem");
+            all.setOrdering(FilterCriteria.Ordering.ASCENDING);
+            all.setPageSize(100);
+            List<State> expected = new ArrayList<>();
+            service.query(all).forEach(historicItem -> expected.add(historicItem.getState()));
+
+            // Execution and verification
+            // pages 3, 2 and 1 continue from the last document of page 0, page 4 from the one of page 3
+            for (int page : new int[] { 0, 3, 2, 1, 4 }) {
+                FilterCriteria filter = DataCreationHelper.createFilterCriteria("TestItem");
+                filter.setOrdering(FilterCriteria.Ordering.ASCENDING);
+                filter.setPageSize(5);
+                filter.setPageNumber(page);
+                List<State> paged = new ArrayList<>();
+                service.query(filter).forEach(historicItem -> paged.add(historicItem.getState()));
+
+                assertEquals(expected.subList(page * 5, page * 5 + 5), paged);
+            }
+        } catch (ItemNotFoundException e) {
+        } finally {
+            dbContainer.stop();
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mongodb.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+/**
+ * Tests the retries of the {@link MongoDBWriteBuffer}.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class MongoDBWriteBufferTest {
+    private static final String COLLECTION = "testCollection";
+
+    private @NonNullByDefault({}) MongoCollection<Document> collection;
+    private @NonNullByDefault({}) DistinctIterable<Object> distinct;
+    private final List<Document> documents = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        collection = mock(MongoCollection.class);
+        distinct = mock(DistinctIterable.class);
+        when(collection.getNamespace()).thenReturn(new MongoNamespace("test", COLLECTION));
+        when(collection.distinct(eq(MongoDBFields.FIELD_ID), any(Bson.class), eq(Object.class))).thenReturn(distinct);
+        for (int i = 0; i < 3; i++) {
+            documents.add(new Document(MongoDBFields.FIELD_ID, new ObjectId()).append(MongoDBFields.FIELD_VALUE, i));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void retryOfTimeSeriesBatchSkipsInsertedDocuments() {
+        MongoDBWriteBuffer buffer = new MongoDBWriteBuffer(100, COLLECTION::equals);
+        documents.forEach(document -> buffer.add(COLLECTION, document));
+        // the first document was inserted before the connection failed
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(new MongoException("connection lost")).thenReturn(null);
+        when(distinct.into(any())).thenAnswer(invocation -> {
+            Collection<Object> ids = invocation.getArgument(0);
+            ids.add(documents.get(0).get(MongoDBFields.FIELD_ID));
+            return ids;
+        });
+
+        assertFalse(buffer.flush(name -> collection));
+        assertEquals(3, buffer.getPendingCount());
+        assertTrue(buffer.flush(name -> collection));
+        assertEquals(0, buffer.getPendingCount());
+
+        ArgumentCaptor<List<Document>> batches = ArgumentCaptor.forClass(List.class);
+        verify(collection, times(2)).insertMany(batches.capture(), any(InsertManyOptions.class));
+        assertEquals(documents, batches.getAllValues().get(0));
+        assertEquals(documents.subList(1, 3), batches.getAllValues().get(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void retryOfRegularBatchReliesOnUniqueIds() {
+        MongoDBWriteBuffer buffer = new MongoDBWriteBuffer(100, name -> false);
+        documents.forEach(document -> buffer.add(COLLECTION, document));
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(new MongoException("connection lost")).thenReturn(null);
+
+        assertFalse(buffer.flush(name -> collection));
+        assertTrue(buffer.flush(name -> collection));
+
+        ArgumentCaptor<List<Document>> batches = ArgumentCaptor.forClass(List.class);
+        verify(collection, times(2)).insertMany(batches.capture(), any(InsertManyOptions.class));
+        assertEquals(documents, batches.getAllValues().get(1));
+        verify(collection, never()).distinct(anyString(), any(Bson.class), any());
+    }
+
+    @Test
+    public void batchOfTimeSeriesCollectionIsNotLookedUpWithoutFailure() {
+        MongoDBWriteBuffer buffer = new MongoDBWriteBuffer(100, COLLECTION::equals);
+        documents.forEach(document -> buffer.add(COLLECTION, document));
+
+        assertTrue(buffer.flush(name -> collection));
+
+        verify(collection).insertMany(eq(documents), any(InsertManyOptions.class));
+        verify(collection, never()).distinct(anyString(), any(Bson.class), any());
+    }
+}
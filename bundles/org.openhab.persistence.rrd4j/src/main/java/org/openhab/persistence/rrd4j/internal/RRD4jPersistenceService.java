@@ -21,17 +21,21 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.DoubleFunction;
 import java.util.stream.Collectors;
@@ -81,10 +85,13 @@ import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdBackendFactory;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDb.Builder;
 import org.rrd4j.core.RrdDbPool;
 import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.RrdNioBackendFactory;
+import org.rrd4j.core.RrdRandomAccessFileBackendFactory;
 import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -113,8 +120,20 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private record StoreSample(long timestamp, double value) {
+    }
+
     public static final String SERVICE_ID = "rrd4j";
 
+    private static final String CONFIG_OPEN_FILES = "openFiles";
+    private static final String CONFIG_WRITER_THREADS = "writerThreads";
+    private static final String CONFIG_BACKEND = "backend";
+    private static final String CONFIG_SYNC_PERIOD = "syncPeriod";
+    private static final String BACKEND_FILE = "FILE";
+    private static final String BACKEND_NIO = "NIO";
+    private static final int DEFAULT_OPEN_FILES = 100;
+    private static final int DEFAULT_WRITER_THREADS = 1;
+
     private static final String DEFAULT_OTHER = "default_other";
     private static final String DEFAULT_NUMERIC = "default_numeric";
     private static final String DEFAULT_QUANTIFIABLE = "default_quantifiable";
@@ -129,12 +148,26 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     private final ConcurrentSkipListMap<Key, Double> storageMap = new ConcurrentSkipListMap<>(Key::compareTo);
 
+    // database handles kept open between writes, in least recently used order
+    private final Map<String, RrdDb> openDatabases = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile int openFiles = DEFAULT_OPEN_FILES;
+    // empty until configured, so that a backend left over from a previous activation is replaced
+    private String backend = "";
+    private int syncPeriod = RrdNioBackendFactory.DEFAULT_SYNC_PERIOD;
+    private final Object storeLock = new Object();
+
+    private final ThreadPoolExecutor writeExecutor = new ThreadPoolExecutor(DEFAULT_WRITER_THREADS,
+            DEFAULT_WRITER_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("RRD4j-writer"));
+
     private static final String DATASOURCE_STATE = "state";
 
     private static final Path DB_FOLDER = Path.of(OpenHAB.getUserDataFolder(), "persistence", "rrd4j").toAbsolutePath();
 
     private static final RrdDbPool DATABASE_POOL = new RrdDbPool();
 
+    private static volatile RrdBackendFactory backendFactory = new RrdRandomAccessFileBackendFactory();
+
     private final Logger logger = LoggerFactory.getLogger(RRD4jPersistenceService.class);
     private final ItemRegistry itemRegistry;
     private boolean active = false;
@@ -147,6 +180,16 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         return DATABASE_POOL;
     }
 
+    /**
+     * Returns the backend used to access the database files. All users of {@link #getDatabasePool()} must use it, as
+     * the pool shares open databases per backend.
+     *
+     * @return the configured backend factory
+     */
+    public static RrdBackendFactory getBackendFactory() {
+        return backendFactory;
+    }
+
     private final ScheduledFuture<?> storeJob;
 
     @Activate
@@ -159,6 +202,9 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
     @Modified
     protected void modified(final Map<String, Object> config) {
+        configureBackend(config);
+        configureWriter(config);
+
         // clean existing definitions
         rrdDefs.clear();
 
@@ -214,6 +260,11 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
                 // ignore service.pid and name
                 continue;
             }
+            if (CONFIG_OPEN_FILES.equals(key) || CONFIG_WRITER_THREADS.equals(key) || CONFIG_BACKEND.equals(key)
+                    || CONFIG_SYNC_PERIOD.equals(key)) {
+                // already handled by configureBackend and configureWriter
+                continue;
+            }
 
             String[] subkeys = key.split("\\.");
             if (subkeys.length != 2) {
@@ -265,6 +316,67 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
     }
 
+    private void configureBackend(final Map<String, Object> config) {
+        Object backendConfig = config.get(CONFIG_BACKEND);
+        String newBackend = backendConfig instanceof String value && !value.isBlank()
+                ? value.trim().toUpperCase(Locale.ROOT)
+                : BACKEND_FILE;
+        if (!BACKEND_FILE.equals(newBackend) && !BACKEND_NIO.equals(newBackend)) {
+            logger.warn("Ignoring unknown rrd4j backend '{}', using {}", newBackend, BACKEND_FILE);
+            newBackend = BACKEND_FILE;
+        }
+        int newSyncPeriod = Math.max(1,
+                getIntConfig(config, CONFIG_SYNC_PERIOD, RrdNioBackendFactory.DEFAULT_SYNC_PERIOD));
+        synchronized (storeLock) {
+            if (newBackend.equals(backend) && newSyncPeriod == syncPeriod) {
+                return;
+            }
+            // open databases are bound to the backend they were opened with
+            trimOpenDatabases(0);
+            backend = newBackend;
+            syncPeriod = newSyncPeriod;
+            if (BACKEND_NIO.equals(newBackend)) {
+                // memory-mapped files, modified pages are written back to disk every syncPeriod seconds
+                backendFactory = new RrdNioBackendFactory(newSyncPeriod, scheduler);
+                logger.debug("Using memory-mapped rrd4j backend, syncing every {} seconds", newSyncPeriod);
+            } else {
+                backendFactory = new RrdRandomAccessFileBackendFactory();
+                logger.debug("Using file rrd4j backend");
+            }
+        }
+    }
+
+    private void configureWriter(final Map<String, Object> config) {
+        // keep enough room in the pool for queries and charts, the pool blocks when it runs out of capacity
+        int maxOpenFiles = DATABASE_POOL.getCapacity() / 2;
+        openFiles = Math.max(0, Math.min(getIntConfig(config, CONFIG_OPEN_FILES, DEFAULT_OPEN_FILES), maxOpenFiles));
+        trimOpenDatabases(openFiles);
+
+        int writerThreads = Math.max(1, getIntConfig(config, CONFIG_WRITER_THREADS, DEFAULT_WRITER_THREADS));
+        if (writerThreads > writeExecutor.getMaximumPoolSize()) {
+            writeExecutor.setMaximumPoolSize(writerThreads);
+            writeExecutor.setCorePoolSize(writerThreads);
+        } else {
+            writeExecutor.setCorePoolSize(writerThreads);
+            writeExecutor.setMaximumPoolSize(writerThreads);
+        }
+        logger.debug("Keeping up to {} rrd4j databases open, writing with {} thread(s)", openFiles, writerThreads);
+    }
+
+    private int getIntConfig(final Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value instanceof Number number) {
+            return number.intValue();
+        } else if (value instanceof String string && !string.isBlank()) {
+            try {
+                return Integer.parseInt(string.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring illegal configuration {}={}, using {}", key, string, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     protected void deactivate() {
         active = false;
@@ -272,6 +384,8 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
 
         // make sure we really store everything
         doStore(true);
+        writeExecutor.shutdown();
+        trimOpenDatabases(0);
     }
 
     @Override
@@ -338,21 +452,52 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
     }
 
     private void doStore(boolean force) {
+        // getDB() synchronizes on the service, so the writer threads must not be waited for while holding that lock
+        synchronized (storeLock) {
+            doStoreLocked(force);
+        }
+    }
+
+    private void doStoreLocked(boolean force) {
         long now = System.currentTimeMillis() / 1000;
+        // group the samples per database file, each file is then written in one pass
+        Map<String, List<StoreSample>> samplesPerFile = new LinkedHashMap<>();
         while (!storageMap.isEmpty()) {
             Key key = storageMap.firstKey();
             if (now > key.timestamp || force) {
                 // no new elements can be added for this timestamp because we are already past that time or the service
                 // requires forced storing
                 Double value = storageMap.pollFirstEntry().getValue();
-                writePointToDatabase(key.name, value, key.timestamp);
+                samplesPerFile.computeIfAbsent(key.name, k -> new ArrayList<>())
+                        .add(new StoreSample(key.timestamp, value));
             } else {
-                return;
+                break;
             }
         }
+        if (samplesPerFile.isEmpty()) {
+            return;
+        }
+
+        if (samplesPerFile.size() == 1 || writeExecutor.getMaximumPoolSize() == 1 || writeExecutor.isShutdown()) {
+            samplesPerFile.forEach(this::writePointsToDatabase);
+            return;
+        }
+        List<Callable<@Nullable Void>> tasks = new ArrayList<>(samplesPerFile.size());
+        samplesPerFile.forEach((name, samples) -> tasks.add(() -> {
+            writePointsToDatabase(name, samples);
+            return null;
+        }));
+        try {
+            writeExecutor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException e) {
+            // the service is shutting down, write what is left on this thread
+            samplesPerFile.forEach(this::writePointsToDatabase);
+        }
     }
 
-    private synchronized void writePointToDatabase(String name, double value, long timestamp) {
+    private void writePointsToDatabase(String name, List<StoreSample> samples) {
         RrdDb db = null;
         try {
             db = getDB(name, true);
@@ -364,39 +509,107 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         }
 
         ConsolFun function = getConsolidationFunction(db);
-        if (function != ConsolFun.AVERAGE) {
-            try {
-                // we store the last value again, so that the value change
-                // in the database is not interpolated, but
-                // happens right at this spot
-                if (timestamp - 1 > db.getLastUpdateTime()) {
-                    // only do it if there is not already a value
-                    double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
-                    if (!Double.isNaN(lastValue) && lastValue != value) {
-                        Sample sample = db.createSample(timestamp - 1);
-                        sample.setValue(DATASOURCE_STATE, lastValue);
-                        sample.update();
-                        logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database (again)", name,
-                                lastValue, timestamp - 1);
+        long step = 1;
+        try {
+            if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) {
+                // counter values must be adjusted by stepsize
+                step = db.getHeader().getStep();
+            }
+        } catch (IOException e) {
+            logger.debug("Error reading datasource type of {}: {}", name, e.getMessage());
+        }
+        for (StoreSample storeSample : samples) {
+            long timestamp = storeSample.timestamp();
+            double value = storeSample.value();
+            if (function != ConsolFun.AVERAGE) {
+                try {
+                    // we store the last value again, so that the value change
+                    // in the database is not interpolated, but
+                    // happens right at this spot
+                    if (timestamp - 1 > db.getLastUpdateTime()) {
+                        // only do it if there is not already a value
+                        double lastValue = db.getLastDatasourceValue(DATASOURCE_STATE);
+                        if (!Double.isNaN(lastValue) && lastValue != value) {
+                            Sample sample = db.createSample(timestamp - 1);
+                            sample.setValue(DATASOURCE_STATE, lastValue);
+                            sample.update();
+                            logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database (again)",
+                                    name, lastValue, timestamp - 1);
+                        }
                     }
+                } catch (IOException e) {
+                    logger.debug("Error storing last value (again) for {}: {}", e.getMessage(), name);
                 }
-            } catch (IOException e) {
-                logger.debug("Error storing last value (again) for {}: {}", e.getMessage(), name);
+            }
+            try {
+                Sample sample = db.createSample(timestamp);
+                double storeValue = value * step;
+                sample.setValue(DATASOURCE_STATE, storeValue);
+                sample.update();
+                logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database", name, storeValue,
+                        timestamp);
+            } catch (Exception e) {
+                logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
             }
         }
-        try {
-            Sample sample = db.createSample(timestamp);
-            double storeValue = value;
-            if (db.getDatasource(DATASOURCE_STATE).getType() == DsType.COUNTER) {
-                // counter values must be adjusted by stepsize
-                storeValue = value * db.getHeader().getStep();
+        keepOpen(name, db);
+    }
+
+    /**
+     * Keeps a database handle open for the next write. The pool keeps the file open as long as a handle to it is
+     * not closed, so at most {@link #openFiles} handles are kept and the least recently used one is closed.
+     */
+    private void keepOpen(String name, RrdDb db) {
+        RrdDb unused = db;
+        List<RrdDb> evicted = new ArrayList<>();
+        synchronized (openDatabases) {
+            if (openFiles > 0 && !openDatabases.containsKey(name)) {
+                openDatabases.put(name, db);
+                unused = null;
+                Iterator<RrdDb> iterator = openDatabases.values().iterator();
+                while (openDatabases.size() > openFiles && iterator.hasNext()) {
+                    evicted.add(iterator.next());
+                    iterator.remove();
+                }
+            } else {
+                // refresh the position in the LRU order
+                openDatabases.get(name);
             }
-            sample.setValue(DATASOURCE_STATE, storeValue);
-            sample.update();
-            logger.debug("Stored '{}' as value '{}' with timestamp {} in rrd4j database", name, storeValue, timestamp);
-        } catch (Exception e) {
-            logger.warn("Could not persist '{}' to rrd4j database: {}", name, e.getMessage());
         }
+        if (unused != null) {
+            evicted.add(unused);
+        }
+        evicted.forEach(this::closeDatabase);
+    }
+
+    private void trimOpenDatabases(int maxSize) {
+        List<RrdDb> evicted = new ArrayList<>();
+        synchronized (openDatabases) {
+            Iterator<RrdDb> iterator = openDatabases.values().iterator();
+            while (openDatabases.size() > maxSize && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(this::closeDatabase);
+    }
+
+    /**
+     * Closes the database handle kept open for writing, e.g. before the file is deleted.
+     *
+     * @param name the name of the database
+     */
+    public void releaseDatabase(String name) {
+        RrdDb db;
+        synchronized (openDatabases) {
+            db = openDatabases.remove(name);
+        }
+        if (db != null) {
+            closeDatabase(db);
+        }
+    }
+
+    private void closeDatabase(RrdDb db) {
         try {
             db.close();
         } catch (IOException e) {
@@ -544,6 +757,7 @@ public class RRD4jPersistenceService implements QueryablePersistenceService {
         try {
             Builder builder = RrdDb.getBuilder();
             builder.setPool(DATABASE_POOL);
+            builder.setBackendFactory(backendFactory);
 
             if (Files.exists(path)) {
                 // recreate the RrdDb instance from the file
@@ -17,12 +17,24 @@ import static java.util.Map.entry;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
 
 import javax.imageio.ImageIO;
 import javax.servlet.Servlet;
@@ -33,6 +45,7 @@ import javax.servlet.ServletResponse;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.i18n.TimeZoneProvider;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.Item;
@@ -66,6 +79,8 @@ import org.slf4j.LoggerFactory;
  * <li>items: A comma separated list of item names to display
  * <li>groups: A comma separated list of group names, whose members should be displayed
  * </ul>
+ * Rendered charts are cached until the end of the current step of the underlying databases, as they cannot change
+ * before. Identical requests arriving while a chart is rendered wait for that rendering.
  *
  * @author Kai Kreuzer - Initial contribution
  * @author Chris Jackson - a few improvements
@@ -103,16 +118,75 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             entry("Y", Duration.ofDays(365))//
     );
 
+    private static final int MAX_PENDING_RENDERS = 32;
+    private static final long RENDER_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_STEP_SECONDS = 60;
+    private static final long STEP_CACHE_SECONDS = 300;
+
+    /**
+     * Identifies a rendered chart. Requests for the same chart within one step of the underlying databases share
+     * the same key. Theme, dpi and legend are not part of the key, as the charts are rendered without them.
+     */
+    private record ChartKey(@Nullable String items, @Nullable String groups, long period, long endStep, int width,
+            int height) {
+    }
+
+    /**
+     * The step of a database, which is read again after some time, as the database may be re-created with a
+     * different step.
+     */
+    private record CachedStep(long step, long expiresAt) {
+    }
+
+    /**
+     * A chart that is being or has been rendered, valid until the end of the current step.
+     */
+    private static class CachedChart {
+        private final CompletableFuture<BufferedImage> image = new CompletableFuture<>();
+        private final long expiresAt;
+        private byte @Nullable [] encoded;
+
+        private CachedChart(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private synchronized byte[] getEncoded(BufferedImage image, String format) throws IOException {
+            byte[] encoded = this.encoded;
+            if (encoded == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(image, format, out);
+                encoded = out.toByteArray();
+                this.encoded = encoded;
+            }
+            return encoded;
+        }
+    }
+
     private final HttpService httpService;
     private final ItemUIRegistry itemUIRegistry;
     private final TimeZoneProvider timeZoneProvider;
 
+    private final Map<ChartKey, CachedChart> chartCache = new ConcurrentHashMap<>();
+    private final Map<String, CachedStep> stepCache = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor renderExecutor;
+    private final LongSupplier currentTimeMillis;
+
     @Activate
     public RRD4jChartServlet(final @Reference HttpService httpService, final @Reference ItemUIRegistry itemUIRegistry,
             final @Reference TimeZoneProvider timeZoneProvider) {
+        this(httpService, itemUIRegistry, timeZoneProvider, System::currentTimeMillis);
+    }
+
+    RRD4jChartServlet(HttpService httpService, ItemUIRegistry itemUIRegistry, TimeZoneProvider timeZoneProvider,
+            LongSupplier currentTimeMillis) {
         this.httpService = httpService;
         this.itemUIRegistry = itemUIRegistry;
         this.timeZoneProvider = timeZoneProvider;
+        this.currentTimeMillis = currentTimeMillis;
+        int renderThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.renderExecutor = new ThreadPoolExecutor(renderThreads, renderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_RENDERS), new NamedThreadFactory("RRD4j-chart"));
+        this.renderExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Activate
@@ -128,6 +202,12 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     @Deactivate
     protected void deactivate() {
         httpService.unregister(SERVLET_NAME);
+        renderExecutor.shutdownNow();
+        // don't let requests wait for renders that will not run anymore
+        chartCache.values().forEach(
+                chart -> chart.image.completeExceptionally(new IllegalStateException("Chart servlet stopped")));
+        chartCache.clear();
+        stepCache.clear();
     }
 
     @Override
@@ -144,17 +224,22 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         ZonedDateTime timeBegin = timeEnd.minus(period);
 
         try {
-            BufferedImage chart = createChart(null, null, timeBegin, timeEnd, height, width, req.getParameter("items"),
-                    req.getParameter("groups"), null, null);
+            CachedChart chart = getChart(timeBegin, timeEnd, height, width, req.getParameter("items"),
+                    req.getParameter("groups"));
+            byte[] encoded = chart.getEncoded(awaitImage(chart), getChartType().toString());
             // Set the content type to that provided by the chart provider
             res.setContentType("image/" + getChartType());
-            ImageIO.write(chart, getChartType().toString(), res.getOutputStream());
+            res.setContentLength(encoded.length);
+            res.getOutputStream().write(encoded);
         } catch (ItemNotFoundException e) {
             logger.debug("Item not found error while generating chart", e);
             throw new ServletException("Item not found error while generating chart: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.debug("Illegal argument in chart", e);
             throw new ServletException("Illegal argument in chart: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.debug("Chart could not be rendered", e);
+            throw new ServletException("Chart could not be rendered: " + e.getMessage());
         }
     }
 
@@ -190,6 +275,7 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         try {
             Builder builder = RrdDb.getBuilder();
             builder.setPool(RRD4jPersistenceService.getDatabasePool());
+            builder.setBackendFactory(RRD4jPersistenceService.getBackendFactory());
             builder.setPath(rrdName);
 
             RrdDb db = builder.build();
@@ -200,11 +286,13 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
         }
         if (item instanceof NumberItem) {
             // we only draw a line
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun,
+                    RRD4jPersistenceService.getBackendFactory());
             graphDef.line(Integer.toString(counter), color, label, 2);
         } else {
             // we draw a line and fill the area beneath it with a transparent color
-            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun); // RRD4jService.getConsolidationFunction(item));
+            graphDef.datasource(Integer.toString(counter), rrdName, "state", consolFun,
+                    RRD4jPersistenceService.getBackendFactory());
             Color areaColor = AREACOLORS[counter % LINECOLORS.length];
 
             graphDef.area(Integer.toString(counter), areaColor);
@@ -242,23 +330,79 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
     public BufferedImage createChart(@Nullable String service, @Nullable String theme, ZonedDateTime startTime,
             ZonedDateTime endTime, int height, int width, @Nullable String items, @Nullable String groups,
             @Nullable Integer dpi, @Nullable Boolean legend) throws ItemNotFoundException {
-        RrdGraphDef graphDef = new RrdGraphDef(startTime.toEpochSecond(), endTime.toEpochSecond());
-        graphDef.setWidth(width);
-        graphDef.setHeight(height);
-        graphDef.setAntiAliasing(true);
-        graphDef.setImageFormat("PNG");
-        graphDef.setTextAntiAliasing(true);
-        graphDef.setFont(FontTag.TITLE, new Font("SansSerif", Font.PLAIN, 15));
-        graphDef.setFont(FontTag.DEFAULT, new Font("SansSerif", Font.PLAIN, 11));
+        return awaitImage(getChart(startTime, endTime, height, width, items, groups));
+    }
 
-        int seriesCounter = 0;
+    /**
+     * Returns the cached chart for the request, or starts rendering it. Concurrent requests for the same chart wait
+     * for the same rendering.
+     */
+    private CachedChart getChart(ZonedDateTime startTime, ZonedDateTime endTime, int height, int width,
+            @Nullable String items, @Nullable String groups) throws ItemNotFoundException {
+        List<Item> chartItems = getChartItems(items, groups);
+        long now = currentTimeMillis.getAsLong() / 1000;
+        long start = startTime.toEpochSecond();
+        long end = endTime.toEpochSecond();
+        long step = chartItems.stream().mapToLong(this::getStep).min().orElse(DEFAULT_STEP_SECONDS);
+        ChartKey key = new ChartKey(items, groups, end - start, end / step, width, height);
+
+        chartCache.values().removeIf(chart -> chart.expiresAt <= now);
+        stepCache.values().removeIf(cachedStep -> cachedStep.expiresAt <= now);
+        // charts ending in the past are kept for one step as well
+        CachedChart newChart = new CachedChart(Math.max((end / step + 1) * step, now + step));
+        CachedChart chart = chartCache.putIfAbsent(key, newChart);
+        if (chart != null) {
+            logger.trace("Using cached chart for {}", key);
+            return chart;
+        }
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    newChart.image.complete(renderChart(chartItems, start, end, height, width));
+                } catch (RuntimeException e) {
+                    // evict before completing, so requests seeing the failure render the chart again
+                    chartCache.remove(key, newChart);
+                    newChart.image.completeExceptionally(e);
+                } finally {
+                    if (!newChart.image.isDone()) {
+                        // an Error was thrown, waiting requests must not hang until they time out
+                        chartCache.remove(key, newChart);
+                        newChart.image.completeExceptionally(new IllegalStateException("Error generating RrdGraph"));
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            chartCache.remove(key, newChart);
+            throw new IllegalStateException("Too many charts are being rendered");
+        }
+        return newChart;
+    }
+
+    private BufferedImage awaitImage(CachedChart chart) {
+        try {
+            return chart.image.get(RENDER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error generating RrdGraph", cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Rendering the chart timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering the chart");
+        }
+    }
+
+    private List<Item> getChartItems(@Nullable String items, @Nullable String groups) throws ItemNotFoundException {
+        List<Item> chartItems = new ArrayList<>();
 
         // Loop through all the items
         if (items != null) {
             String[] itemNames = items.split(",");
             for (String itemName : itemNames) {
-                Item item = itemUIRegistry.getItem(itemName);
-                addLine(graphDef, item, seriesCounter++);
+                chartItems.add(itemUIRegistry.getItem(itemName));
             }
         }
 
@@ -268,14 +412,58 @@ public class RRD4jChartServlet implements Servlet, ChartProvider {
             for (String groupName : groupNames) {
                 Item item = itemUIRegistry.getItem(groupName);
                 if (item instanceof GroupItem groupItem) {
-                    for (Item member : groupItem.getMembers()) {
-                        addLine(graphDef, member, seriesCounter++);
-                    }
+                    chartItems.addAll(groupItem.getMembers());
                 } else {
                     throw new ItemNotFoundException("Item '" + item.getName() + "' defined in groups is not a group.");
                 }
             }
         }
+        return chartItems;
+    }
+
+    /**
+     * Returns the step of the database of an item, i.e. how often its chart can change.
+     */
+    long getStep(Item item) {
+        String name = item.getName();
+        long now = currentTimeMillis.getAsLong() / 1000;
+        CachedStep cachedStep = stepCache.get(name);
+        if (cachedStep != null && cachedStep.expiresAt > now) {
+            return cachedStep.step;
+        }
+        try {
+            Builder builder = RrdDb.getBuilder();
+            builder.setPool(RRD4jPersistenceService.getDatabasePool());
+            builder.setBackendFactory(RRD4jPersistenceService.getBackendFactory());
+            builder.setPath(RRD4jPersistenceService.getDatabasePath(name).toString());
+            RrdDb db = builder.build();
+            try {
+                long step = Math.max(1, db.getHeader().getStep());
+                stepCache.put(name, new CachedStep(step, now + STEP_CACHE_SECONDS));
+                return step;
+            } finally {
+                db.close();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // the database does not exist (yet)
+            return DEFAULT_STEP_SECONDS;
+        }
+    }
+
+    BufferedImage renderChart(List<Item> chartItems, long start, long end, int height, int width) {
+        RrdGraphDef graphDef = new RrdGraphDef(start, end);
+        graphDef.setWidth(width);
+        graphDef.setHeight(height);
+        graphDef.setAntiAliasing(true);
+        graphDef.setImageFormat("PNG");
+        graphDef.setTextAntiAliasing(true);
+        graphDef.setFont(FontTag.TITLE, new Font("SansSerif", Font.PLAIN, 15));
+        graphDef.setFont(FontTag.DEFAULT, new Font("SansSerif", Font.PLAIN, 11));
+
+        int seriesCounter = 0;
+        for (Item item : chartItems) {
+            addLine(graphDef, item, seriesCounter++);
+        }
 
         // Write the chart as a PNG image
         try {
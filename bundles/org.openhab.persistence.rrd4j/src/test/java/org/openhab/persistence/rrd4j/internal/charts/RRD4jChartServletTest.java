@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.rrd4j.internal.charts;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.core.i18n.TimeZoneProvider;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.library.items.NumberItem;
+import org.openhab.core.ui.items.ItemUIRegistry;
+import org.osgi.service.http.HttpService;
+
+/**
+ * Tests caching and coalescing of rendered charts in the {@link RRD4jChartServlet}.
+ *
+ * @author Agent - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@NonNullByDefault
+public class RRD4jChartServletTest {
+
+    private static final long STEP = 60;
+    // 10 seconds into a step
+    private static final long START_SECONDS = 1000 * STEP + 10;
+
+    private @Mock @NonNullByDefault({}) HttpService httpService;
+    private @Mock @NonNullByDefault({}) ItemUIRegistry itemUIRegistry;
+    private @Mock @NonNullByDefault({}) TimeZoneProvider timeZoneProvider;
+
+    private final AtomicLong nowSeconds = new AtomicLong(START_SECONDS);
+    private final AtomicInteger renderCount = new AtomicInteger();
+    private final AtomicInteger failingRenders = new AtomicInteger();
+    private CountDownLatch renderStarted = new CountDownLatch(0);
+    private CountDownLatch renderReleased = new CountDownLatch(0);
+    private @NonNullByDefault({}) RRD4jChartServlet servlet;
+
+    @BeforeEach
+    void setup() throws ItemNotFoundException {
+        when(itemUIRegistry.getItem("Temperature")).thenReturn(new NumberItem("Temperature"));
+        when(timeZoneProvider.getTimeZone()).thenReturn(ZoneOffset.UTC);
+        servlet = new RRD4jChartServlet(httpService, itemUIRegistry, timeZoneProvider,
+                () -> nowSeconds.get() * 1000) {
+            @Override
+            long getStep(Item item) {
+                return STEP;
+            }
+
+            @Override
+            BufferedImage renderChart(List<Item> chartItems, long start, long end, int height, int width) {
+                renderCount.incrementAndGet();
+                renderStarted.countDown();
+                try {
+                    renderReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failingRenders.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                    throw new IllegalArgumentException("Render failed");
+                }
+                return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        servlet.deactivate();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsRenderOnce() throws Exception {
+        renderStarted = new CountDownLatch(1);
+        renderReleased = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<BufferedImage>> images = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                images.add(requests.submit(this::createChart));
+            }
+            assertTrue(renderStarted.await(10, TimeUnit.SECONDS));
+            renderReleased.countDown();
+
+            BufferedImage first = images.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<BufferedImage> image : images) {
+                assertSame(first, image.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+        assertEquals(1, renderCount.get());
+    }
+
+    @Test
+    void cachedChartIsRenderedAgainAfterStepBoundary() throws Exception {
+        BufferedImage first = createChart();
+
+        // still within the same step
+        nowSeconds.set(1001 * STEP - 1);
+        assertSame(first, createChart());
+        assertEquals(1, renderCount.get());
+
+        nowSeconds.set(1001 * STEP);
+        assertNotSame(first, createChart());
+        assertEquals(2, renderCount.get());
+    }
+
+    @Test
+    void failedRenderIsEvictedAndRenderedAgain() throws Exception {
+        failingRenders.set(1);
+
+        assertThrows(IllegalArgumentException.class, this::createChart);
+
+        assertNotNull(createChart());
+        assertEquals(2, renderCount.get());
+    }
+
+    private BufferedImage createChart() throws ItemNotFoundException {
+        ZonedDateTime end = ZonedDateTime.ofInstant(Instant.ofEpochSecond(nowSeconds.get()), ZoneOffset.UTC);
+        return servlet.createChart(null, null, end.minusDays(1), end, 240, 480, "Temperature", null, null, null);
+    }
+}
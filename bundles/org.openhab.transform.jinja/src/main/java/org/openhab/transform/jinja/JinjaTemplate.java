@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jinja;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.InterpretException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
+
+/**
+ * A Jinja template that is parsed once and rendered many times.
+ * <p />
+ * {@link Jinjava#render(String, Map)} parses the template on every call. This class keeps the parsed node tree and
+ * renders it the way {@link Jinjava#render(String, Map)} does. The node tree is only read while rendering, so a
+ * template can be rendered by several threads at the same time.
+ * <p />
+ * Templates that can't be parsed without errors, and renderings that fail with an exception, are passed to
+ * {@link Jinjava#render(String, Map)}, so errors are reported exactly as before.
+ * <p />
+ * This class is shared with other add-ons that render Jinja templates, e.g. the Home Assistant MQTT binding.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+public class JinjaTemplate {
+    private final Jinjava jinjava;
+    private final String template;
+    private final @Nullable Node root;
+
+    private JinjaTemplate(Jinjava jinjava, String template, @Nullable Node root) {
+        this.jinjava = jinjava;
+        this.template = template;
+        this.root = root;
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @param jinjava the engine to parse and render the template with
+     * @param template the template
+     * @return the parsed template
+     */
+    public static JinjaTemplate parse(Jinjava jinjava, String template) {
+        @Nullable
+        Node root;
+        try {
+            JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, new Context(jinjava.getGlobalContext()),
+                    jinjava.getGlobalConfig());
+            root = interpreter.parse(template);
+            if (!interpreter.getErrorsCopy().isEmpty()) {
+                root = null;
+            }
+        } catch (RuntimeException e) {
+            root = null;
+        }
+        return new JinjaTemplate(jinjava, template, root);
+    }
+
+    /**
+     * Whether the template may use the given variable, to skip creating bindings the template does not use.
+     * <p />
+     * This is a textual check of the template and not an analysis of its expressions: it returns <code>true</code> if
+     * the name appears anywhere in the template, also in a string literal, a comment or as part of a longer name. A
+     * template can only use a variable by its name, so it never returns <code>false</code> for a variable the
+     * template uses. A wrong <code>true</code> only means the binding is created without being needed.
+     *
+     * @param name the variable name
+     * @return <code>false</code> if the template does not use the variable
+     */
+    public boolean mayReference(String name) {
+        return template.contains(name);
+    }
+
+    /**
+     * Render the template.
+     *
+     * @param bindings the variables
+     * @return the rendered template
+     * @throws FatalTemplateErrorsException if rendering the template failed
+     */
+    public String render(Map<String, @Nullable Object> bindings) throws FatalTemplateErrorsException {
+        Node localRoot = root;
+        if (localRoot == null) {
+            return jinjava.render(template, bindings);
+        }
+
+        JinjavaConfig config = jinjava.getGlobalConfig();
+        Context context = new Context(jinjava.getGlobalContext(), bindings, config.getDisabled());
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, context, config);
+        @Nullable
+        String output;
+        List<TemplateError> errors;
+        JinjavaInterpreter.pushCurrent(interpreter);
+        try {
+            output = interpreter.render(localRoot);
+            errors = interpreter.getErrorsCopy();
+        } catch (InterpretException e) {
+            output = null;
+            errors = List.of();
+        } finally {
+            jinjava.getGlobalContext().reset();
+            JinjavaInterpreter.popCurrent();
+        }
+        if (output == null) {
+            // let Jinjava turn the exception into template errors
+            return jinjava.render(template, bindings);
+        }
+
+        List<TemplateError> fatalErrors = errors.stream().filter(error -> error.getSeverity() == ErrorType.FATAL)
+                .toList();
+        if (!fatalErrors.isEmpty()) {
+            throw new FatalTemplateErrorsException(template, fatalErrors);
+        }
+        return output;
+    }
+}
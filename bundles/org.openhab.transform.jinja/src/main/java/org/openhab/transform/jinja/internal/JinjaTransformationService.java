@@ -14,8 +14,10 @@ package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -24,6 +26,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.openhab.transform.jinja.JinjaTemplate;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +40,9 @@ import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Parsed templates are cached. The input is only parsed as JSON if the template uses <code>value_json</code>.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -44,9 +50,21 @@ import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
 @Component(property = { "openhab.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_TEMPLATES = 256;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private final Jinjava jinjava = new Jinjava();
+    private final Map<String, JinjaTemplate> templateCache = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, JinjaTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            });
 
     /**
      * Transforms the input <code>value</code> by Jinja template.
@@ -62,17 +80,25 @@ public class JinjaTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", value, template);
 
+        JinjaTemplate parsedTemplate = templateCache.get(template);
+        if (parsedTemplate == null) {
+            parsedTemplate = JinjaTemplate.parse(jinjava, template);
+            templateCache.put(template, parsedTemplate);
+        }
+
         bindings.put("value", value);
 
-        try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+        if (parsedTemplate.mayReference("value_json")) {
+            try {
+                JsonNode tree = OBJECT_MAPPER.readTree(value);
+                bindings.put("value_json", toObject(tree));
+            } catch (IOException e) {
+                // ok, then value_json is null...
+            }
         }
 
         try {
-            transformationResult = jinjava.render(template, bindings);
+            transformationResult = parsedTemplate.render(bindings);
         } catch (FatalTemplateErrorsException e) {
             throw new TransformationException("An error occurred while transformation. " + e.getMessage(), e);
         }
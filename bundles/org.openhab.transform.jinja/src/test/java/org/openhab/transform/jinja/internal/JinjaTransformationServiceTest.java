@@ -113,4 +113,21 @@ public class JinjaTransformationServiceTest {
         // then map key is defined
         assertEquals("true", transformedResponse);
     }
+
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+        String template = "{% if value_json.state == 'on' %}ON{% else %}OFF{% endif %} {{ value_json.brightness }}";
+
+        assertEquals("ON 100", processor.transform(template, "{\"state\": \"on\", \"brightness\": 100}"));
+        assertEquals("OFF 0", processor.transform(template, "{\"state\": \"off\", \"brightness\": 0}"));
+        assertEquals("ON 50", processor.transform(template, "{\"state\": \"on\", \"brightness\": 50}"));
+    }
+
+    @Test
+    public void testTemplateErrorIsRepeated() {
+        assertThrows(TransformationException.class,
+                () -> processor.transform("Hello {{{ value_json.string }}!", "{\"string\": \"world\"}"));
+        assertThrows(TransformationException.class,
+                () -> processor.transform("Hello {{{ value_json.string }}!", "{\"string\": \"world\"}"));
+    }
 }
@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +28,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -31,6 +36,10 @@ import com.jayway.jsonpath.PathNotFoundException;
 
 /**
  * The implementation of a {@link TransformationService} which transforms the input by JSonPath Expressions.
+ * <p />
+ * Compiled expressions are kept in a bounded LRU cache. Things often transform one payload for many channels, so the
+ * parsed documents of the last sources are kept for a short time and reused when the very same source string instance
+ * is transformed again.
  *
  * @author Gaël L'hopital - Initial contribution
  * @author Sebastian Janzen - Initial contribution
@@ -39,8 +48,28 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(property = { "openhab.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    private static final int MAX_CACHED_PATHS = 256;
+    private static final int MAX_CACHED_DOCUMENTS = 4;
+    private static final long DOCUMENT_CACHE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> pathCache = Collections
+            .synchronizedMap(new LinkedHashMap<>(MAX_CACHED_PATHS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.@Nullable Entry<String, JsonPath> eldest) {
+                    return size() > MAX_CACHED_PATHS;
+                }
+            });
+
+    // most recently parsed document first
+    private final @Nullable ParsedDocument[] documentCache = new ParsedDocument[MAX_CACHED_DOCUMENTS];
+
+    private record ParsedDocument(String source, DocumentContext document, long parsedAt) {
+    }
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -62,7 +91,7 @@ public class JSonPathTransformationService implements TransformationService {
             return null;
         }
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = parse(source).read(compile(jsonPathExpression));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -78,6 +107,36 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private JsonPath compile(String jsonPathExpression) {
+        JsonPath path = pathCache.get(jsonPathExpression);
+        if (path == null) {
+            // invalid expressions throw and are not cached
+            path = JsonPath.compile(jsonPathExpression);
+            pathCache.put(jsonPathExpression, path);
+        }
+        return path;
+    }
+
+    private DocumentContext parse(String source) {
+        long now = System.nanoTime();
+        synchronized (documentCache) {
+            for (ParsedDocument cached : documentCache) {
+                // identity comparison: comparing the content would cost as much as parsing it
+                if (cached != null && cached.source() == source && now - cached.parsedAt() < DOCUMENT_CACHE_NANOS) {
+                    return cached.document();
+                }
+            }
+        }
+
+        // the parsed document is only read, never modified, so it can be shared between threads
+        DocumentContext document = JsonPath.parse(source);
+        synchronized (documentCache) {
+            System.arraycopy(documentCache, 0, documentCache, 1, documentCache.length - 1);
+            documentCache[0] = new ParsedDocument(source, document, now);
+        }
+        return document;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
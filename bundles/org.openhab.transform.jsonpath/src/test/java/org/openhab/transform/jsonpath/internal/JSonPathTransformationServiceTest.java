@@ -129,4 +129,40 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testManyPathsOnSameSource() throws TransformationException {
+        StringBuilder json = new StringBuilder("{\"channels\":[");
+        for (int i = 0; i < 20; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"value\":").append(i * 1.5)
+                    .append('}');
+        }
+        String source = json.append("]}").toString();
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(String.valueOf(i * 1.5), processor.transform("$.channels[" + i + "].value", source));
+            }
+        }
+    }
+
+    @Test
+    public void testDifferentSourcesAreNotMixedUp() throws TransformationException {
+        assertEquals("1", processor.transform("$.id", "{\"id\":1}"));
+        assertEquals("2", processor.transform("$.id", new String("{\"id\":2}")));
+        assertEquals("1", processor.transform("$.id", new String("{\"id\":1}")));
+    }
+
+    @Test
+    public void testInvalidPathThrowsExceptionRepeatedly() {
+        assertThrows(TransformationException.class, () -> processor.transform("$$", JSON_ARRAY));
+        assertThrows(TransformationException.class, () -> processor.transform("$$", JSON_ARRAY));
+    }
+
+    @Test
+    public void testInvalidJsonThrowsExceptionRepeatedly() {
+        String json = "{id:";
+        assertThrows(TransformationException.class, () -> processor.transform("$", json));
+        assertThrows(TransformationException.class, () -> processor.transform("$.id", json));
+    }
 }
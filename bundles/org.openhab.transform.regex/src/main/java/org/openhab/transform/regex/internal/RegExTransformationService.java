@@ -12,6 +12,10 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +34,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * <b>Note:</b> the given Regular Expression must contain exactly one group!
  *
+ * <p>
+ * Compiled expressions are cached, so an expression is only compiled the first time it is used.
+ *
  * @author Thomas.Eichstaedt-Engelen - Initial contribution
  */
 @NonNullByDefault
@@ -39,6 +46,18 @@ public class RegExTransformationService implements TransformationService {
     private final Logger logger = LoggerFactory.getLogger(RegExTransformationService.class);
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    /**
+     * A compiled expression: either the pattern to match the whole source with or the pattern and replacement of the
+     * substitution form.
+     */
+    private record CompiledRegEx(Pattern pattern, @Nullable String substitution, boolean global) {
+    }
+
+    private final Map<String, CompiledRegEx> cache = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
 
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
@@ -48,50 +67,76 @@ public class RegExTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
 
-        String result = "";
-
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        CompiledRegEx compiled = compile(regExpression);
+        String substitution = compiled.substitution();
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if ("g".equals(options)) {
-                result = source.trim().replaceAll(regex, substitution);
-            } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
-            }
+            Matcher matcher = compiled.pattern().matcher(source.trim());
+            return compiled.global() ? matcher.replaceAll(substitution) : matcher.replaceFirst(substitution);
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = compiled.pattern().matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
                     regExpression, source);
             return null;
         }
-        matcher.reset();
-
-        while (matcher.find()) {
-            if (matcher.groupCount() == 0) {
-                logger.info(
-                        "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
-                        regExpression);
-                continue;
-            }
 
-            result = matcher.group(1);
+        if (matcher.groupCount() == 0) {
+            logger.info(
+                    "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
+                    regExpression);
+            return "";
+        }
+        if (matcher.groupCount() > 1) {
+            logger.debug(
+                    "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
+                    regExpression);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * @return the number of transformations that used an already compiled expression
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
 
-            if (matcher.groupCount() > 1) {
-                logger.debug(
-                        "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
-                        regExpression);
-            }
+    /**
+     * @return the number of transformations that had to compile their expression
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    private CompiledRegEx compile(String regExpression) {
+        CompiledRegEx compiled = cache.get(regExpression);
+        if (compiled != null) {
+            cacheHits.increment();
+            return compiled;
         }
+        cacheMisses.increment();
 
-        return result;
+        // invalid expressions throw a PatternSyntaxException and are not cached
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            compiled = new CompiledRegEx(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                    "g".equals(substMatcher.group(3)));
+        } else {
+            compiled = new CompiledRegEx(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null, false);
+        }
+
+        if (cache.size() >= MAX_CACHED_EXPRESSIONS) {
+            // expressions come from configuration, so the limit is only reached with generated expressions
+            Iterator<String> keys = cache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        cache.put(regExpression, compiled);
+        return compiled;
     }
 }
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The ranges of a scale compiled into a sorted array of boundaries for lookup by binary search.
+ * <p />
+ * The distinct limits of all ranges split the number line into points (the limits themselves) and the open intervals
+ * between them. No limit lies inside such a piece, so every range contains either all or none of its values, and the
+ * first range of the scale containing a piece is determined once when compiling. Overlapping ranges therefore need no
+ * ordered scan at lookup time.
+ * <p />
+ * If all limits are exactly representable as doubles, values are located by comparing doubles; only a value whose
+ * double equals a limit is compared exactly with that limit.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class ScaleLookup {
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+
+    // sorted, distinct
+    private final BigDecimal[] limits;
+    // the limits as doubles or null if a limit can't be represented exactly
+    private final double @Nullable [] doubleLimits;
+    // labels[2 * i] is the label of the values below limits[i], labels[2 * i + 1] the label of limits[i]
+    private final @Nullable String[] labels;
+
+    private ScaleLookup(BigDecimal[] limits, double @Nullable [] doubleLimits, @Nullable String[] labels) {
+        this.limits = limits;
+        this.doubleLimits = doubleLimits;
+        this.labels = labels;
+    }
+
+    /**
+     * Compile ranges.
+     *
+     * @param ranges the ranges and their labels, in the order of precedence
+     * @return the lookup
+     */
+    static ScaleLookup compile(Map<Range, String> ranges) {
+        TreeSet<BigDecimal> distinctLimits = new TreeSet<>();
+        for (Range range : ranges.keySet()) {
+            if (range.min != null) {
+                distinctLimits.add(range.min);
+            }
+            if (range.max != null) {
+                distinctLimits.add(range.max);
+            }
+        }
+        BigDecimal[] limits = distinctLimits.toArray(new BigDecimal[0]);
+
+        double[] doubleLimits = new double[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            doubleLimits[i] = limits[i].doubleValue();
+            if (!Double.isFinite(doubleLimits[i]) || new BigDecimal(doubleLimits[i]).compareTo(limits[i]) != 0) {
+                doubleLimits = null;
+                break;
+            }
+        }
+
+        @Nullable
+        String[] labels = new String[2 * limits.length + 1];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = firstMatch(ranges, representative(limits, i));
+        }
+        return new ScaleLookup(limits, doubleLimits, labels);
+    }
+
+    /**
+     * @return the label of the first range containing the value or <code>null</code> if no range contains it
+     */
+    @Nullable
+    String lookup(BigDecimal value) {
+        double[] localDoubleLimits = doubleLimits;
+        if (localDoubleLimits != null) {
+            double doubleValue = value.doubleValue();
+            if (Double.isFinite(doubleValue)) {
+                int index = Arrays.binarySearch(localDoubleLimits, doubleValue);
+                if (index < 0) {
+                    // rounding to double is monotonic, so the value lies between the same limits as its double
+                    return labels[2 * (-index - 1)];
+                }
+                // the double equals a limit, the value itself may be slightly below or above it
+                int cmp = value.compareTo(limits[index]);
+                return labels[2 * index + 1 + Integer.signum(cmp)];
+            }
+        }
+
+        int index = Arrays.binarySearch(limits, value);
+        return index >= 0 ? labels[2 * index + 1] : labels[2 * (-index - 1)];
+    }
+
+    /**
+     * @return a value of the piece with the given label index
+     */
+    private static BigDecimal representative(BigDecimal[] limits, int labelIndex) {
+        if (limits.length == 0) {
+            return BigDecimal.ZERO;
+        }
+        int index = labelIndex / 2;
+        if (labelIndex % 2 == 1) {
+            return limits[index];
+        } else if (index == 0) {
+            return limits[0].subtract(BigDecimal.ONE);
+        } else if (index == limits.length) {
+            return limits[limits.length - 1].add(BigDecimal.ONE);
+        } else {
+            return limits[index - 1].add(limits[index]).multiply(HALF);
+        }
+    }
+
+    private static @Nullable String firstMatch(Map<Range, String> ranges, BigDecimal value) {
+        for (Map.Entry<Range, String> entry : ranges.entrySet()) {
+            if (entry.getKey().contains(value)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
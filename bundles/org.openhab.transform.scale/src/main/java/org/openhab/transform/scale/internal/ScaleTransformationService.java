@@ -80,7 +80,17 @@ public class ScaleTransformationService
     private static final Range FORMAT_RANGE = Range.range(BigDecimal.ZERO, false, BigDecimal.ZERO, false);
     private final TransformationRegistry transformationRegistry;
 
-    private final Map<String, Map<@Nullable Range, String>> cachedTransformations = new ConcurrentHashMap<>();
+    private final Map<String, Scale> cachedTransformations = new ConcurrentHashMap<>();
+
+    /**
+     * A parsed scale file.
+     *
+     * @param format the presentation format
+     * @param nonNumeric the label for non-numeric inputs or <code>null</code> if there is no 'NaN' entry
+     * @param ranges the ranges
+     */
+    private record Scale(String format, @Nullable String nonNumeric, ScaleLookup ranges) {
+    }
 
     @Activate
     public ScaleTransformationService(@Reference TransformationRegistry transformationRegistry) {
@@ -150,7 +160,7 @@ public class ScaleTransformationService
             if (!cachedTransformations.containsKey(transformation.getUID())) {
                 importConfiguration(transformation);
             }
-            Map<@Nullable Range, String> data = cachedTransformations.get(transformation.getUID());
+            Scale data = cachedTransformations.get(transformation.getUID());
 
             if (data != null) {
                 String target;
@@ -164,7 +174,7 @@ public class ScaleTransformationService
                         final QuantityType<?> quantity = new QuantityType<>(source);
                         return formatResult(data, source, quantity.toBigDecimal());
                     } catch (IllegalArgumentException e2) {
-                        String nonNumeric = data.get(null);
+                        String nonNumeric = data.nonNumeric();
                         if (nonNumeric != null) {
                             target = nonNumeric;
                         } else {
@@ -181,18 +191,17 @@ public class ScaleTransformationService
         throw new TransformationException("Could not find configuration '" + function + "' or failed to parse it.");
     }
 
-    private String formatResult(Map<@Nullable Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        String format = data.get(FORMAT_RANGE);
+    private String formatResult(Scale data, String source, final BigDecimal value) throws TransformationException {
         String result = getScaleResult(data, source, value);
-        return format.replaceAll(FORMAT_VALUE, source).replaceAll(FORMAT_LABEL, result);
+        return data.format().replaceAll(FORMAT_VALUE, source).replaceAll(FORMAT_LABEL, result);
     }
 
-    private String getScaleResult(Map<@Nullable Range, String> data, String source, final BigDecimal value)
-            throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey() != null && entry.getKey().contains(value))
-                .findFirst().map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+    private String getScaleResult(Scale data, String source, final BigDecimal value) throws TransformationException {
+        String result = data.ranges().lookup(value);
+        if (result == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return result;
     }
 
     private void importConfiguration(@Nullable Transformation configuration) {
@@ -236,7 +245,14 @@ public class ScaleTransformationService
                     }
                 }
 
-                cachedTransformations.put(configuration.getUID(), data);
+                final Map<Range, String> ranges = new LinkedHashMap<>();
+                data.forEach((range, label) -> {
+                    if (range != null && range != FORMAT_RANGE) {
+                        ranges.put(range, label);
+                    }
+                });
+                cachedTransformations.put(configuration.getUID(), new Scale(
+                        Objects.requireNonNull(data.get(FORMAT_RANGE)), data.get(null), ScaleLookup.compile(ranges)));
             } catch (IOException | NumberFormatException ignored) {
             }
         }
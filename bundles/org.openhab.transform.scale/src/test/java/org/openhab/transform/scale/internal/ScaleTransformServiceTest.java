@@ -187,4 +187,22 @@ public class ScaleTransformServiceTest {
         String source = "200";
         assertThrows(TransformationException.class, () -> processor.transform(existingscale, source));
     }
+
+    @Test
+    public void testDecimalLimits() throws TransformationException {
+        String existingscale = "scale" + File.separator + "pm25.scale";
+
+        assertEquals("Good", processor.transform(existingscale, "0"));
+        assertEquals("Good", processor.transform(existingscale, "12.0"));
+        assertEquals("Moderate", processor.transform(existingscale, "12.0000000000000000001"));
+        assertEquals("Moderate", processor.transform(existingscale, "35.4"));
+        assertEquals("Unhealthy for Sensitive Groups", processor.transform(existingscale, "35.41"));
+        assertEquals("Unhealthy", processor.transform(existingscale, "150.4"));
+        // overlapping ranges, the first one in the file wins
+        assertEquals("Very Unhealthy", processor.transform(existingscale, "175"));
+        assertEquals("Very Unhealthy", processor.transform(existingscale, "250.4"));
+        assertEquals("Hazardous", processor.transform(existingscale, "250.40000000000001"));
+        assertThrows(TransformationException.class, () -> processor.transform(existingscale, "-0.1"));
+        assertThrows(TransformationException.class, () -> processor.transform(existingscale, "500.5"));
+    }
 }
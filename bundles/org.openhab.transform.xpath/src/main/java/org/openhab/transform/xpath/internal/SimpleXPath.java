@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2024 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple absolute location paths like <code>/root/sensor/value</code> or
+ * <code>/root/sensor/value/text()</code> to their string value while streaming through the document with StAX, without
+ * building a DOM tree.
+ * <p />
+ * The whole document is read, so malformed documents are detected like with the DOM parser. Documents with a DTD or
+ * unresolved entity references are not evaluated, {@link #evaluate(String)} returns <code>null</code> and the caller
+ * has to use the full XPath implementation.
+ *
+ * @author Agent - Initial contribution
+ */
+@NonNullByDefault
+class SimpleXPath {
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/[A-Za-z_][\\w.-]*)+(/text\\(\\))?");
+    private static final String TEXT_STEP = "/text()";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final String[] steps;
+    private final boolean text;
+
+    private SimpleXPath(String[] steps, boolean text) {
+        this.steps = steps;
+        this.text = text;
+    }
+
+    /**
+     * @param expression the XPath expression
+     * @return the simple path or <code>null</code> if the expression is not a simple path
+     */
+    static @Nullable SimpleXPath parse(String expression) {
+        if (!SIMPLE_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        boolean text = expression.endsWith(TEXT_STEP);
+        String path = text ? expression.substring(0, expression.length() - TEXT_STEP.length()) : expression;
+        return new SimpleXPath(path.substring(1).split("/"), text);
+    }
+
+    /**
+     * Evaluate the path like {@link javax.xml.xpath.XPathConstants#STRING}: the string value of the first selected
+     * node or an empty string if no node is selected.
+     *
+     * @param source the XML document
+     * @return the string value or <code>null</code> if the document can't be evaluated with this fast path
+     */
+    @Nullable
+    String evaluate(String source) {
+        XMLStreamReader reader;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        } catch (XMLStreamException e) {
+            return null;
+        }
+
+        try {
+            @Nullable
+            String result = null;
+            StringBuilder value = new StringBuilder();
+            // number of open elements
+            int depth = 0;
+            // number of open elements that match the first steps of the path
+            int matched = 0;
+            // the first selected element is open and its value is being collected
+            boolean collecting = false;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (collecting && text && depth == steps.length && value.length() > 0) {
+                            // a child element ends the first text node
+                            result = value.toString();
+                            collecting = false;
+                        }
+                        if (matched == depth && depth < steps.length && matches(reader, steps[depth])) {
+                            matched++;
+                            collecting = result == null && matched == steps.length;
+                        }
+                        depth++;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (collecting && depth == steps.length) {
+                            // without text() the value of the element is the text of all its descendants
+                            if (!text || value.length() > 0) {
+                                result = value.toString();
+                            }
+                            collecting = false;
+                        }
+                        depth--;
+                        matched = Math.min(matched, depth);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (collecting && (!text || depth == steps.length)) {
+                            value.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        if (collecting && text && depth == steps.length && value.length() > 0) {
+                            // comments and processing instructions separate text nodes
+                            result = value.toString();
+                            collecting = false;
+                        }
+                        break;
+                    case XMLStreamConstants.DTD:
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        return null;
+                    default:
+                        break;
+                }
+            }
+            return result == null ? "" : result;
+        } catch (XMLStreamException e) {
+            return null;
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // ignore, the reader only reads from a string
+            }
+        }
+    }
+
+    private static boolean matches(XMLStreamReader reader, String name) {
+        String namespace = reader.getNamespaceURI();
+        return (namespace == null || namespace.isEmpty()) && name.equals(reader.getLocalName());
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -13,9 +13,16 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -35,25 +42,42 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Simple absolute paths like <code>/root/sensor/value</code> are evaluated while streaming through the document, see
+ * {@link SimpleXPath}. All other expressions are evaluated on a DOM document. Parsers and compiled expressions are
+ * pooled and reused.
+ *
  * @author Thomas.Eichstaedt-Engelen - Initial contribution
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
+    private static final int MAX_POOLED_EVALUATORS = 8;
+    private static final int MAX_CACHED_EXPRESSIONS = 64;
 
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
-    @Override
-    public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
-        if (xpathExpression == null || source == null) {
-            throw new TransformationException("the given parameters 'xpath' and 'source' must not be null");
-        }
+    // expressions without a simple path are cached as Optional.empty()
+    private final Map<String, Optional<SimpleXPath>> simplePaths = new ConcurrentHashMap<>();
+    private final Deque<Evaluator> evaluators = new ArrayDeque<>(MAX_POOLED_EVALUATORS);
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
+    /**
+     * A {@link DocumentBuilder}, an {@link XPath} and its compiled expressions. None of these objects is
+     * thread-safe, so an evaluator is only used by one thread at a time and pooled afterwards.
+     */
+    private static class Evaluator {
+        private final DocumentBuilder builder;
+        private final XPath xpath = XPathFactory.newInstance().newXPath();
+        private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
 
-        StringReader stringReader = null;
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, XPathExpression> eldest) {
+                return size() > MAX_CACHED_EXPRESSIONS;
+            }
+        };
 
-        try {
+        Evaluator() throws ParserConfigurationException {
             DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
             // see https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html
             domFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
@@ -63,18 +87,52 @@ public class XPathTransformationService implements TransformationService {
             domFactory.setExpandEntityReferences(false);
             domFactory.setNamespaceAware(true);
             domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            builder = domFactory.newDocumentBuilder();
+        }
 
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
-            inputSource.setEncoding("UTF-8");
+        String evaluate(String xpathExpression, String source) throws Exception {
+            XPathExpression expr = expressions.get(xpathExpression);
+            if (expr == null) {
+                expr = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expr);
+            }
 
+            InputSource inputSource = new InputSource(new StringReader(source));
+            inputSource.setEncoding("UTF-8");
+            builder.reset();
             Document doc = builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            return (String) expr.evaluate(doc, XPathConstants.STRING);
+        }
+    }
+
+    @Override
+    public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
+        if (xpathExpression == null || source == null) {
+            throw new TransformationException("the given parameters 'xpath' and 'source' must not be null");
+        }
+
+        logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
+
+        if (simplePaths.size() > MAX_CACHED_EXPRESSIONS) {
+            simplePaths.clear();
+        }
+        SimpleXPath simplePath = simplePaths
+                .computeIfAbsent(xpathExpression, expression -> Optional.ofNullable(SimpleXPath.parse(expression)))
+                .orElse(null);
+        if (simplePath != null) {
+            String transformationResult = simplePath.evaluate(source);
+            if (transformationResult != null) {
+                logger.debug("transformation resulted in '{}'", transformationResult);
+                return transformationResult;
+            }
+        }
 
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+        @Nullable
+        Evaluator evaluator = null;
+        try {
+            evaluator = acquireEvaluator();
+            String transformationResult = evaluator.evaluate(xpathExpression, source);
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
@@ -82,8 +140,26 @@ public class XPathTransformationService implements TransformationService {
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
         } finally {
-            if (stringReader != null) {
-                stringReader.close();
+            if (evaluator != null) {
+                releaseEvaluator(evaluator);
+            }
+        }
+    }
+
+    private Evaluator acquireEvaluator() throws ParserConfigurationException {
+        @Nullable
+        Evaluator evaluator;
+        synchronized (evaluators) {
+            evaluator = evaluators.pollFirst();
+        }
+        return evaluator != null ? evaluator : new Evaluator();
+    }
+
+    private void releaseEvaluator(Evaluator evaluator) {
+        // the builder is reset before every parse, so the evaluator can be reused after an error as well
+        synchronized (evaluators) {
+            if (evaluators.size() < MAX_POOLED_EVALUATORS) {
+                evaluators.addFirst(evaluator);
             }
         }
     }
@@ -38,4 +38,28 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformBySimplePath() throws TransformationException {
+        String xml = "<status><sensor><temp>21.5</temp><!-- unit --><unit>C</unit></sensor>"
+                + "<sensor><temp>19</temp></sensor></status>";
+
+        assertEquals("21.5", processor.transform("/status/sensor/temp", xml));
+        assertEquals("21.5", processor.transform("/status/sensor/temp/text()", xml));
+        assertEquals("21.5C", processor.transform("/status/sensor", xml));
+        assertEquals("", processor.transform("/status/sensor/humidity", xml));
+    }
+
+    @Test
+    public void testTransformBySimplePathMatchesFullXPath() throws TransformationException {
+        String xml = "<a><b><![CDATA[x<y]]> &amp; z<c>1</c>tail</b></a>";
+
+        assertEquals(processor.transform("/a/b/text()[1]", xml), processor.transform("/a/b/text()", xml));
+        assertEquals(processor.transform("/a/b[1]", xml), processor.transform("/a/b", xml));
+    }
+
+    @Test
+    public void testTransformBySimplePathInvalidXml() {
+        assertThrows(TransformationException.class, () -> processor.transform("/a/b", "<a><b>1</b>"));
+    }
 }
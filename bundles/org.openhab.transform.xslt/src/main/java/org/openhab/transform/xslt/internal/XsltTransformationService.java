@@ -12,11 +12,13 @@
  */
 package org.openhab.transform.xslt.internal;
 
-import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
@@ -25,9 +27,13 @@ import javax.xml.transform.stream.StreamSource;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.OpenHAB;
+import org.openhab.core.service.WatchService;
 import org.openhab.core.transform.TransformationException;
 import org.openhab.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,16 +45,42 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 @Component(property = { "openhab.transform=XSLT" })
-public class XsltTransformationService implements TransformationService {
+public class XsltTransformationService implements TransformationService, WatchService.WatchEventListener {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final WatchService watchService;
+    private final Map<Path, Templates> templatesCache = new ConcurrentHashMap<>();
+
+    @Activate
+    public XsltTransformationService(
+            final @Reference(target = WatchService.CONFIG_WATCHER_FILTER) WatchService watchService) {
+        this.watchService = watchService;
+        watchService.registerListener(this, Path.of(TransformationService.TRANSFORM_FOLDER_NAME));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        watchService.unregisterListener(this);
+        templatesCache.clear();
+    }
+
+    @Override
+    public void processWatchEvent(WatchService.Kind kind, Path path) {
+        // stylesheets can include other files, so every change invalidates all compiled stylesheets
+        if (!templatesCache.isEmpty()) {
+            logger.debug("'{}' has changed, discarding compiled stylesheets", path);
+            templatesCache.clear();
+        }
+    }
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
      * The method expects the transformation rule to be read from a file which
      * is stored under the 'configurations/transform' folder. To organize the
-     * various transformations one should use subfolders.
+     * various transformations one should use subfolders. The compiled rule is
+     * cached until a file in the folder changes.
      *
      * @param filename the name of the file which contains the XSLT transformation rule.
      *            The name may contain subfoldernames as well
@@ -60,12 +92,10 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        Path path;
 
         try {
-            String path = OpenHAB.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
-                    + File.separator + filename;
-            xsl = new StreamSource(new File(path));
+            path = Path.of(OpenHAB.getConfigFolder(), TransformationService.TRANSFORM_FOLDER_NAME, filename);
         } catch (Exception e) {
             String message = "opening file '" + filename + "' throws exception";
 
@@ -73,15 +103,19 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException(message, e);
         }
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, path);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            Templates templates = templatesCache.get(path);
+            if (templates == null) {
+                templates = TransformerFactory.newInstance().newTemplates(new StreamSource(path.toFile()));
+                templatesCache.put(path, templates);
+            }
+            // a Transformer is not thread-safe, the compiled Templates are
+            Transformer transformer = templates.newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
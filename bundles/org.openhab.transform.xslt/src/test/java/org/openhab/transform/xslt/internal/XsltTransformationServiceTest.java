@@ -13,6 +13,7 @@
 package org.openhab.transform.xslt.internal;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -23,6 +24,7 @@ import java.nio.file.StandardCopyOption;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.OpenHAB;
+import org.openhab.core.service.WatchService;
 import org.openhab.core.transform.TransformationException;
 
 /**
@@ -40,7 +42,7 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
             Files.createDirectories(transformHttpPath);
         }
 
-        processor = new XsltTransformationService();
+        processor = new XsltTransformationService(mock(WatchService.class));
     }
 
     @Test
@@ -54,4 +56,17 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         // Asserts
         assertEquals("8", transformedResponse);
     }
+
+    @Test
+    public void testTransformByXSLTAfterFileChange() throws TransformationException, IOException {
+        Path xsl = transformHttpPath.resolve("changing.xsl");
+        Files.copy(getClass().getResourceAsStream("google_weather.xsl"), xsl, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals("8", processor.transform("http/changing.xsl", source));
+        assertEquals("8", processor.transform("http/changing.xsl", source));
+
+        Files.writeString(xsl, Files.readString(xsl).replace("temp_c", "temp_f"));
+        processor.processWatchEvent(WatchService.Kind.MODIFY, Path.of("transform", "http", "changing.xsl"));
+
+        assertEquals("46", processor.transform("http/changing.xsl", source));
+    }
 }